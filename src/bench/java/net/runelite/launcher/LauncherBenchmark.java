@@ -0,0 +1,87 @@
+package net.runelite.launcher;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Bootstrap;
+import net.runenite.utils.ResourceManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LauncherBenchmark
+{
+	private Bootstrap bootstrap;
+
+	@State(Scope.Benchmark)
+	public static class Jar
+	{
+		@Param({"guava-23.2-jre.jar", "injected-client-1.10.46.1.jar"})
+		public String name;
+
+		private File file;
+
+		@Setup
+		public void setup() throws IOException
+		{
+			file = File.createTempFile("bench", ".jar");
+			ResourceManager.copyResource("artifacts/" + name, file);
+		}
+
+		@TearDown
+		public void tearDown() throws IOException
+		{
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	@Setup
+	public void setup() throws IOException
+	{
+		try (InputStream in = LauncherBenchmark.class.getResourceAsStream("/net/runenite/bootstrap.json"))
+		{
+			bootstrap = new Gson().fromJson(new InputStreamReader(in, StandardCharsets.UTF_8), Bootstrap.class);
+		}
+	}
+
+	@Benchmark
+	public String hash(Jar jar) throws IOException
+	{
+		return Launcher.hash(jar.file);
+	}
+
+	@Benchmark
+	public int compareVersion()
+	{
+		return Launcher.compareVersion("1.10.46.1", "1.10.46-SNAPSHOT")
+			+ Launcher.compareVersion("2.7.3-SNAPSHOT", "2.7.3");
+	}
+
+	@Benchmark
+	public List<Artifact> platformArtifacts()
+	{
+		return Launcher.getPlatformArtifacts(bootstrap);
+	}
+}
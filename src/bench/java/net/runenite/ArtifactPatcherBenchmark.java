@@ -0,0 +1,71 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import net.runelite.launcher.Launcher;
+import net.runelite.launcher.beans.Artifact;
+import net.runenite.utils.ResourceManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End to end {@link ArtifactPatcher#patch(Artifact)} of the bundled artifacts. The launcher directories are
+ * derived from user.home, so each fork points it at a scratch directory before the launcher classes load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ArtifactPatcherBenchmark
+{
+	@Param({"injected-client-", "runelite-api-"})
+	public String artifactPrefix;
+
+	private Artifact artifact;
+	private File pristine;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException
+	{
+		System.setProperty("user.home", Files.createTempDirectory("runenite-bench").toString());
+
+		artifact = Arrays.stream(RuneNiteLauncher.getBundledBootstrap().getArtifacts())
+			.filter(a -> a.getName().startsWith(artifactPrefix))
+			.findFirst()
+			.orElseThrow();
+
+		RuneNiteLauncher.ensureDirectoryExists(Launcher.REPO_DIR);
+		ArtifactPatcher.unpackBundledPatchResources();
+
+		pristine = File.createTempFile("pristine", ".jar");
+		ResourceManager.copyResource("artifacts/" + artifact.getName(), pristine);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() throws IOException
+	{
+		Files.copy(pristine.toPath(), new File(Launcher.REPO_DIR, artifact.getName()).toPath(),
+			java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Benchmark
+	public void patch() throws IOException
+	{
+		ArtifactPatcher.patch(artifact);
+	}
+}
@@ -0,0 +1,116 @@
+package net.runenite;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A loopback stand-in for the artifact repository, with optional latency and bandwidth limits.
+ */
+public class ArtifactServer implements AutoCloseable
+{
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+	private final AtomicLong bytesServed = new AtomicLong();
+
+	private volatile int latencyMillis;
+	private volatile long bytesPerSecond;
+
+	public ArtifactServer() throws IOException
+	{
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	public String put(String name, byte[] data)
+	{
+		files.put("/" + name, data);
+		return "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort() + "/" + name;
+	}
+
+	public void setLatency(int millis)
+	{
+		latencyMillis = millis;
+	}
+
+	/**
+	 * @param bytesPerSecond the bandwidth of each response, or 0 for unlimited
+	 */
+	public void setBandwidth(long bytesPerSecond)
+	{
+		this.bytesPerSecond = bytesPerSecond;
+	}
+
+	public long getBytesServed()
+	{
+		return bytesServed.get();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException
+	{
+		try
+		{
+			if (latencyMillis > 0)
+			{
+				Thread.sleep(latencyMillis);
+			}
+
+			byte[] data = files.get(exchange.getRequestURI().getPath());
+			if (data == null)
+			{
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+
+			exchange.sendResponseHeaders(200, data.length);
+			long bps = bytesPerSecond;
+			int chunk = bps > 0 ? (int) Math.max(1024, bps / 20) : data.length;
+			long start = System.nanoTime();
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				for (int off = 0; off < data.length; off += chunk)
+				{
+					int len = Math.min(chunk, data.length - off);
+					out.write(data, off, len);
+					bytesServed.addAndGet(len);
+
+					if (bps > 0)
+					{
+						long due = start + (off + len) * 1_000_000_000L / bps;
+						long wait = due - System.nanoTime();
+						if (wait > 0)
+						{
+							Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+						}
+					}
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			exchange.close();
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
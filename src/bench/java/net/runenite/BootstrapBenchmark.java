@@ -0,0 +1,26 @@
+package net.runenite;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import net.runelite.launcher.beans.Bootstrap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BootstrapBenchmark
+{
+	@Benchmark
+	public Bootstrap parseBundledBootstrap() throws IOException
+	{
+		return RuneNiteLauncher.getBundledBootstrap();
+	}
+}
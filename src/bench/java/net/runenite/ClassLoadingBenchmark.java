@@ -0,0 +1,111 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import net.runelite.launcher.Launcher;
+import net.runelite.launcher.beans.Artifact;
+import net.runenite.utils.ResourceManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Loads every class of the bundled, platform independent artifacts through a fresh class loader, the way the client
+ * does at startup, with the artifacts as separate jars or merged by {@link ClasspathMerger}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ClassLoadingBenchmark
+{
+	@Param({"separate", "merged"})
+	public String layout;
+
+	private URL[] classpath;
+	private List<String> classes;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		System.setProperty("user.home", Files.createTempDirectory("runenite-bench").toString());
+		RuneNiteLauncher.ensureDirectoryExists(Launcher.REPO_DIR);
+
+		List<Artifact> artifacts = Arrays.stream(RuneNiteLauncher.getBundledBootstrap().getArtifacts())
+			.filter(a -> a.getPlatform() == null)
+			.filter(a -> RuneNiteLauncher.class.getResource("artifacts/" + a.getName()) != null)
+			.collect(Collectors.toList());
+
+		classes = new ArrayList<>();
+		for (Artifact artifact : artifacts)
+		{
+			File file = new File(Launcher.REPO_DIR, artifact.getName());
+			ResourceManager.copyResource("artifacts/" + artifact.getName(), file);
+
+			try (ZipFile zip = new ZipFile(file))
+			{
+				for (ZipEntry entry : Collections.list(zip.entries()))
+				{
+					String name = entry.getName();
+					if (name.endsWith(".class") && !name.startsWith("META-INF/") && !name.endsWith("module-info.class"))
+					{
+						classes.add(name.substring(0, name.length() - 6).replace('/', '.'));
+					}
+				}
+			}
+		}
+
+		List<File> files = "merged".equals(layout)
+			? ClasspathMerger.merge(artifacts, List.of())
+			: artifacts.stream().map(a -> new File(Launcher.REPO_DIR, a.getName())).collect(Collectors.toList());
+
+		classpath = new URL[files.size()];
+		for (int i = 0; i < classpath.length; ++i)
+		{
+			classpath[i] = files.get(i).toURI().toURL();
+		}
+	}
+
+	@Benchmark
+	public void loadAll(Blackhole bh) throws IOException
+	{
+		try (URLClassLoader loader = new URLClassLoader(classpath, ClassLoader.getPlatformClassLoader()))
+		{
+			for (String name : classes)
+			{
+				try
+				{
+					bh.consume(Class.forName(name, false, loader));
+				}
+				catch (ClassNotFoundException | LinkageError e)
+				{
+					// optional dependencies which aren't bundled
+					bh.consume(e);
+				}
+			}
+		}
+	}
+}
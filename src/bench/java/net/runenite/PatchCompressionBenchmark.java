@@ -0,0 +1,146 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import net.runelite.launcher.Launcher;
+import net.runelite.launcher.beans.Artifact;
+import net.runenite.utils.ResourceManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Patch time, and the time to load every class of the patched jar, for each {@link PatchCompression}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PatchCompressionBenchmark
+{
+	@State(Scope.Benchmark)
+	public static class Policy
+	{
+		@Param({"STORE", "FAST", "DEFAULT"})
+		public PatchCompression compression;
+
+		@Param({"injected-client-"})
+		public String artifactPrefix;
+
+		Artifact artifact;
+		File pristine;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException
+		{
+			System.setProperty("user.home", Files.createTempDirectory("runenite-bench").toString());
+
+			artifact = Arrays.stream(RuneNiteLauncher.getBundledBootstrap().getArtifacts())
+				.filter(a -> a.getName().startsWith(artifactPrefix))
+				.findFirst()
+				.orElseThrow();
+
+			RuneNiteLauncher.ensureDirectoryExists(Launcher.REPO_DIR);
+			ArtifactPatcher.unpackBundledPatchResources();
+			ArtifactPatcher.setCompression(compression);
+
+			pristine = File.createTempFile("pristine", ".jar");
+			ResourceManager.copyResource("artifacts/" + artifact.getName(), pristine);
+		}
+
+		void reset() throws IOException
+		{
+			Files.copy(pristine.toPath(), new File(Launcher.REPO_DIR, artifact.getName()).toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Patching
+	{
+		@Setup(Level.Invocation)
+		public void setup(Policy policy) throws IOException
+		{
+			policy.reset();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Patched
+	{
+		URL[] classpath;
+		List<String> classes = new ArrayList<>();
+
+		@Setup(Level.Trial)
+		public void setup(Policy policy) throws IOException
+		{
+			policy.reset();
+			ArtifactPatcher.patch(policy.artifact);
+
+			File patched = File.createTempFile("patched", ".jar");
+			Files.copy(new File(Launcher.REPO_DIR, policy.artifact.getName()).toPath(), patched.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+			classpath = new URL[]{patched.toURI().toURL()};
+
+			try (ZipFile zip = new ZipFile(patched))
+			{
+				for (ZipEntry entry : Collections.list(zip.entries()))
+				{
+					String name = entry.getName();
+					if (name.endsWith(".class") && !name.startsWith("META-INF/"))
+					{
+						classes.add(name.substring(0, name.length() - 6).replace('/', '.'));
+					}
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void patch(Policy policy, Patching patching) throws IOException
+	{
+		ArtifactPatcher.patch(policy.artifact);
+	}
+
+	@Benchmark
+	public void loadClasses(Patched patched, Blackhole bh) throws IOException
+	{
+		try (URLClassLoader loader = new URLClassLoader(patched.classpath, ClassLoader.getPlatformClassLoader()))
+		{
+			for (String name : patched.classes)
+			{
+				try
+				{
+					bh.consume(Class.forName(name, false, loader));
+				}
+				catch (ClassNotFoundException | LinkageError e)
+				{
+					// references classes from other artifacts
+					bh.consume(e);
+				}
+			}
+		}
+	}
+}
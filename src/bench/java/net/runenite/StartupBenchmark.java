@@ -0,0 +1,244 @@
+package net.runenite;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.GsonBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import net.runelite.launcher.Launcher;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Bootstrap;
+import net.runelite.launcher.beans.Diff;
+
+/**
+ * Runs {@link Launcher#main(String[])} in child JVMs against a generated bootstrap whose artifacts are served from a
+ * local {@link ArtifactServer}, and reports the time spent in each launcher phase from the launcher's flight
+ * recording.
+ * <p>
+ * The generated artifacts aren't bundled, so the launcher gets them from the server through the remote end of the
+ * {@link net.runenite.sources.ArtifactSources} chain, or as diffs. The benchmark changes nothing about how the
+ * launcher acquires artifacts; it only passes --skip-launch.
+ * <p>
+ * Scenarios, each in a fresh user.home:
+ * <ul>
+ * <li>cold - empty repository</li>
+ * <li>warm - the repository left by cold</li>
+ * <li>upgrade - the first artifact changes version. With --fixtures pointing at a directory containing old.jar,
+ * new.jar and diff.apdiff.gz, it is upgraded with the diff, otherwise with a full download.</li>
+ * </ul>
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec@startup -Dstartup.args="--latency 50 --bandwidth 2048"
+ * </pre>
+ */
+public class StartupBenchmark
+{
+	private static final String EVENT_PREFIX = "net.runenite.";
+
+	public static void main(String[] args) throws Exception
+	{
+		OptionParser parser = new OptionParser();
+		OptionSpec<Integer> latency = parser.accepts("latency", "Response latency in ms").withRequiredArg().ofType(Integer.class).defaultsTo(0);
+		OptionSpec<Integer> bandwidth = parser.accepts("bandwidth", "Bandwidth per response in KiB/s, 0 for unlimited").withRequiredArg().ofType(Integer.class).defaultsTo(0);
+		OptionSpec<Integer> count = parser.accepts("artifacts", "Number of generated artifacts").withRequiredArg().ofType(Integer.class).defaultsTo(20);
+		OptionSpec<Integer> size = parser.accepts("artifact-size", "Size of each generated artifact in KiB").withRequiredArg().ofType(Integer.class).defaultsTo(512);
+		OptionSpec<File> fixtures = parser.accepts("fixtures", "Directory with old.jar, new.jar and diff.apdiff.gz").withRequiredArg().ofType(File.class);
+		OptionSpec<Integer> runs = parser.accepts("runs", "Repetitions of each scenario").withRequiredArg().ofType(Integer.class).defaultsTo(3);
+		parser.accepts("help").forHelp();
+		OptionSet options = parser.parse(args);
+		if (options.has("help"))
+		{
+			parser.printHelpOn(System.out);
+			return;
+		}
+
+		try (ArtifactServer server = new ArtifactServer())
+		{
+			server.setLatency(options.valueOf(latency));
+			server.setBandwidth(options.valueOf(bandwidth) * 1024L);
+
+			Random random = new Random(0);
+			List<Artifact> base = new ArrayList<>();
+			for (int i = 0; i < options.valueOf(count); ++i)
+			{
+				base.add(serve(server, "bench-lib-" + i + "-1.0.jar", randomJar(random, options.valueOf(size) * 1024)));
+			}
+
+			File fixtureDir = options.valueOf(fixtures);
+			Artifact oldClient;
+			Artifact newClient;
+			if (fixtureDir != null)
+			{
+				oldClient = serve(server, "bench-client-1.jar", Files.readAllBytes(new File(fixtureDir, "old.jar").toPath()));
+				newClient = serve(server, "bench-client-2.jar", Files.readAllBytes(new File(fixtureDir, "new.jar").toPath()));
+
+				byte[] patch = Files.readAllBytes(new File(fixtureDir, "diff.apdiff.gz").toPath());
+				Diff diff = new Diff();
+				diff.setName(newClient.getName());
+				diff.setFrom(oldClient.getName());
+				diff.setFromHash(oldClient.getHash());
+				diff.setHash(sha256(patch));
+				diff.setSize(patch.length);
+				diff.setPath(server.put("bench-client-1.jar-bench-client-2.jar.apdiff.gz", patch));
+				newClient.setDiffs(new Diff[]{diff});
+			}
+			else
+			{
+				System.out.println("No --fixtures given, upgrade scenario uses a full download");
+				oldClient = serve(server, "bench-client-1.jar", randomJar(random, 6 * 1024 * 1024));
+				newClient = serve(server, "bench-client-2.jar", randomJar(random, 6 * 1024 * 1024));
+			}
+
+			List<Artifact> v1 = new ArrayList<>(base);
+			v1.add(0, oldClient);
+			List<Artifact> v2 = new ArrayList<>(base);
+			v2.add(0, newClient);
+
+			for (int run = 0; run < options.valueOf(runs); ++run)
+			{
+				Path home = Files.createTempDirectory("runenite-startup");
+				report("cold", launch(home, v1));
+				report("warm", launch(home, v1));
+				report("upgrade", launch(home, v2));
+			}
+
+			System.out.printf("%nServed %.1f MiB%n", server.getBytesServed() / (1024.0 * 1024.0));
+		}
+	}
+
+	private static Map<String, Duration> launch(Path home, List<Artifact> artifacts) throws IOException, InterruptedException
+	{
+		Bootstrap bootstrap = new Bootstrap();
+		bootstrap.setArtifacts(artifacts.toArray(new Artifact[0]));
+
+		Path runeniteDir = home.resolve(".runenite").resolve("runenite");
+		Files.createDirectories(runeniteDir);
+		Files.writeString(runeniteDir.resolve("bootstrap.json"), new GsonBuilder().setPrettyPrinting().create().toJson(bootstrap));
+
+		Path logs = home.resolve(".runenite").resolve("logs");
+		if (Files.isDirectory(logs))
+		{
+			try (Stream<Path> files = Files.list(logs))
+			{
+				for (Path file : files.filter(p -> p.toString().endsWith(".jfr")).collect(Collectors.toList()))
+				{
+					Files.delete(file);
+				}
+			}
+		}
+
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add("-Duser.home=" + home);
+		command.add("-Djava.awt.headless=true");
+		command.add(Launcher.class.getName());
+		command.add("--noupdate");
+		command.add("--skip-launch");
+		command.add("--jfr");
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command)
+			.directory(home.toFile())
+			.redirectErrorStream(true)
+			.redirectOutput(home.resolve("launcher.out").toFile())
+			.start();
+		if (!process.waitFor(5, TimeUnit.MINUTES))
+		{
+			process.destroy();
+			process.waitFor();
+		}
+		Duration wall = Duration.ofNanos(System.nanoTime() - start);
+
+		Map<String, Duration> phases = new TreeMap<>();
+		phases.put("wall", wall);
+		try (Stream<Path> files = Files.list(logs))
+		{
+			for (Path file : files.filter(p -> p.toString().endsWith(".jfr")).collect(Collectors.toList()))
+			{
+				for (RecordedEvent event : RecordingFile.readAllEvents(file))
+				{
+					String name = event.getEventType().getName();
+					if (!name.startsWith(EVENT_PREFIX))
+					{
+						continue;
+					}
+
+					String phase = name.substring(EVENT_PREFIX.length());
+					if (event.hasField("cacheOutcome"))
+					{
+						phase += " (" + event.getString("cacheOutcome") + ")";
+					}
+					phases.merge(phase, event.getDuration(), Duration::plus);
+				}
+			}
+		}
+		return phases;
+	}
+
+	private static void report(String scenario, Map<String, Duration> phases)
+	{
+		System.out.printf("%n%-10s%n", scenario);
+		phases.forEach((phase, duration) -> System.out.printf("  %-32s %8.1f ms%n", phase, duration.toNanos() / 1e6));
+	}
+
+	private static Artifact serve(ArtifactServer server, String name, byte[] data)
+	{
+		Artifact artifact = new Artifact();
+		artifact.setName(name);
+		artifact.setHash(sha256(data));
+		artifact.setSize(data.length);
+		artifact.setPath(server.put(name, data));
+		return artifact;
+	}
+
+	private static byte[] randomJar(Random random, int size) throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream(size + 1024);
+		try (JarOutputStream jar = new JarOutputStream(bout))
+		{
+			int entrySize = 16 * 1024;
+			for (int i = 0; i * entrySize < size; ++i)
+			{
+				byte[] data = new byte[Math.min(entrySize, size - i * entrySize)];
+				random.nextBytes(data);
+
+				CRC32 crc = new CRC32();
+				crc.update(data);
+
+				JarEntry entry = new JarEntry("bench/Entry" + i + ".class");
+				entry.setMethod(JarEntry.STORED);
+				entry.setSize(data.length);
+				entry.setCrc(crc.getValue());
+				jar.putNextEntry(entry);
+				jar.write(data);
+				jar.closeEntry();
+			}
+		}
+		return bout.toByteArray();
+	}
+
+	private static String sha256(byte[] data)
+	{
+		return Hashing.sha256().hashBytes(data).toString();
+	}
+}
@@ -0,0 +1,139 @@
+package net.runenite.patches;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import net.lingala.zip4j.ZipFile;
+import net.runelite.launcher.beans.Artifact;
+import net.runenite.Patch;
+import net.runenite.utils.ResourceManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The byte patches applied to the bundled injected-client, run against a fresh extraction for every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PatchBenchmark
+{
+	private static final String INJECTED_CLIENT = "injected-client-1.10.46.1.jar";
+
+	private Path extracted;
+	private Path workingDir;
+	private byte[] jarBytes;
+	private String modulus;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException
+	{
+		File jar = File.createTempFile("injected-client", ".jar");
+		ResourceManager.copyResource("artifacts/" + INJECTED_CLIENT, jar);
+		jarBytes = Files.readAllBytes(jar.toPath());
+
+		extracted = Files.createTempDirectory("injected-client");
+		try (ZipFile zip = new ZipFile(jar))
+		{
+			zip.extractAll(extracted.toString());
+		}
+		Files.delete(jar.toPath());
+
+		modulus = new BigInteger(1024, new java.util.Random(0)).setBit(1023).toString(16);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() throws IOException
+	{
+		workingDir = Files.createTempDirectory("patch");
+		try (Stream<Path> paths = Files.walk(extracted))
+		{
+			for (Path path : (Iterable<Path>) paths::iterator)
+			{
+				Path target = workingDir.resolve(extracted.relativize(path).toString());
+				if (Files.isDirectory(path))
+				{
+					Files.createDirectories(target);
+				}
+				else
+				{
+					Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+		}
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDownInvocation() throws IOException
+	{
+		try (Stream<Path> paths = Files.walk(workingDir))
+		{
+			paths.sorted(Comparator.reverseOrder())
+				.map(Path::toFile)
+				.forEach(File::delete);
+		}
+	}
+
+	@Benchmark
+	public int indexOf()
+	{
+		return new Scanner().scan(jarBytes, "127.0.0.1".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Benchmark
+	public void localhostCheck()
+	{
+		new PatchGameClientLocalhostCheck().overwriteLocalHost(workingDir);
+	}
+
+	@Benchmark
+	public void port()
+	{
+		new PatchGameClientPort().patchPorts(workingDir, 43594, 43595);
+	}
+
+	@Benchmark
+	public void rsaSignature()
+	{
+		new PatchGameClientRsaSignature().overwriteModulus(workingDir, modulus);
+	}
+
+	private static class Scanner extends Patch
+	{
+		int scan(byte[] array, byte[] target)
+		{
+			return indexOf(array, target);
+		}
+
+		@Override
+		public boolean appliesTo(String artifactName)
+		{
+			return false;
+		}
+
+		@Override
+		public void apply(Artifact artifact, File workingDir)
+		{
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package net.runenite.sources;
+
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.runelite.launcher.Launcher;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Diff;
+import net.runenite.ArtifactServer;
+import net.runenite.ContentStore;
+import net.runenite.HashIndex;
+import net.runenite.RuneNiteLauncher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to get an artifact over a slow link by full download, by the diff the launcher used to pick (the last one in
+ * the bootstrap whose old version is present, hashing every old version to check), and by the cheapest diff as picked
+ * by {@link DiffSource}. The artifact has three diffs, from old versions kept in the content store and in the
+ * repository, and the smallest is not the last.
+ * <p>
+ * Applying the diff isn't included: it recompresses the whole artifact whichever diff is used, and the update plan
+ * accounts for it from the measured {@link Throughput.Link#DIFF_APPLY} rate.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiffSelectionBenchmark
+{
+	private static final int ARTIFACT_SIZE = 1024 * 1024;
+	private static final int LATENCY = 100;
+
+	/**
+	 * Bytes per second
+	 */
+	@Param({"65536", "262144"})
+	public long bandwidth;
+
+	private ArtifactServer server;
+	private HttpClient httpClient;
+	private Artifact artifact;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		System.setProperty("user.home", Files.createTempDirectory("runenite-bench").toString());
+		RuneNiteLauncher.ensureDirectoryExists(REPO_DIR);
+
+		server = new ArtifactServer();
+		server.setLatency(LATENCY);
+		server.setBandwidth(bandwidth);
+		httpClient = HttpClient.newHttpClient();
+
+		Random random = new Random(45);
+		byte[] data = new byte[ARTIFACT_SIZE];
+		random.nextBytes(data);
+
+		artifact = new Artifact();
+		artifact.setName("client-4.jar");
+		artifact.setHash(sha256(data));
+		artifact.setSize(data.length);
+		artifact.setPath(server.put(artifact.getName(), data));
+		artifact.setDiffs(new Diff[]{
+			diff(random, "client-1.jar", ARTIFACT_SIZE * 3 / 8),
+			diff(random, "client-2.jar", ARTIFACT_SIZE / 20),
+			diff(random, "client-3.jar", ARTIFACT_SIZE / 6),
+		});
+
+		// the smallest diff's old version is in the content store, the others in the repository, one of them
+		// already hashed on an earlier run
+		Diff[] diffs = artifact.getDiffs();
+		File stored = new File(REPO_DIR, diffs[1].getFrom());
+		try (InputStream in = Files.newInputStream(stored.toPath()))
+		{
+			ContentStore.put(in, diffs[1].getFromHash());
+		}
+		Files.delete(stored.toPath());
+		HashIndex.hash(new File(REPO_DIR, diffs[2].getFrom()));
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown()
+	{
+		server.close();
+	}
+
+	@Benchmark
+	public long fullDownload() throws Exception
+	{
+		return fetch(artifact.getPath());
+	}
+
+	@Benchmark
+	public long lastMatchingDiff() throws Exception
+	{
+		Diff last = null;
+		for (Diff diff : artifact.getDiffs())
+		{
+			File old = new File(REPO_DIR, diff.getFrom());
+			if (old.isFile() && diff.getFromHash().equals(Launcher.hash(old)))
+			{
+				last = diff;
+			}
+		}
+		return fetch(last.getPath());
+	}
+
+	@Benchmark
+	public long cheapestDiff() throws Exception
+	{
+		List<DiffSource.Candidate> candidates = DiffSource.candidates(new ArtifactRequest(artifact, new File(REPO_DIR, artifact.getName()), false));
+		for (DiffSource.Candidate candidate : candidates)
+		{
+			if (candidate.oldHash == null && !candidate.first().getFromHash().equals(HashIndex.hash(candidate.old)))
+			{
+				continue;
+			}
+			return fetch(candidate.first().getPath());
+		}
+		throw new IllegalStateException("no usable diff");
+	}
+
+	private long fetch(String path) throws Exception
+	{
+		HttpRequest request = HttpRequest.newBuilder(URI.create(path)).build();
+		try (InputStream in = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream()).body())
+		{
+			return in.transferTo(OutputStream.nullOutputStream());
+		}
+	}
+
+	/**
+	 * A diff from a random old version, which is written to the repository
+	 */
+	private Diff diff(Random random, String from, int size) throws IOException
+	{
+		byte[] old = new byte[ARTIFACT_SIZE];
+		random.nextBytes(old);
+		Files.copy(new ByteArrayInputStream(old), new File(REPO_DIR, from).toPath());
+
+		byte[] patch = new byte[size];
+		random.nextBytes(patch);
+
+		Diff diff = new Diff();
+		diff.setName(from + ".apdiff.gz");
+		diff.setFrom(from);
+		diff.setFromHash(sha256(old));
+		diff.setHash(sha256(patch));
+		diff.setSize(size);
+		diff.setPath(server.put(diff.getName(), patch));
+		return diff;
+	}
+
+	private static String sha256(byte[] data)
+	{
+		return Hashing.sha256().hashBytes(data).toString();
+	}
+}
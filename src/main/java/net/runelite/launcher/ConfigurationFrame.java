@@ -46,6 +46,7 @@ import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import lombok.extern.slf4j.Slf4j;
+import net.runenite.PatchCompression;
 
 @Slf4j
 public class ConfigurationFrame extends JFrame
@@ -57,11 +58,13 @@ public class ConfigurationFrame extends JFrame
 	private final JCheckBox chkboxSkipTlsVerification;
 	private final JCheckBox chkboxNoUpdates;
 	private final JCheckBox chkboxSafemode;
+	private final JCheckBox chkboxJvmErgonomics;
 	private final JTextField txtScale;
 	private final JTextArea txtClientArguments;
 	private final JTextArea txtJvmArguments;
 	private final JComboBox<HardwareAccelerationMode> comboHardwareAccelMode;
 	private final JComboBox<LaunchMode> comboLaunchMode;
+	private final JComboBox<PatchCompression> comboPatchCompression;
 
 	private ConfigurationFrame(LauncherSettings settings)
 	{
@@ -119,6 +122,12 @@ public class ConfigurationFrame extends JFrame
 			Boolean.TRUE.equals(settings.safemode)
 		));
 
+		topPanel.add(chkboxJvmErgonomics = checkbox(
+			"JVM ergonomics",
+			"Picks the client heap size and garbage collector from the machine's memory and cores. JVM arguments below take precedence.",
+			settings.jvmErgonomics
+		));
+
 		pane.add(topPanel);
 
 		var midPanel = new JPanel();
@@ -147,7 +156,7 @@ public class ConfigurationFrame extends JFrame
 
 		var bottomPanel = new JPanel();
 		bottomPanel.setBackground(DARKER_GRAY_COLOR);
-		bottomPanel.setLayout(new GridLayout(3, 2, 0, 0));
+		bottomPanel.setLayout(new GridLayout(4, 2, 0, 0));
 
 		bottomPanel.add(label(
 			"Scale",
@@ -170,6 +179,15 @@ public class ConfigurationFrame extends JFrame
 			settings.launchMode
 		));
 
+		bottomPanel.add(label(
+			"Patch compression",
+			"Compression of patched artifacts. STORE is fastest to patch and to load, but uses the most disk."
+		));
+		bottomPanel.add(comboPatchCompression = combobox(
+			PatchCompression.values(),
+			settings.patchCompression
+		));
+
 		pane.add(bottomPanel);
 
 		var buttonPanel = new JPanel();
@@ -198,6 +216,7 @@ public class ConfigurationFrame extends JFrame
 		settings.skipTlsVerification = chkboxSkipTlsVerification.isSelected();
 		settings.noupdates = chkboxNoUpdates.isSelected();
 		settings.safemode = chkboxSafemode.isSelected();
+		settings.jvmErgonomics = chkboxJvmErgonomics.isSelected();
 
 		var t = txtScale.getText();
 		settings.scale = null;
@@ -224,6 +243,7 @@ public class ConfigurationFrame extends JFrame
 
 		settings.hardwareAccelerationMode = (HardwareAccelerationMode) comboHardwareAccelMode.getSelectedItem();
 		settings.launchMode = (LaunchMode) comboLaunchMode.getSelectedItem();
+		settings.patchCompression = (PatchCompression) comboPatchCompression.getSelectedItem();
 
 		LauncherSettings.saveSettings(settings);
 
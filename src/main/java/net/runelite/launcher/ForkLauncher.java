@@ -34,6 +34,8 @@ import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.launcher.beans.Bootstrap;
+import net.runenite.ProcessScheduling;
+import net.runenite.jfr.ClientSpawnEvent;
 
 @Slf4j
 class ForkLauncher
@@ -74,7 +76,8 @@ class ForkLauncher
 		List<File> classpath,
 		Collection<String> clientArgs,
 		Map<String, String> jvmProps,
-		List<String> jvmArgs) throws IOException
+		List<String> jvmArgs,
+		List<String> launcherArgs) throws IOException
 	{
 		ProcessHandle current = ProcessHandle.current();
 		Path path;
@@ -103,7 +106,7 @@ class ForkLauncher
 				throw new IllegalStateException("invalid os");
 		}
 
-		var commands = new ArrayList<>();
+		var commands = new ArrayList<>(ProcessScheduling.getCommandPrefix());
 		commands.add(path.toAbsolutePath().toString());
 		commands.add("-c");
 		// bootstrap vm args
@@ -147,15 +150,26 @@ class ForkLauncher
 				sb.append(File.pathSeparatorChar);
 			}
 
-			sb.append(f.getName());
+			// jars outside of the repository, such as a merged classpath jar, are passed by absolute path
+			sb.append(Launcher.REPO_DIR.equals(f.getParentFile()) ? f.getName() : f.getAbsolutePath());
 		}
 		commands.add(sb.toString());
+		// options the child launcher acts on, which it would otherwise only read from the settings file
+		commands.addAll(launcherArgs);
 
 		commands.addAll(clientArgs);
 
 		log.debug("Running process: {}", commands);
 
+		ClientSpawnEvent event = new ClientSpawnEvent();
+		event.begin();
+
 		var builder = new ProcessBuilder(commands.toArray(new String[0]));
-		builder.start();
+		var process = builder.start();
+
+		event.launchMode = LaunchMode.FORK.name();
+		event.classpathEntries = classpath.size();
+		event.pid = process.pid();
+		event.commit();
 	}
 }
@@ -37,6 +37,8 @@ import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.launcher.beans.Bootstrap;
+import net.runenite.ProcessScheduling;
+import net.runenite.jfr.ClientSpawnEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -98,7 +100,7 @@ class JvmLauncher
 			return;
 		}
 
-		List<String> arguments = new ArrayList<>();
+		List<String> arguments = new ArrayList<>(ProcessScheduling.getCommandPrefix());
 		arguments.add(javaExePath);
 		arguments.add("-cp");
 		arguments.add(classPath.toString());
@@ -119,10 +121,18 @@ class JvmLauncher
 
 		logger.info("Running {}", arguments);
 
+		ClientSpawnEvent event = new ClientSpawnEvent();
+		event.begin();
+
 		ProcessBuilder builder = new ProcessBuilder(arguments.toArray(new String[0]));
 		builder.inheritIO();
 		Process process = builder.start();
 
+		event.launchMode = LaunchMode.JVM.name();
+		event.classpathEntries = classpath.size();
+		event.pid = process.pid();
+		event.commit();
+
 		if (log.isDebugEnabled())
 		{
 			SplashScreen.stop();
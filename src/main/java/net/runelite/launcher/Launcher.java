@@ -26,8 +26,6 @@ package net.runelite.launcher;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
-import com.google.archivepatcher.applier.FileByFileV1DeltaApplier;
-import com.google.archivepatcher.shared.DefaultDeflateCompatibilityWindow;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.Streams;
@@ -37,20 +35,20 @@ import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingOutputStream;
 import com.google.gson.Gson;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
+import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.file.Files;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.Signature;
@@ -67,13 +65,12 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.function.IntConsumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.zip.GZIPInputStream;
+import javax.annotation.Nullable;
 import javax.swing.SwingUtilities;
 import joptsimple.OptionException;
 import joptsimple.OptionParser;
@@ -83,14 +80,37 @@ import net.runelite.launcher.beans.Artifact;
 import net.runelite.launcher.beans.Bootstrap;
 import net.runelite.launcher.beans.Diff;
 import net.runelite.launcher.beans.Platform;
+import net.runenite.ArtifactPatcher;
+import net.runenite.ClassPreloader;
+import net.runenite.ClasspathMerger;
+import net.runenite.ClientErgonomics;
+import net.runenite.Generations;
+import net.runenite.HashIndex;
+import net.runenite.IndexedClassLoader;
+import net.runenite.JarReorderer;
+import net.runenite.LazyClassLoader;
+import net.runenite.LocalRepositories;
+import net.runenite.PageCacheWarmer;
+import net.runenite.PatchCompression;
+import net.runenite.PeerCache;
+import net.runenite.PrepareOnly;
+import net.runenite.ProcessScheduling;
+import net.runenite.RepositoryBundle;
+import net.runenite.RepositoryLock;
+import net.runenite.RepositoryServer;
 import net.runenite.RuneNiteLauncher;
+import net.runenite.jfr.CleanEvent;
+import net.runenite.jfr.FlightRecording;
+import net.runenite.jfr.HashEvent;
+import net.runenite.sources.BundledSource;
+import net.runenite.sources.DiffGraph;
 import org.slf4j.LoggerFactory;
 
 @Slf4j
 public class Launcher
 {
 	public static final File RUNELITE_DIR = new File(System.getProperty("user.home"), ".runenite");
-	static final File LOGS_DIR = new File(RUNELITE_DIR, "logs");
+	public static final File LOGS_DIR = new File(RUNELITE_DIR, "logs");
 	public static final File REPO_DIR = new File(RUNELITE_DIR, "repository2");
 	public static final File CRASH_FILES = new File(LOGS_DIR, "jvm_crash_pid_%p.log");
 	private static final String USER_AGENT = "RuneLite/" + LauncherProperties.getVersion();
@@ -112,11 +132,45 @@ public class Launcher
 		parser.accepts("noupdate", "Skips the launcher self-update");
 		parser.accepts("help", "Show this text (use -- --help for client help)").forHelp();
 		parser.accepts("classpath", "Classpath for the client").withRequiredArg();
+		parser.accepts("artifact-set", "Identifies the artifacts on the classpath, for the class load order").withRequiredArg();
 		parser.accepts("J", "JVM argument (FORK or JVM launch mode only)").withRequiredArg();
 		parser.accepts("configure", "Opens configuration GUI");
 		parser.accepts("launch-mode", "JVM launch method (JVM, FORK, REFLECT)")
 			.withRequiredArg()
 			.ofType(LaunchMode.class);
+		parser.accepts("lazy-classpath", "Start the client before rarely used artifacts are ready (REFLECT launch mode only)");
+		parser.accepts("patch-compression", "Compression of patched artifacts (STORE, FAST, DEFAULT)")
+			.withRequiredArg()
+			.ofType(PatchCompression.class);
+		parser.accepts("warm-page-cache", "Read the classpath into the page cache before starting the client, up to the given MiB")
+			.withOptionalArg()
+			.ofType(Integer.class);
+		parser.accepts("nice", "Niceness of the client process (Linux only)")
+			.withRequiredArg()
+			.ofType(Integer.class);
+		parser.accepts("ionice-class", "I/O scheduling class of the client process (DEFAULT, REALTIME, BEST_EFFORT, IDLE) (Linux only)")
+			.withRequiredArg()
+			.ofType(ProcessScheduling.IoClass.class);
+		parser.accepts("ionice-level", "I/O priority of the client process within its class, 0-7 (Linux only)")
+			.withRequiredArg()
+			.ofType(Integer.class);
+		parser.accepts("cpu-affinity", "CPUs the client may run on, eg. 0-3,8 (Linux only)")
+			.withRequiredArg();
+		parser.accepts("local-repository", "Another repository directory to reuse identical artifacts from, in addition to RuneLite's (repeatable)")
+			.withRequiredArg();
+		parser.accepts("peer-cache", "URL of another launcher's --serve-repo to download artifacts from first, eg. http://10.0.0.2:8650 (repeatable)")
+			.withRequiredArg();
+		parser.accepts("keep-generations", "Number of prepared artifact sets to keep for switching back to")
+			.withRequiredArg()
+			.ofType(Integer.class);
+		parser.accepts("store-budget", "MiB the content store is trimmed to, keeping the files of the kept artifact sets")
+			.withRequiredArg()
+			.ofType(Integer.class);
+		parser.accepts("no-jvm-ergonomics", "Don't pick the client heap and GC from the machine's resources");
+		parser.accepts("merge-classpath", "Launch the client with the artifacts merged into a single uncompressed jar");
+		parser.accepts("reorder-jars", "Reorder jar entries by the class load order recorded at a previous startup");
+		parser.accepts("index-classpath", "Load the client's classes through a cached index of its jars (REFLECT and FORK launch modes)");
+		parser.accepts("preload-classes", "Record the classes loaded at startup and preload them on later launches (REFLECT and FORK launch modes)");
 		parser.accepts("hw-accel", "Java 2D hardware acceleration mode (OFF, DIRECTDRAW, OPENGL, METAL)")
 			.withRequiredArg()
 			.ofType(HardwareAccelerationMode.class);
@@ -183,6 +237,25 @@ public class Launcher
 			logger.setLevel(Level.DEBUG);
 		}
 
+		if (options.has("export-bundle") || options.has("import-bundle"))
+		{
+			System.exit(RepositoryBundle.run(options));
+		}
+
+		if (options.has("serve-repo"))
+		{
+			try
+			{
+				RepositoryServer.serve((Integer) options.valueOf("serve-repo"));
+			}
+			catch (IOException e)
+			{
+				log.error("Unable to serve the repository", e);
+				System.exit(1);
+			}
+			return;
+		}
+
 		initDll();
 
 		// RTSS triggers off of the CreateWindow event, so this needs to be in place early, prior to splash screen
@@ -198,11 +271,16 @@ public class Launcher
 				var classpathOpt = String.valueOf(options.valueOf("classpath"));
 				var classpath = Streams.stream(Splitter.on(File.pathSeparatorChar)
 						.split(classpathOpt))
-					.map(name -> new File(REPO_DIR, name))
+					.map(name -> REPO_DIR.toPath().resolve(name).toFile())
 					.collect(Collectors.toList());
 				try
 				{
-					ReflectionLauncher.launch(classpath, getClientArgs(settings));
+					var loader = createClassLoader(classpath, settings);
+					if (loader instanceof IndexedClassLoader && options.has("artifact-set"))
+					{
+						ClassPreloader.start((IndexedClassLoader) loader, String.valueOf(options.valueOf("artifact-set")), settings.preloadClasses);
+					}
+					ReflectionLauncher.launch(loader, classpath.size(), getClientArgs(settings));
 				}
 				catch (Exception e)
 				{
@@ -274,7 +352,10 @@ public class Launcher
 				return;
 			}
 
-			SplashScreen.init();
+			if (!PrepareOnly.isEnabled() && !RuneNiteLauncher.isPlanOnly())
+			{
+				SplashScreen.init();
+			}
 			SplashScreen.stage(0, "Preparing", "Setting up environment");
 
 			// Print out system info
@@ -314,7 +395,8 @@ public class Launcher
 			if (!REPO_DIR.exists() && !REPO_DIR.mkdirs())
 			{
 				log.error("unable to create directory {}", REPO_DIR);
-				SwingUtilities.invokeLater(() -> new FatalErrorDialog("Unable to create RuneLite directory " + REPO_DIR.getAbsolutePath() + ". Check your filesystem permissions are correct.").open());
+				fatalError(PrepareOnly.FILESYSTEM_FAILED, "Unable to create directory " + REPO_DIR, null,
+					() -> new FatalErrorDialog("Unable to create RuneLite directory " + REPO_DIR.getAbsolutePath() + ". Check your filesystem permissions are correct.").open());
 				return;
 			}
 
@@ -334,7 +416,8 @@ public class Launcher
 					log.error("untrusted certificate chain: {}", extract);
 				}
 
-				SwingUtilities.invokeLater(() -> FatalErrorDialog.showNetErrorWindow("downloading the bootstrap", ex));
+				fatalError(PrepareOnly.BOOTSTRAP_FAILED, "Unable to get the bootstrap", ex,
+					() -> FatalErrorDialog.showNetErrorWindow("downloading the bootstrap", ex));
 				return;
 			}
 
@@ -354,84 +437,199 @@ public class Launcher
 			PackrConfig.updateLauncherArgs(bootstrap);
 
 			// Determine artifacts for this OS
-			List<Artifact> artifacts = Arrays.stream(bootstrap.getArtifacts())
-				.filter(a ->
+			List<Artifact> artifacts = getPlatformArtifacts(bootstrap);
+
+			// With a lazy classpath the rarely used artifacts are prepared while the client is starting
+			final List<Artifact> deferred = settings.launchMode == LaunchMode.REFLECT && settings.lazyClasspath ?
+				artifacts.stream().filter(RuneNiteLauncher::isDeferrable).collect(Collectors.toList()) :
+				List.of();
+			final List<Artifact> required = artifacts.stream()
+				.filter(a -> !deferred.contains(a))
+				.collect(Collectors.toList());
+
+			ArtifactPatcher.setCompression(settings.patchCompression);
+			PeerCache.setPeers(settings.peerCaches);
+			LocalRepositories.configure(settings.localRepositories);
+			Generations.configure(settings.keepGenerations, settings.storeBudget * 1024L * 1024L);
+			ProcessScheduling.configure(settings.clientNice, settings.clientIoClass, settings.clientIoLevel, settings.clientCpuAffinity);
+			if (settings.launchMode == LaunchMode.REFLECT && ProcessScheduling.isConfigured())
+			{
+				log.warn("Client scheduling settings are not applied in REFLECT launch mode, the client runs in the launcher's process");
+			}
+
+			if (RuneNiteLauncher.isPlanOnly())
+			{
+				// a dry run, which only reads the repository
+				RuneNiteLauncher.printPlan(artifacts, settings.isNodiffs());
+				return;
+			}
+
+			List<File> classpath;
+			// Other launchers may be preparing the repository at the same time
+			try (var lock = RepositoryLock.acquire())
+			{
+				// everything which changes what preparing produces, or a changed setting would never be applied
+				final File loadOrder = settings.reorderJars ? ClassPreloader.getLastLoadOrderFile() : null;
+				final String preparation = "reorderJars=" + settings.reorderJars
+					+ " loadOrder=" + (loadOrder == null ? "none" : loadOrder.getName() + "@" + loadOrder.lastModified())
+					+ " patchCompression=" + settings.patchCompression;
+				if (lock.isPrepared(required, preparation))
 				{
-					if (a.getPlatform() == null)
-					{
-						return true;
-					}
+					log.info("Repository is already prepared");
+				}
+				else
+				{
+					lock.clearPrepared();
 
-					final String os = System.getProperty("os.name");
-					final String arch = System.getProperty("os.arch");
-					for (Platform platform : a.getPlatform())
+					// Clean out old artifacts from the repository
+					DiffGraph.learn(artifacts);
+					DiffGraph.save();
+					clean(artifacts);
+
+					// a set of artifacts prepared before only needs linking back into place
+					if (!Generations.restore(required, preparation))
 					{
-						if (platform.getName() == null)
+						try
+						{
+							RuneNiteLauncher.download(required, settings.isNodiffs());
+						}
+						catch (IOException ex)
 						{
-							continue;
+							log.error("unable to download artifacts", ex);
+							fatalError(PrepareOnly.DOWNLOAD_FAILED, "Unable to download artifacts", ex,
+								() -> FatalErrorDialog.showNetErrorWindow("downloading the client", ex));
+							return;
 						}
 
-						OS.OSType platformOs = OS.parseOs(platform.getName());
-						if ((platformOs == OS.OSType.Other ? platform.getName().equals(os) : platformOs == OS.getOs())
-							&& (platform.getArch() == null || platform.getArch().equals(arch)))
+						SplashScreen.stage(.80, null, "Verifying");
+						try
 						{
-							return true;
+							RuneNiteLauncher.verifyJarHashes(required);
+							if (settings.reorderJars)
+							{
+								JarReorderer.reorder(required);
+							}
+							HashIndex.save();
+						}
+						catch (VerificationException ex)
+						{
+							log.error("Unable to verify artifacts", ex);
+							fatalError(PrepareOnly.VERIFY_FAILED, "Unable to verify artifacts", ex,
+								() -> FatalErrorDialog.showNetErrorWindow("verifying downloaded files", ex));
+							return;
 						}
 					}
 
-					return false;
-				})
-				.collect(Collectors.toList());
+					lock.markPrepared(required, preparation);
+				}
+				// and this one is recorded, to be switched back to later
+				Generations.record(required, preparation);
 
-			// Clean out old artifacts from the repository
-			clean(artifacts);
+				if (RuneNiteLauncher.isSkipLaunch())
+				{
+					log.info("Repository prepared, not launching the client");
+					if (PrepareOnly.isEnabled())
+					{
+						PrepareOnly.prepared();
+					}
+					return;
+				}
 
-			try
-			{
-				RuneNiteLauncher.download(artifacts, settings.isNodiffs());
-			}
-			catch (IOException ex)
-			{
-				log.error("unable to download artifacts", ex);
-				SwingUtilities.invokeLater(() -> FatalErrorDialog.showNetErrorWindow("downloading the client", ex));
-				return;
-			}
+				classpath = artifacts.stream()
+					.map(dep -> new File(REPO_DIR, dep.getName()))
+					.collect(Collectors.toList());
 
-			SplashScreen.stage(.80, null, "Verifying");
-			try
-			{
-				RuneNiteLauncher.verifyJarHashes(artifacts);
-			}
-			catch (VerificationException ex)
-			{
-				log.error("Unable to verify artifacts", ex);
-				SwingUtilities.invokeLater(() -> FatalErrorDialog.showNetErrorWindow("verifying downloaded files", ex));
-				return;
+				if (settings.mergeClasspath)
+				{
+					try
+					{
+						// deferred artifacts aren't ready yet, so they stay separate
+						classpath = ClasspathMerger.merge(artifacts, deferred);
+					}
+					catch (IOException ex)
+					{
+						log.warn("Unable to merge the classpath, launching with separate jars", ex);
+					}
+				}
 			}
 
 			final Collection<String> clientArgs = getClientArgs(settings);
 			SplashScreen.stage(.90, "Starting the client", "");
 
-			var classpath = artifacts.stream()
-				.map(dep -> new File(REPO_DIR, dep.getName()))
-				.collect(Collectors.toList());
+			if (settings.warmPageCache && settings.launchMode != LaunchMode.REFLECT)
+			{
+				// the client jvm reads the jars again, so have them in the page cache already
+				SplashScreen.stage(.90, "Starting the client", "Warming page cache");
+				PageCacheWarmer.warm(classpath, settings.pageCacheBudget * 1024L * 1024L);
+			}
 
 			List<String> jvmParams = new ArrayList<>();
 			// Set hs_err_pid location. This is a jvm param and can't be set at runtime.
 			log.debug("Setting JVM crash log location to {}", CRASH_FILES);
 			jvmParams.add("-XX:ErrorFile=" + CRASH_FILES.getAbsolutePath());
 			// Add VM args from cli/env
-			jvmParams.addAll(getJvmArgs(settings));
+			var userJvmArgs = getJvmArgs(settings);
+			if (settings.jvmErgonomics && settings.launchMode != LaunchMode.REFLECT)
+			{
+				// before the user's args, so those still win
+				jvmParams.addAll(ClientErgonomics.getJvmArgs(userJvmArgs));
+			}
+			jvmParams.addAll(userJvmArgs);
 
 			if (settings.launchMode == LaunchMode.REFLECT)
 			{
 				log.debug("Using launch mode: REFLECT");
-				ReflectionLauncher.launch(classpath, clientArgs);
+				ClassLoader loader;
+				if (!deferred.isEmpty())
+				{
+					log.debug("Deferring {} artifacts", deferred.size());
+					// what the deferred jars have is known from the bundled copies, so only lookups in them wait
+					Map<File, Set<String>> pending = new HashMap<>();
+					for (Artifact dep : deferred)
+					{
+						pending.put(new File(REPO_DIR, dep.getName()), BundledSource.entries(dep));
+					}
+					var lazyLoader = new LazyClassLoader(classpath, pending, ClassLoader.getPlatformClassLoader());
+					RuneNiteLauncher.prepareDeferred(deferred, settings.isNodiffs(), lazyLoader);
+					loader = lazyLoader;
+				}
+				else
+				{
+					loader = createClassLoader(classpath, settings);
+				}
+
+				if (loader instanceof IndexedClassLoader && (settings.preloadClasses || settings.reorderJars))
+				{
+					ClassPreloader.start((IndexedClassLoader) loader, ClassPreloader.getArtifactSet(artifacts), settings.preloadClasses);
+				}
+				ReflectionLauncher.launch(loader, classpath.size(), clientArgs);
 			}
 			else if (settings.launchMode == LaunchMode.FORK || (settings.launchMode == LaunchMode.AUTO && ForkLauncher.canForkLaunch()))
 			{
 				log.debug("Using launch mode: FORK");
-				ForkLauncher.launch(bootstrap, classpath, clientArgs, jvmProps, jvmParams);
+				List<String> launcherArgs = new ArrayList<>();
+				if (settings.indexClasspath)
+				{
+					launcherArgs.add("--index-classpath");
+				}
+				if (settings.preloadClasses)
+				{
+					launcherArgs.add("--preload-classes");
+				}
+				if (settings.reorderJars)
+				{
+					launcherArgs.add("--reorder-jars");
+				}
+				if (settings.preloadClasses || settings.reorderJars)
+				{
+					launcherArgs.add("--artifact-set=" + ClassPreloader.getArtifactSet(artifacts));
+				}
+				if (FlightRecording.isRecording())
+				{
+					// the child launcher loads and starts the client, so it records that
+					launcherArgs.add("--jfr");
+				}
+				ForkLauncher.launch(bootstrap, classpath, clientArgs, jvmProps, jvmParams, launcherArgs);
 			}
 			else
 			{
@@ -451,8 +649,8 @@ public class Launcher
 			log.error("Failure during startup", e);
 			if (!postInstall)
 			{
-				SwingUtilities.invokeLater(() ->
-					new FatalErrorDialog("RuneLite has encountered an unexpected error during startup.")
+				fatalError(PrepareOnly.ERROR, "Unexpected error during startup", e,
+					() -> new FatalErrorDialog("RuneLite has encountered an unexpected error during startup.")
 						.open());
 			}
 		}
@@ -465,6 +663,23 @@ public class Launcher
 		finally
 		{
 			SplashScreen.stop();
+
+			if (PrepareOnly.isEnabled())
+			{
+				PrepareOnly.exit();
+			}
+		}
+	}
+
+	private static void fatalError(int status, String message, @Nullable Throwable ex, Runnable dialog)
+	{
+		if (PrepareOnly.isEnabled())
+		{
+			PrepareOnly.fail(status, message, ex);
+		}
+		else
+		{
+			SwingUtilities.invokeLater(dialog);
 		}
 	}
 
@@ -571,6 +786,38 @@ public class Launcher
 		return false;
 	}
 
+	static List<Artifact> getPlatformArtifacts(Bootstrap bootstrap)
+	{
+		return Arrays.stream(bootstrap.getArtifacts())
+			.filter(a ->
+			{
+				if (a.getPlatform() == null)
+				{
+					return true;
+				}
+
+				final String os = System.getProperty("os.name");
+				final String arch = System.getProperty("os.arch");
+				for (Platform platform : a.getPlatform())
+				{
+					if (platform.getName() == null)
+					{
+						continue;
+					}
+
+					OS.OSType platformOs = OS.parseOs(platform.getName());
+					if ((platformOs == OS.OSType.Other ? platform.getName().equals(os) : platformOs == OS.getOs())
+						&& (platform.getArch() == null || platform.getArch().equals(arch)))
+					{
+						return true;
+					}
+				}
+
+				return false;
+			})
+			.collect(Collectors.toList());
+	}
+
 	private static Collection<String> getClientArgs(LauncherSettings settings)
 	{
 		final var args = new ArrayList<>(settings.clientArguments);
@@ -613,147 +860,33 @@ public class Launcher
 		return args;
 	}
 
-	private static void download(List<Artifact> artifacts, boolean nodiff) throws IOException
+	/**
+	 * The client's class loader, indexed when asked for or when the class load order is recorded, which only the
+	 * indexed loader does
+	 */
+	private static ClassLoader createClassLoader(List<File> classpath, LauncherSettings settings) throws MalformedURLException
 	{
-		List<Artifact> toDownload = new ArrayList<>(artifacts.size());
-		Map<Artifact, Diff> diffs = new HashMap<>();
-		int totalDownloadBytes = 0;
-		final boolean isCompatible = new DefaultDeflateCompatibilityWindow().isCompatible();
-
-		if (!isCompatible && !nodiff)
+		ClassLoader parent = ClassLoader.getPlatformClassLoader();
+		if (settings.indexClasspath || settings.preloadClasses || settings.reorderJars)
 		{
-			log.debug("System zlib is not compatible with archive-patcher; not using diffs");
-			nodiff = true;
+			return new IndexedClassLoader(classpath, parent);
 		}
 
-		for (Artifact artifact : artifacts)
+		URL[] jarUrls = new URL[classpath.size()];
+		int i = 0;
+		for (var file : classpath)
 		{
-			File dest = new File(REPO_DIR, artifact.getName());
-
-			String hash;
-			try
-			{
-				hash = hash(dest);
-			}
-			catch (FileNotFoundException ex)
-			{
-				hash = null;
-			}
-			catch (IOException ex)
-			{
-				dest.delete();
-				hash = null;
-			}
-
-			if (Objects.equals(hash, artifact.getHash()))
-			{
-				log.debug("Hash for {} up to date", artifact.getName());
-				continue;
-			}
-
-			int downloadSize = artifact.getSize();
-
-			// See if there is a diff available
-			if (!nodiff && artifact.getDiffs() != null)
-			{
-				for (Diff diff : artifact.getDiffs())
-				{
-					File old = new File(REPO_DIR, diff.getFrom());
-
-					String oldhash;
-					try
-					{
-						oldhash = hash(old);
-					}
-					catch (IOException ex)
-					{
-						continue;
-					}
-
-					// Check if old file is valid
-					if (diff.getFromHash().equals(oldhash))
-					{
-						diffs.put(artifact, diff);
-						downloadSize = diff.getSize();
-					}
-				}
-			}
-
-			toDownload.add(artifact);
-			totalDownloadBytes += downloadSize;
-		}
-
-		final double START_PROGRESS = .15;
-		int downloaded = 0;
-		SplashScreen.stage(START_PROGRESS, "Downloading", "");
-
-		for (Artifact artifact : toDownload)
-		{
-			File dest = new File(REPO_DIR, artifact.getName());
-			final int total = downloaded;
-
-			// Check if there is a diff we can download instead
-			Diff diff = diffs.get(artifact);
-			if (diff != null)
-			{
-				log.debug("Downloading diff {}", diff.getName());
-
-				try
-				{
-					ByteArrayOutputStream out = new ByteArrayOutputStream();
-					final int totalBytes = totalDownloadBytes;
-					download(diff.getPath(), diff.getHash(), (completed) ->
-							SplashScreen.stage(START_PROGRESS, .80, null, diff.getName(), total + completed, totalBytes, true),
-						out);
-					downloaded += diff.getSize();
-
-					File old = new File(REPO_DIR, diff.getFrom());
-					HashCode hash;
-					try (InputStream patchStream = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()));
-						HashingOutputStream fout = new HashingOutputStream(Hashing.sha256(), Files.newOutputStream(dest.toPath())))
-					{
-						new FileByFileV1DeltaApplier().applyDelta(old, patchStream, fout);
-						hash = fout.hash();
-					}
-
-					if (artifact.getHash().equals(hash.toString()))
-					{
-						log.debug("Patching successful for {}", artifact.getName());
-						continue;
-					}
-
-					log.debug("Patched artifact hash mismatches! {}: got {} expected {}", artifact.getName(), hash.toString(), artifact.getHash());
-				}
-				catch (IOException | VerificationException e)
-				{
-					log.warn("unable to download patch {}", diff.getName(), e);
-					// Fall through and try downloading the full artifact
-				}
-
-				// Adjust the download size for the difference
-				totalDownloadBytes -= diff.getSize();
-				totalDownloadBytes += artifact.getSize();
-			}
-
-			log.debug("Downloading {}", artifact.getName());
-
-			try (OutputStream fout = Files.newOutputStream(dest.toPath()))
-			{
-				final int totalBytes = totalDownloadBytes;
-				download(artifact.getPath(), artifact.getHash(), (completed) ->
-						SplashScreen.stage(START_PROGRESS, .80, null, artifact.getName(), total + completed, totalBytes, true),
-					fout);
-				downloaded += artifact.getSize();
-			}
-			catch (VerificationException e)
-			{
-				log.warn("unable to verify jar {}", artifact.getName(), e);
-			}
+			log.debug("Adding jar: {}", file);
+			jarUrls[i++] = file.toURI().toURL();
 		}
+		return new URLClassLoader(jarUrls, parent);
 	}
 
 	private static void clean(List<Artifact> artifacts)
 	{
+		CleanEvent event = new CleanEvent();
+		event.begin();
+
 		File[] existingFiles = REPO_DIR.listFiles();
 
 		if (existingFiles == null)
@@ -774,21 +907,32 @@ public class Launcher
 				}
 			}
 		}
+		// and older ones which a chain of diffs leads on from
+		artifactNames.addAll(DiffGraph.bases());
 
 		for (File file : existingFiles)
 		{
 			if (file.isFile() && !artifactNames.contains(file.getName()))
 			{
+				long length = file.length();
 				if (file.delete())
 				{
 					log.debug("Deleted old artifact {}", file);
+					event.filesDeleted++;
+					event.bytesDeleted += length;
 				}
 				else
 				{
 					log.warn("Unable to delete old artifact {}", file);
 				}
 			}
+			else if (file.isFile())
+			{
+				event.filesKept++;
+			}
 		}
+
+		event.commit();
 	}
 
 	private static void verifyJarHashes(List<Artifact> artifacts) throws VerificationException
@@ -818,8 +962,19 @@ public class Launcher
 
 	public static String hash(File file) throws IOException
 	{
+		HashEvent event = new HashEvent();
+		event.begin();
+
 		HashFunction sha256 = Hashing.sha256();
-		return com.google.common.io.Files.asByteSource(file).hash(sha256).toString();
+		String hash = com.google.common.io.Files.asByteSource(file).hash(sha256).toString();
+
+		if (event.shouldCommit())
+		{
+			event.file = file.getName();
+			event.bytes = file.length();
+			event.commit();
+		}
+		return hash;
 	}
 
 	private static Certificate getCertificate() throws CertificateException
@@ -879,7 +1034,7 @@ public class Launcher
 		});
 	}
 
-	static void download(String path, String hash, IntConsumer progress, OutputStream out) throws IOException, VerificationException
+	public static void download(String path, String hash, IntConsumer progress, OutputStream out) throws IOException, VerificationException
 	{
 		HttpRequest request = HttpRequest.newBuilder()
 			.uri(URI.create(path))
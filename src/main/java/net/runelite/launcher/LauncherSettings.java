@@ -47,6 +47,8 @@ import javax.annotation.Nullable;
 import joptsimple.OptionSet;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import net.runenite.PatchCompression;
+import net.runenite.ProcessScheduling;
 import org.slf4j.helpers.MessageFormatter;
 
 @Data
@@ -71,6 +73,26 @@ public class LauncherSettings
 	List<String> jvmArguments = Collections.emptyList();
 	HardwareAccelerationMode hardwareAccelerationMode = HardwareAccelerationMode.AUTO;
 	LaunchMode launchMode = LaunchMode.AUTO;
+	boolean lazyClasspath;
+	boolean indexClasspath;
+	boolean preloadClasses;
+	boolean reorderJars;
+	boolean mergeClasspath;
+	PatchCompression patchCompression = PatchCompression.DEFAULT;
+	boolean warmPageCache;
+	int pageCacheBudget = 512;
+	boolean jvmErgonomics = true;
+	@Nullable
+	Integer clientNice;
+	ProcessScheduling.IoClass clientIoClass = ProcessScheduling.IoClass.DEFAULT;
+	@Nullable
+	Integer clientIoLevel;
+	@Nullable
+	String clientCpuAffinity;
+	List<String> peerCaches = Collections.emptyList();
+	List<String> localRepositories = Collections.emptyList();
+	int keepGenerations = 3;
+	int storeBudget = 2048;
 
 	// override settings with options from cli
 	void apply(OptionSet options)
@@ -130,6 +152,96 @@ public class LauncherSettings
 		{
 			launchMode = (LaunchMode) options.valueOf("launch-mode");
 		}
+
+		if (options.has("lazy-classpath"))
+		{
+			lazyClasspath = true;
+		}
+
+		if (options.has("index-classpath"))
+		{
+			indexClasspath = true;
+		}
+
+		if (options.has("preload-classes"))
+		{
+			preloadClasses = true;
+		}
+
+		if (options.has("reorder-jars"))
+		{
+			reorderJars = true;
+		}
+
+		if (options.has("merge-classpath"))
+		{
+			mergeClasspath = true;
+		}
+
+		if (options.has("patch-compression"))
+		{
+			patchCompression = (PatchCompression) options.valueOf("patch-compression");
+		}
+
+		if (options.has("nice"))
+		{
+			clientNice = (Integer) options.valueOf("nice");
+		}
+
+		if (options.has("ionice-class"))
+		{
+			clientIoClass = (ProcessScheduling.IoClass) options.valueOf("ionice-class");
+		}
+
+		if (options.has("ionice-level"))
+		{
+			clientIoLevel = (Integer) options.valueOf("ionice-level");
+		}
+
+		if (options.has("cpu-affinity"))
+		{
+			clientCpuAffinity = (String) options.valueOf("cpu-affinity");
+		}
+
+		if (options.has("peer-cache"))
+		{
+			peerCaches = options.valuesOf("peer-cache").stream()
+				.filter(String.class::isInstance)
+				.map(String.class::cast)
+				.collect(Collectors.toList());
+		}
+
+		if (options.has("local-repository"))
+		{
+			localRepositories = options.valuesOf("local-repository").stream()
+				.filter(String.class::isInstance)
+				.map(String.class::cast)
+				.collect(Collectors.toList());
+		}
+
+		if (options.has("no-jvm-ergonomics"))
+		{
+			jvmErgonomics = false;
+		}
+
+		if (options.has("warm-page-cache"))
+		{
+			warmPageCache = true;
+			if (options.hasArgument("warm-page-cache"))
+			{
+				pageCacheBudget = (Integer) options.valueOf("warm-page-cache");
+			}
+		}
+
+		if (options.has("keep-generations"))
+		{
+			keepGenerations = (Integer) options.valueOf("keep-generations");
+		}
+
+		if (options.has("store-budget"))
+		{
+			storeBudget = (Integer) options.valueOf("store-budget");
+		}
 	}
 
 	String configurationStr()
@@ -144,7 +256,22 @@ public class LauncherSettings
 				" client arguments: {}" + System.lineSeparator() +
 				" jvm arguments: {}" + System.lineSeparator() +
 				" hardware acceleration mode: {}" + System.lineSeparator() +
-				" launch mode: {}",
+				" launch mode: {}" + System.lineSeparator() +
+				" lazy classpath: {}" + System.lineSeparator() +
+				" index classpath: {}" + System.lineSeparator() +
+				" preload classes: {}" + System.lineSeparator() +
+				" reorder jars: {}" + System.lineSeparator() +
+				" merge classpath: {}" + System.lineSeparator() +
+				" patch compression: {}" + System.lineSeparator() +
+				" warm page cache: {} ({} MiB)" + System.lineSeparator() +
+				" jvm ergonomics: {}" + System.lineSeparator() +
+				" client nice: {}" + System.lineSeparator() +
+				" client io class: {} level {}" + System.lineSeparator() +
+				" client cpu affinity: {}" + System.lineSeparator() +
+				" peer caches: {}" + System.lineSeparator() +
+				" local repositories: {}" + System.lineSeparator() +
+				" generations kept: {}" + System.lineSeparator() +
+				" content store budget: {} MiB",
 			new Object[]{
 				debug,
 				nodiffs,
@@ -155,7 +282,24 @@ public class LauncherSettings
 				clientArguments.isEmpty() ? "none" : clientArguments,
 				jvmArguments.isEmpty() ? "none" : jvmArguments,
 				hardwareAccelerationMode,
-				launchMode
+				launchMode,
+				lazyClasspath,
+				indexClasspath,
+				preloadClasses,
+				reorderJars,
+				mergeClasspath,
+				patchCompression,
+				warmPageCache,
+				pageCacheBudget,
+				jvmErgonomics,
+				clientNice,
+				clientIoClass,
+				clientIoLevel,
+				clientCpuAffinity,
+				peerCaches.isEmpty() ? "none" : peerCaches,
+				localRepositories.isEmpty() ? "none" : localRepositories,
+				keepGenerations,
+				storeBudget
 			}
 		).getMessage();
 	}
@@ -24,32 +24,17 @@
  */
 package net.runelite.launcher;
 
-import java.io.File;
 import java.lang.reflect.Method;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.Collection;
-import java.util.List;
 import javax.swing.UIManager;
 import lombok.extern.slf4j.Slf4j;
+import net.runenite.jfr.ClientSpawnEvent;
 
 @Slf4j
 class ReflectionLauncher
 {
-	static void launch(List<File> classpath, Collection<String> clientArgs) throws MalformedURLException
+	static void launch(ClassLoader loader, int classpathEntries, Collection<String> clientArgs)
 	{
-		URL[] jarUrls = new URL[classpath.size()];
-		int i = 0;
-		for (var file : classpath)
-		{
-			log.debug("Adding jar: {}", file);
-			jarUrls[i++] = file.toURI().toURL();
-		}
-
-		ClassLoader parent = ClassLoader.getPlatformClassLoader();
-		URLClassLoader loader = new URLClassLoader(jarUrls, parent);
-
 		// Swing requires the UIManager ClassLoader to be set if the LAF
 		// is not in the boot classpath
 		UIManager.put("ClassLoader", loader);
@@ -69,6 +54,13 @@ class ReflectionLauncher
 			}
 		});
 		thread.setName("RuneLite");
+
+		ClientSpawnEvent event = new ClientSpawnEvent();
+		event.begin();
 		thread.start();
+		event.launchMode = LaunchMode.REFLECT.name();
+		event.classpathEntries = classpathEntries;
+		event.pid = ProcessHandle.current().pid();
+		event.commit();
 	}
 }
@@ -45,6 +45,7 @@ import javax.swing.UIManager;
 import javax.swing.border.EmptyBorder;
 import javax.swing.plaf.basic.BasicProgressBarUI;
 import lombok.extern.slf4j.Slf4j;
+import net.runenite.PrepareOnly;
 
 @Slf4j
 public class SplashScreen extends JFrame implements ActionListener
@@ -234,6 +235,11 @@ public class SplashScreen extends JFrame implements ActionListener
 
 	public static void stage(double overallProgress, @Nullable String actionText, String subActionText, @Nullable String progressText)
 	{
+		if (PrepareOnly.isEnabled())
+		{
+			PrepareOnly.progress(overallProgress, actionText, subActionText, progressText);
+		}
+
 		if (INSTANCE != null)
 		{
 			INSTANCE.overallProgress = overallProgress;
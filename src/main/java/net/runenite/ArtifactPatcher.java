@@ -16,10 +16,13 @@ import java.util.stream.Stream;
 import jdk.security.jarsigner.JarSigner;
 import lombok.extern.slf4j.Slf4j;
 import net.lingala.zip4j.ZipFile;
+import net.lingala.zip4j.model.ZipParameters;
 import static net.runelite.launcher.Launcher.REPO_DIR;
 import net.runelite.launcher.beans.Artifact;
 import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
 import static net.runenite.RuneNiteLauncher.ensureDirectoryExists;
+import net.runenite.jfr.PatchEvent;
+import net.runenite.jfr.ZipRewriteEvent;
 import net.runenite.patches.PatchGameClientLocalhostCheck;
 import net.runenite.patches.PatchGameClientPort;
 import net.runenite.patches.PatchGameClientRsaSignature;
@@ -33,6 +36,8 @@ public class ArtifactPatcher
 	public static final File RESOURCES_DIR = new File(RUNENITE_DIR, "resources");
 	public static final File TEMPORARY_DIR = new File(RUNENITE_DIR, "temp");
 
+	private static PatchCompression compression = PatchCompression.DEFAULT;
+
 	private static final List<Patch> patches = List.of(
 		new PatchGameClientRsaSignature(),
 		new PatchGameClientLocalhostCheck(),
@@ -41,8 +46,32 @@ public class ArtifactPatcher
 		new PatchRuneLiteApi()
 	);
 
+	public static void setCompression(PatchCompression compression)
+	{
+		ArtifactPatcher.compression = compression;
+	}
+
+	public static PatchCompression getCompression()
+	{
+		return compression;
+	}
+
+	/**
+	 * Whether we have patches for the artifact
+	 */
+	public static boolean hasPatches(Artifact artifact)
+	{
+		String artifactName = getArtifactName(artifact);
+		return artifactName != null && patches.stream().anyMatch(p -> p.appliesTo(artifactName));
+	}
+
+	/**
+	 * Apply our patches to the artifact in the repository, replacing it with the rewrite.
+	 *
+	 * @throws IOException if the artifact couldn't be patched, in which case it is left as it was
+	 */
 	@SuppressWarnings("ResultOfMethodCallIgnored")
-	public static void patch(Artifact artifact)
+	public static void patch(Artifact artifact) throws IOException
 	{
 		String artifactName = getArtifactName(artifact);
 		if (artifactName == null)
@@ -61,11 +90,21 @@ public class ArtifactPatcher
 
 		ensureDirectoryExists(TEMPORARY_DIR);
 
-		File tempWorkingDir = new File(TEMPORARY_DIR, artifactName);
+		// TEMPORARY_DIR is shared with other launchers, so only touch our own files in it
+		String workingName = artifactName + "-" + ProcessHandle.current().pid();
+		File tempWorkingDir = new File(TEMPORARY_DIR, workingName);
 		deleteDir(tempWorkingDir);
 		tempWorkingDir.mkdirs();
 
+		File patchedJar = new File(TEMPORARY_DIR, workingName + "-patched.jar");
+
 		File artifactFile = new File(REPO_DIR, artifact.getName());
+		File repositoryTmp = new File(REPO_DIR, artifact.getName() + "-" + ProcessHandle.current().pid() + ".patched");
+
+		ZipRewriteEvent rewriteEvent = new ZipRewriteEvent();
+		rewriteEvent.begin();
+		rewriteEvent.artifact = artifact.getName();
+		rewriteEvent.inputBytes = artifactFile.length();
 		try (ZipFile inputFile = new ZipFile(artifactFile))
 		{
 			log.info("Extracting {} to {}", artifactFile, tempWorkingDir);
@@ -75,7 +114,12 @@ public class ArtifactPatcher
 
 			for (Patch patch : patchFiles)
 			{
+				PatchEvent patchEvent = new PatchEvent();
+				patchEvent.begin();
 				patch.apply(artifact, tempWorkingDir);
+				patchEvent.artifact = artifact.getName();
+				patchEvent.patch = patch.getClass().getSimpleName();
+				patchEvent.commit();
 			}
 
 			if (previouslySigned)
@@ -84,10 +128,9 @@ public class ArtifactPatcher
 				deleteDir(metaInfDir);
 			}
 
-			String timestamp = Long.toString(System.currentTimeMillis());
-			File patchedJar = new File(TEMPORARY_DIR, artifactName + "-" + timestamp + "-patched.jar");
-			log.info("Compressing patched artifact to {}", patchedJar);
+			log.info("Compressing patched artifact to {} ({})", patchedJar, compression);
 
+			ZipParameters parameters = compression.getZipParameters();
 			try (ZipFile outputFile = new ZipFile(patchedJar))
 			{
 				try (Stream<Path> paths = Files.walk(tempWorkingDir.toPath(), 1))
@@ -102,11 +145,11 @@ public class ArtifactPatcher
 
 						if (file.isFile())
 						{
-							outputFile.addFile(file);
+							outputFile.addFile(file, parameters);
 						}
 						else
 						{
-							outputFile.addFolder(file);
+							outputFile.addFolder(file, parameters);
 						}
 					}
 				}
@@ -122,16 +165,25 @@ public class ArtifactPatcher
 
 			log.info("Moving patched artifact to {}", artifactFile);
 
-			Files.move(patchedJar.toPath(), artifactFile.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+			// the temporary dir may be on another filesystem, so bring the jar next to the artifact before replacing it
+			Files.move(patchedJar.toPath(), repositoryTmp.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+			RepositoryJournal.replace(artifact, repositoryTmp, artifactFile, false, compression);
+
+			rewriteEvent.outputBytes = artifactFile.length();
+			rewriteEvent.signed = previouslySigned;
+			rewriteEvent.commit();
 		}
-		catch (IOException | CertificateException | KeyStoreException | NoSuchAlgorithmException | UnrecoverableEntryException e)
+		catch (CertificateException | KeyStoreException | NoSuchAlgorithmException | UnrecoverableEntryException e)
 		{
-			log.error("Error patching artifact", e);
+			throw new IOException("Unable to sign patched " + artifact.getName(), e);
 		}
 		finally
 		{
 			log.info("Deleting temporary working dir.");
-			deleteDir(TEMPORARY_DIR);
+			deleteDir(tempWorkingDir);
+			patchedJar.delete();
+			repositoryTmp.delete();
+			new File(patchedJar.getPath() + ".signed").delete();
 		}
 	}
 
@@ -208,8 +260,7 @@ public class ArtifactPatcher
 		File fakeCertificate = new File(RESOURCES_DIR, "fake-cert.jks");
 		if (!fakeCertificate.exists())
 		{
-			log.error("Unable to sign jar, fake certificate not found");
-			return;
+			throw new IOException("Unable to sign jar, fake certificate not found");
 		}
 
 		char[] password = "123456".toCharArray();
@@ -0,0 +1,232 @@
+package net.runenite;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.beans.Artifact;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+
+/**
+ * Records the classes the client loads while it starts, and on later launches of the same artifacts loads them ahead
+ * of the client on a few background threads. Client startup is mostly single threaded, so the other cores can define
+ * classes before the client gets to them.
+ */
+@Slf4j
+public class ClassPreloader
+{
+	static final File PRELOAD_DIR = new File(RUNENITE_DIR, "preload");
+
+	/**
+	 * How long after launch class loads are recorded
+	 */
+	private static final int RECORD_SECONDS = 30;
+	private static final int MAX_THREADS = 4;
+	/**
+	 * How many lists are kept, the most recently recorded ones, so switching between artifact sets keeps theirs
+	 */
+	private static final int MAX_LISTS = 4;
+
+	/**
+	 * Preload the classes recorded for the loader's artifacts, or record them if there is no list yet.
+	 *
+	 * @param artifactSet the {@link #getArtifactSet(List) artifact set} the loader serves
+	 * @param warm whether to preload, otherwise only record
+	 */
+	public static void start(IndexedClassLoader loader, String artifactSet, boolean warm)
+	{
+		File file = getLoadOrderFile(artifactSet);
+		if (file.exists() && !warm)
+		{
+			return;
+		}
+
+		if (file.exists())
+		{
+			try
+			{
+				warm(loader, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+				return;
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to read class preload list {}", file, e);
+			}
+		}
+
+		record(loader, file);
+	}
+
+	/**
+	 * Identifies a set of artifacts by their hashes in the bootstrap. Patching or reordering the jars doesn't change
+	 * which classes the client loads, so it doesn't change the set either.
+	 */
+	public static String getArtifactSet(List<Artifact> artifacts)
+	{
+		Hasher hasher = Hashing.sha256().newHasher();
+		for (String hash : artifacts.stream().map(Artifact::getHash).sorted().collect(Collectors.toList()))
+		{
+			hasher.putString(hash, StandardCharsets.UTF_8).putChar('\n');
+		}
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * The recorded class load order for a set of artifacts
+	 */
+	public static File getLoadOrderFile(String artifactSet)
+	{
+		return new File(PRELOAD_DIR, artifactSet + ".txt");
+	}
+
+	/**
+	 * The most recently recorded class load order, whichever artifacts it was recorded for
+	 */
+	public static List<String> getLastLoadOrder()
+	{
+		File last = getLastLoadOrderFile();
+		if (last == null)
+		{
+			return List.of();
+		}
+
+		try
+		{
+			return Files.readAllLines(last.toPath(), StandardCharsets.UTF_8);
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to read class load order {}", last, e);
+			return List.of();
+		}
+	}
+
+	/**
+	 * The file of the most recently recorded class load order, or null if none has been recorded
+	 */
+	@Nullable
+	public static File getLastLoadOrderFile()
+	{
+		File[] lists = PRELOAD_DIR.listFiles((dir, name) -> name.endsWith(".txt"));
+		if (lists == null || lists.length == 0)
+		{
+			return null;
+		}
+
+		return Collections.max(Arrays.asList(lists), Comparator.comparingLong(File::lastModified));
+	}
+
+	private static void warm(ClassLoader loader, List<String> classes)
+	{
+		int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+		log.debug("Preloading {} classes on {} threads", classes.size(), threads);
+
+		// threads take classes in recorded order, so the ones the client needs first are loaded first
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger failed = new AtomicInteger();
+		long start = System.nanoTime();
+		AtomicInteger running = new AtomicInteger(threads);
+		for (int i = 0; i < threads; ++i)
+		{
+			Thread thread = new Thread(() ->
+			{
+				for (int idx; (idx = next.getAndIncrement()) < classes.size(); )
+				{
+					try
+					{
+						Class.forName(classes.get(idx), false, loader);
+					}
+					catch (ClassNotFoundException | LinkageError e)
+					{
+						failed.incrementAndGet();
+					}
+				}
+
+				if (running.decrementAndGet() == 0)
+				{
+					log.debug("Preloaded {} classes in {}ms ({} failed)", classes.size(),
+						(System.nanoTime() - start) / 1_000_000L, failed.get());
+				}
+			});
+			thread.setName("Class preloader " + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Delete all but the {@link #MAX_LISTS} most recently recorded lists
+	 */
+	static void prune() throws IOException
+	{
+		File[] lists = PRELOAD_DIR.listFiles((dir, name) -> name.endsWith(".txt"));
+		if (lists == null || lists.length <= MAX_LISTS)
+		{
+			return;
+		}
+
+		Arrays.sort(lists, Comparator.comparingLong(File::lastModified).reversed());
+		for (int i = MAX_LISTS; i < lists.length; ++i)
+		{
+			log.debug("Deleting old class load order {}", lists[i].getName());
+			Files.deleteIfExists(lists[i].toPath());
+		}
+	}
+
+	private static void record(IndexedClassLoader loader, File file)
+	{
+		List<String> classes = Collections.synchronizedList(new ArrayList<>());
+		loader.setClassListener(classes::add);
+
+		Thread thread = new Thread(() ->
+		{
+			ProcessScheduling.lowerCurrentThreadPriority();
+			try
+			{
+				Thread.sleep(RECORD_SECONDS * 1000L);
+			}
+			catch (InterruptedException e)
+			{
+				return;
+			}
+			finally
+			{
+				loader.setClassListener(null);
+			}
+
+			try
+			{
+				Files.createDirectories(PRELOAD_DIR.toPath());
+
+				File tmp = new File(PRELOAD_DIR, file.getName() + ".tmp");
+				synchronized (classes)
+				{
+					Files.write(tmp.toPath(), classes, StandardCharsets.UTF_8);
+				}
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				log.debug("Recorded {} classes to {}", classes.size(), file.getName());
+
+				prune();
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to write class preload list {}", file, e);
+			}
+		});
+		thread.setName("Class load recorder");
+		thread.setDaemon(true);
+		thread.start();
+	}
+}
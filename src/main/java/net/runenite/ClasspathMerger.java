@@ -0,0 +1,269 @@
+package net.runenite;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+import net.runenite.jfr.ZipRewriteEvent;
+
+/**
+ * Merges the classpath into uncompressed jars, so the client opens one file and probes one central directory instead
+ * of one per artifact. Merged jars are cached in {@link #CLASSPATH_DIR}, keyed by the artifacts they were built from.
+ * <p>
+ * Signed jars are kept out of the merge, since their signatures would not survive it, and so are multi-release jars,
+ * since the versioned classes of one would apply to every other jar in the merge, or be ignored if it isn't marked
+ * multi-release.
+ */
+@Slf4j
+public class ClasspathMerger
+{
+	static final File CLASSPATH_DIR = new File(RUNENITE_DIR, "classpath");
+
+	private static final String SERVICES = "META-INF/services/";
+
+	/**
+	 * Build, or reuse, the merged jars for the artifacts. Jars kept out of the merge stay where they are on the
+	 * classpath, and the jars on either side of one are merged separately, so every entry is still found in the same
+	 * jar it would have been with separate jars.
+	 *
+	 * @param separate artifacts to keep out of the merge, which may not be ready yet
+	 * @return the classpath to launch with
+	 */
+	public static List<File> merge(List<Artifact> artifacts, Collection<Artifact> separate) throws IOException
+	{
+		List<File> classpath = new ArrayList<>();
+		List<Artifact> run = new ArrayList<>();
+		for (Artifact artifact : artifacts)
+		{
+			File file = new File(REPO_DIR, artifact.getName());
+			if (separate.contains(artifact) || isSigned(file) || isMultiRelease(file))
+			{
+				classpath.addAll(mergeRun(run));
+				run.clear();
+				classpath.add(file);
+			}
+			else
+			{
+				run.add(artifact);
+			}
+		}
+		classpath.addAll(mergeRun(run));
+
+		// merged jars of other artifact sets are stale
+		File[] stale = CLASSPATH_DIR.listFiles((dir, name) -> name.endsWith(".jar") && !classpath.contains(new File(dir, name)));
+		if (stale != null)
+		{
+			for (File f : stale)
+			{
+				Files.deleteIfExists(f.toPath());
+			}
+		}
+		return classpath;
+	}
+
+	/**
+	 * Merge consecutive jars of the classpath
+	 */
+	private static List<File> mergeRun(List<Artifact> run) throws IOException
+	{
+		List<File> files = run.stream()
+			.map(a -> new File(REPO_DIR, a.getName()))
+			.collect(Collectors.toList());
+		if (files.size() < 2)
+		{
+			return files;
+		}
+
+		MessageDigest digest = sha256();
+		for (Artifact artifact : run)
+		{
+			File file = new File(REPO_DIR, artifact.getName());
+			// the file may be a patched rewrite of the artifact, so identify it by size and mtime too
+			digest.update((artifact.getName() + '\0' + artifact.getHash() + '\0' + file.length() + '\0' + file.lastModified() + '\n')
+				.getBytes(StandardCharsets.UTF_8));
+		}
+
+		File merged = new File(CLASSPATH_DIR, hex(digest.digest()) + ".jar");
+		if (!merged.exists())
+		{
+			write(files, merged);
+		}
+		else
+		{
+			log.debug("Using merged classpath jar {}", merged.getName());
+		}
+		return List.of(merged);
+	}
+
+	private static boolean isSigned(File file) throws IOException
+	{
+		try (ZipFile zip = new ZipFile(file))
+		{
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements())
+			{
+				String name = entries.nextElement().getName();
+				if (isSignatureFile(name))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean isMultiRelease(File file) throws IOException
+	{
+		try (JarFile jar = new JarFile(file))
+		{
+			Manifest manifest = jar.getManifest();
+			return manifest != null && "true".equalsIgnoreCase(manifest.getMainAttributes().getValue(Attributes.Name.MULTI_RELEASE));
+		}
+	}
+
+	private static boolean isSignatureFile(String name)
+	{
+		if (!name.startsWith("META-INF/") || name.indexOf('/', "META-INF/".length()) != -1)
+		{
+			return false;
+		}
+		return name.endsWith(".SF") || name.endsWith(".DSA") || name.endsWith(".RSA") || name.endsWith(".EC");
+	}
+
+	static void write(List<File> jars, File merged) throws IOException
+	{
+		Files.createDirectories(CLASSPATH_DIR.toPath());
+		log.info("Merging {} jars into {}", jars.size(), merged.getName());
+
+		ZipRewriteEvent event = new ZipRewriteEvent();
+		event.begin();
+		event.artifact = merged.getName();
+
+		File tmp = new File(CLASSPATH_DIR, merged.getName() + ".tmp");
+		Set<String> written = new HashSet<>();
+		Map<String, ByteArrayOutputStream> services = new LinkedHashMap<>();
+		try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath()), 1 << 16)))
+		{
+			out.setMethod(ZipOutputStream.STORED);
+
+			Manifest manifest = new Manifest();
+			manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+			ByteArrayOutputStream manifestBytes = new ByteArrayOutputStream();
+			manifest.write(manifestBytes);
+			put(out, JarFile.MANIFEST_NAME, manifestBytes.toByteArray());
+			written.add(JarFile.MANIFEST_NAME);
+
+			for (File jar : jars)
+			{
+				event.inputBytes += jar.length();
+				try (ZipFile zip = new ZipFile(jar))
+				{
+					Enumeration<? extends ZipEntry> entries = zip.entries();
+					while (entries.hasMoreElements())
+					{
+						ZipEntry entry = entries.nextElement();
+						String name = entry.getName();
+						if (entry.isDirectory() || isSignatureFile(name) || name.equalsIgnoreCase(JarFile.MANIFEST_NAME))
+						{
+							continue;
+						}
+
+						if (name.startsWith(SERVICES) && name.length() > SERVICES.length())
+						{
+							// service providers from every jar are concatenated
+							ByteArrayOutputStream service = services.computeIfAbsent(name, k -> new ByteArrayOutputStream());
+							try (InputStream in = zip.getInputStream(entry))
+							{
+								in.transferTo(service);
+							}
+							service.write('\n');
+							continue;
+						}
+
+						// the first jar on the classpath wins, as it would have with separate jars
+						if (written.add(name))
+						{
+							try (InputStream in = zip.getInputStream(entry))
+							{
+								put(out, name, in.readAllBytes());
+							}
+						}
+					}
+				}
+			}
+
+			for (Map.Entry<String, ByteArrayOutputStream> service : services.entrySet())
+			{
+				put(out, service.getKey(), service.getValue().toByteArray());
+			}
+		}
+
+		Files.move(tmp.toPath(), merged.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		event.outputBytes = merged.length();
+		event.commit();
+	}
+
+	private static void put(ZipOutputStream out, String name, byte[] data) throws IOException
+	{
+		CRC32 crc = new CRC32();
+		crc.update(data);
+
+		ZipEntry entry = new ZipEntry(name);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(data.length);
+		entry.setCompressedSize(data.length);
+		entry.setCrc(crc.getValue());
+		out.putNextEntry(entry);
+		out.write(data);
+		out.closeEntry();
+	}
+
+	private static MessageDigest sha256()
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String hex(byte[] bytes)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes)
+		{
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,232 @@
+package net.runenite;
+
+import com.sun.management.OperatingSystemMXBean;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.OS;
+
+/**
+ * Picks heap, GC and memory settings for the client JVM from the machine's resources. The bootstrap arguments are
+ * sized for the smallest machines, so on larger ones the client runs short of heap once many plugins are loaded.
+ * <p>
+ * Any choice is skipped when the user's own JVM arguments already cover it, and every choice is logged. The choices
+ * depend only on the machine's memory, cores, Java version and huge page support, and the user's arguments.
+ */
+@Slf4j
+public class ClientErgonomics
+{
+	private static final long MIB = 1024L * 1024L;
+
+	/**
+	 * The bootstrap heap, which is never lowered
+	 */
+	private static final long MIN_HEAP = 768 * MIB;
+	private static final long MAX_HEAP = 4096 * MIB;
+
+	private static final Pattern HEAP_ARGS = Pattern.compile("-Xmx.*|-XX:(Max|Initial|Min)RAMPercentage=.*|-XX:MaxHeapSize=.*");
+	private static final Pattern HEAP_SIZE_ARG = Pattern.compile("(?:-Xmx|-XX:MaxHeapSize=)(\\d+)([kKmMgGtT]?)");
+	private static final Pattern HEAP_PERCENTAGE_ARG = Pattern.compile("-XX:MaxRAMPercentage=(\\d+(?:\\.\\d+)?)");
+	private static final Pattern GC_ARGS = Pattern.compile("-XX:[+-]Use\\w*GC|-XX:[+-]ZGenerational");
+	private static final Pattern PAGE_ARGS = Pattern.compile("-XX:[+-]Use(TransparentHuge|Large)Pages");
+	private static final Pattern CLASS_SPACE_ARGS = Pattern.compile("-XX:CompressedClassSpaceSize=.*|-XX:[+-]UseCompressedClassPointers");
+
+	private static final Path THP_ENABLED = Path.of("/sys/kernel/mm/transparent_hugepage/enabled");
+
+	public static List<String> getJvmArgs(List<String> userArgs)
+	{
+		long memory = -1;
+		var bean = ManagementFactory.getOperatingSystemMXBean();
+		if (bean instanceof OperatingSystemMXBean)
+		{
+			// getTotalMemorySize() replaces this, but only from Java 14
+			@SuppressWarnings("deprecation")
+			long total = ((OperatingSystemMXBean) bean).getTotalPhysicalMemorySize();
+			memory = total;
+		}
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		int javaVersion = Runtime.version().feature();
+		boolean thp = isThpAvailable();
+		log.info("Client ergonomics: {} MiB memory, {} cores, Java {}, transparent huge pages {}",
+			memory / MIB, cores, javaVersion, thp ? "available" : "unavailable");
+
+		Choices choices = choose(memory, cores, javaVersion, thp, userArgs);
+		for (String reason : choices.reasons)
+		{
+			log.info(reason);
+		}
+		return choices.args;
+	}
+
+	/**
+	 * The settings chosen, with why each was
+	 */
+	static class Choices
+	{
+		final List<String> args = new ArrayList<>();
+		final List<String> reasons = new ArrayList<>();
+
+		private void add(String reason, String... args)
+		{
+			this.args.addAll(Arrays.asList(args));
+			reasons.add(reason);
+		}
+	}
+
+	/**
+	 * Choose the settings for a machine, depending on nothing else, so they can be tested for any machine.
+	 *
+	 * @param memory   physical memory in bytes, or 0 or less if it isn't known
+	 * @param thp      whether transparent huge pages can be used
+	 * @param userArgs the user's own JVM arguments, which win over any choice
+	 */
+	static Choices choose(long memory, int cores, int javaVersion, boolean thp, List<String> userArgs)
+	{
+		Choices choices = new Choices();
+
+		long heap = Math.min(MAX_HEAP, Math.max(MIN_HEAP, memory / 4));
+		if (memory <= 0)
+		{
+			heap = MIN_HEAP;
+			choices.add("Heap: unknown memory size, keeping the bootstrap default");
+		}
+		else if (overridden(userArgs, HEAP_ARGS))
+		{
+			// the other choices are for the heap the client will have
+			heap = userHeap(memory, userArgs, heap);
+			choices.add("Heap: set by user arguments, " + heap / MIB + " MiB");
+		}
+		else if (heap > MIN_HEAP)
+		{
+			String arg = "-Xmx" + heap / MIB + "m";
+			choices.add("Heap: " + arg + " (a quarter of memory, at most " + MAX_HEAP / MIB + " MiB)", arg);
+		}
+		else
+		{
+			choices.add("Heap: keeping the bootstrap default");
+		}
+
+		if (overridden(userArgs, GC_ARGS))
+		{
+			choices.add("GC: set by user arguments");
+		}
+		else if (javaVersion >= 21 && cores >= 4 && heap >= 2048 * MIB)
+		{
+			String reason = "GC: generational ZGC, for short pauses with " + cores + " cores and a " + heap / MIB + " MiB heap";
+			if (javaVersion < 23)
+			{
+				// generational ZGC is the default from 23, and the flag is deprecated
+				choices.add(reason, "-XX:+UseZGC", "-XX:+ZGenerational");
+			}
+			else
+			{
+				choices.add(reason, "-XX:+UseZGC");
+			}
+		}
+		else
+		{
+			// with few cores or little memory the jvm would otherwise pick the serial collector
+			choices.add("GC: G1 with a 50ms pause target", "-XX:+UseG1GC", "-XX:MaxGCPauseMillis=50");
+		}
+
+		if (overridden(userArgs, PAGE_ARGS))
+		{
+			choices.add("Large pages: set by user arguments");
+		}
+		else if (thp && heap >= 2048 * MIB)
+		{
+			choices.add("Large pages: transparent huge pages for the " + heap / MIB + " MiB heap", "-XX:+UseTransparentHugePages");
+		}
+		else
+		{
+			choices.add("Large pages: not used");
+		}
+
+		if (overridden(userArgs, CLASS_SPACE_ARGS))
+		{
+			choices.add("Compressed class space: set by user arguments");
+		}
+		else if (memory > 0 && memory < 4096 * MIB)
+		{
+			// the default reserves 1 GiB of address space, far more than the client's classes need
+			choices.add("Compressed class space: 256 MiB, for a machine with little memory", "-XX:CompressedClassSpaceSize=256m");
+		}
+		else
+		{
+			choices.add("Compressed class space: JVM default");
+		}
+
+		return choices;
+	}
+
+	/**
+	 * The heap the user's arguments give, the last one winning as it does for the jvm, or the default if they only
+	 * set percentages other than the maximum
+	 */
+	private static long userHeap(long memory, List<String> userArgs, long heap)
+	{
+		for (String arg : userArgs)
+		{
+			Matcher size = HEAP_SIZE_ARG.matcher(arg);
+			Matcher percentage = HEAP_PERCENTAGE_ARG.matcher(arg);
+			if (size.matches())
+			{
+				heap = Long.parseLong(size.group(1)) * unit(size.group(2));
+			}
+			else if (percentage.matches())
+			{
+				heap = (long) (memory * Double.parseDouble(percentage.group(1)) / 100);
+			}
+		}
+		return heap;
+	}
+
+	private static long unit(String suffix)
+	{
+		switch (suffix.toLowerCase())
+		{
+			case "k":
+				return 1024L;
+			case "m":
+				return MIB;
+			case "g":
+				return 1024L * MIB;
+			case "t":
+				return 1024L * 1024L * MIB;
+			default:
+				return 1;
+		}
+	}
+
+	private static boolean overridden(List<String> userArgs, Pattern pattern)
+	{
+		return userArgs.stream().anyMatch(arg -> pattern.matcher(arg).matches());
+	}
+
+	private static boolean isThpAvailable()
+	{
+		if (OS.getOs() != OS.OSType.Linux)
+		{
+			return false;
+		}
+
+		try
+		{
+			// eg. "always [madvise] never"; the jvm madvises its heap, so either of the first two will do
+			String enabled = Files.readString(THP_ENABLED);
+			return enabled.contains("[always]") || enabled.contains("[madvise]");
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
+	}
+}
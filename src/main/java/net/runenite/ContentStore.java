@@ -0,0 +1,208 @@
+package net.runenite;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+import static net.runenite.RuneNiteLauncher.ensureDirectoryExists;
+
+/**
+ * Files addressed by their SHA-256, so the same content is only kept once however many places use it. Files are
+ * installed from the store by hard link where the filesystem allows it, and by copy otherwise.
+ * <p>
+ * Store files must never be written in place, since that would write through every link to them. Anything replacing
+ * a file which may be linked from here must delete or move over it instead. Files from elsewhere, which we can't hold
+ * to that, are copied in rather than linked, and stored files are checked against their hash before they are
+ * installed, so that one changed behind our back is evicted rather than installed.
+ */
+@Slf4j
+public class ContentStore
+{
+	static final File STORE_DIR = new File(RUNENITE_DIR, "store");
+
+	/**
+	 * @return the stored file with this hash, or null if it isn't stored
+	 */
+	public static File get(String hash)
+	{
+		File file = new File(STORE_DIR, hash);
+		return file.isFile() ? file : null;
+	}
+
+	/**
+	 * @return the stored file with this hash, or null if it isn't stored or no longer has the hash, in which case it
+	 * is evicted
+	 */
+	@Nullable
+	public static File verified(String hash)
+	{
+		File file = get(hash);
+		if (file == null)
+		{
+			return null;
+		}
+
+		try
+		{
+			String actual = HashIndex.hash(file);
+			if (hash.equals(actual))
+			{
+				return file;
+			}
+
+			log.warn("Evicting {} from the content store, it has changed to {}", hash, actual);
+			Files.deleteIfExists(file.toPath());
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to check {} in the content store", hash, e);
+		}
+		return null;
+	}
+
+	/**
+	 * Store the stream's content, checking it against the expected hash.
+	 *
+	 * @return the stored file
+	 * @throws IOException if the content doesn't match the hash
+	 */
+	public static File put(InputStream in, String hash) throws IOException
+	{
+		File file = verified(hash);
+		if (file != null)
+		{
+			return file;
+		}
+
+		ensureDirectoryExists(STORE_DIR);
+		file = new File(STORE_DIR, hash);
+		File tmp = new File(STORE_DIR, hash + "-" + ProcessHandle.current().pid() + "-" + Thread.currentThread().getId() + ".tmp");
+		try
+		{
+			String actual;
+			try (HashingOutputStream out = new HashingOutputStream(Hashing.sha256(), Files.newOutputStream(tmp.toPath())))
+			{
+				in.transferTo(out);
+				actual = out.hash().toString();
+			}
+
+			if (!actual.equals(hash))
+			{
+				throw new IOException("Hash mismatch: got " + actual + " expected " + hash);
+			}
+
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			HashIndex.record(file, hash);
+			return file;
+		}
+		finally
+		{
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+
+	/**
+	 * Store a file of ours already known to have this hash, by linking it if possible. The file must only ever be
+	 * replaced afterwards, never written in place; files from elsewhere go in through {@link #put} instead.
+	 */
+	public static void add(File file, String hash) throws IOException
+	{
+		if (get(hash) != null)
+		{
+			return;
+		}
+
+		ensureDirectoryExists(STORE_DIR);
+		File tmp = new File(STORE_DIR, hash + "-" + ProcessHandle.current().pid() + "-" + Thread.currentThread().getId() + ".tmp");
+		try
+		{
+			// a file which is already linked elsewhere, such as one linked from another launcher's repository by an
+			// older version, may be written through that link
+			boolean linked = false;
+			if (linkCount(file) == 1)
+			{
+				try
+				{
+					Files.createLink(tmp.toPath(), file.toPath());
+					linked = true;
+				}
+				catch (IOException | UnsupportedOperationException e)
+				{
+					log.debug("Unable to link {} into the content store, copying", file, e);
+				}
+			}
+			if (!linked)
+			{
+				Files.copy(file.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			File stored = new File(STORE_DIR, hash);
+			Files.move(tmp.toPath(), stored.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			HashIndex.record(stored, hash);
+		}
+		finally
+		{
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+
+	private static int linkCount(File file) throws IOException
+	{
+		try
+		{
+			return (Integer) Files.getAttribute(file.toPath(), "unix:nlink");
+		}
+		catch (UnsupportedOperationException | IllegalArgumentException e)
+		{
+			return 1;
+		}
+	}
+
+	/**
+	 * Install the stored file with this hash at dest, replacing whatever is there.
+	 *
+	 * @return whether the file was hard linked, rather than copied
+	 * @throws IOException if the file isn't stored, or no longer has the hash
+	 */
+	public static boolean install(String hash, File dest) throws IOException
+	{
+		File file = verified(hash);
+		if (file == null)
+		{
+			throw new IOException("Not in the content store: " + hash);
+		}
+
+		return link(file, dest);
+	}
+
+	/**
+	 * Hard link, or failing that copy, the file to dest, replacing whatever is there.
+	 *
+	 * @return whether the file was hard linked
+	 */
+	private static boolean link(File file, File dest) throws IOException
+	{
+		File tmp = new File(dest.getParentFile(), dest.getName() + "-" + ProcessHandle.current().pid() + ".tmp");
+		Files.deleteIfExists(tmp.toPath());
+		boolean linked;
+		try
+		{
+			Files.createLink(tmp.toPath(), file.toPath());
+			linked = true;
+		}
+		catch (IOException | UnsupportedOperationException e)
+		{
+			// other filesystem, or no hard links on this one
+			log.debug("Unable to link {}, copying", dest, e);
+			Files.copy(file.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			linked = false;
+		}
+		Files.move(tmp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return linked;
+	}
+}
@@ -0,0 +1,426 @@
+package net.runenite;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import static net.runenite.RuneNiteLauncher.BOOTSTRAP_FILE;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+import static net.runenite.RuneNiteLauncher.ensureDirectoryExists;
+import net.runenite.jfr.ArtifactDownloadEvent;
+import net.runenite.sources.DiffGraph;
+
+/**
+ * Every prepared repository, as a generation: the bootstrap and the hashes of the (patched) artifacts it was prepared
+ * into, all of which are kept in the {@link ContentStore}. Preparing a repository which matches a generation installs
+ * its files from the store rather than downloading and patching them again, so going back to an earlier bootstrap,
+ * or between bootstraps, only takes linking the files into place.
+ * <p>
+ * The last few generations used are kept, and the store is trimmed to a size budget with everything they, and the
+ * {@link DiffGraph}, refer to left in it.
+ */
+@Slf4j
+public class Generations
+{
+	static final File GENERATIONS_FILE = new File(RUNENITE_DIR, "generations.json");
+
+	static class Generation
+	{
+		int id;
+		/**
+		 * Store hash of the bootstrap
+		 */
+		String bootstrap;
+		/**
+		 * How the artifacts were prepared, as for {@link RepositoryLock#markPrepared}
+		 */
+		String preparation;
+		/**
+		 * When the generation was last launched, in ms since the epoch
+		 */
+		long used;
+		List<Entry> files;
+	}
+
+	static class Entry
+	{
+		String name;
+		/**
+		 * Upstream hash, from the bootstrap
+		 */
+		String hash;
+		/**
+		 * Store hash of the file, which differs from the upstream hash if the artifact was patched
+		 */
+		String fileHash;
+		boolean reordered;
+		@Nullable
+		PatchCompression compression;
+	}
+
+	private static int keep = 3;
+	private static long storeBudget = 2048L * 1024 * 1024;
+
+	private static final StateFile<List<Generation>> STATE = new StateFile<>(GENERATIONS_FILE, new TypeToken<List<Generation>>()
+	{
+	}, Generations::valid, "generations");
+
+	public static void configure(int keep, long storeBudget)
+	{
+		Generations.keep = Math.max(1, keep);
+		Generations.storeBudget = storeBudget;
+	}
+
+	/**
+	 * Install the files of the most recent generation which has all these artifacts, prepared the same way, into the
+	 * repository. Must be called holding the {@link RepositoryLock}.
+	 *
+	 * @return whether there was such a generation
+	 */
+	public static synchronized boolean restore(List<Artifact> artifacts, String preparation)
+	{
+		Generation generation = generations().stream()
+			.filter(g -> g.preparation.equals(preparation) && contains(g, artifacts))
+			.max(Comparator.comparingLong(g -> g.used))
+			.orElse(null);
+		if (generation == null)
+		{
+			return false;
+		}
+
+		long start = System.nanoTime();
+		Map<String, Entry> files = byName(generation);
+		try
+		{
+			ensureDirectoryExists(REPO_DIR);
+			int installed = 0;
+			for (Artifact artifact : artifacts)
+			{
+				ArtifactDownloadEvent event = new ArtifactDownloadEvent();
+				event.begin();
+				event.artifact = artifact.getName();
+				event.cacheOutcome = ArtifactDownloadEvent.UP_TO_DATE;
+
+				Entry entry = files.get(artifact.getName());
+				File dest = new File(REPO_DIR, entry.name);
+				if (!entry.fileHash.equals(HashIndex.cached(dest)))
+				{
+					ContentStore.install(entry.fileHash, dest);
+					HashIndex.record(dest, entry.fileHash);
+					event.cacheOutcome = ArtifactDownloadEvent.RESTORED;
+					++installed;
+				}
+
+				if (event.shouldCommit())
+				{
+					event.bytes = dest.length();
+					event.commit();
+				}
+
+				if (!entry.fileHash.equals(entry.hash))
+				{
+					PatchedManifest.record(artifact, entry.fileHash, entry.reordered, entry.compression);
+				}
+			}
+			HashIndex.save();
+
+			log.info("Restored generation {} ({} of {} artifacts installed) in {}ms", generation.id, installed,
+				artifacts.size(), (System.nanoTime() - start) / 1_000_000L);
+			return true;
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to restore generation {}", generation.id, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Record the prepared repository as a generation, or mark the generation it already is as used, and drop the
+	 * generations past the ones to keep. Must be called holding the {@link RepositoryLock}.
+	 */
+	public static synchronized void record(List<Artifact> artifacts, String preparation)
+	{
+		Generation generation = new Generation();
+		generation.preparation = preparation;
+		generation.used = System.currentTimeMillis();
+		generation.files = new ArrayList<>();
+		try
+		{
+			generation.bootstrap = HashIndex.hash(BOOTSTRAP_FILE);
+			ContentStore.add(BOOTSTRAP_FILE, generation.bootstrap);
+
+			for (Artifact artifact : artifacts)
+			{
+				File file = new File(REPO_DIR, artifact.getName());
+				String fileHash = HashIndex.hash(file);
+				if (!fileHash.equals(artifact.getHash()) && !PatchedManifest.isPatched(artifact, fileHash))
+				{
+					log.debug("Not recording a generation, {} has unknown hash {}", artifact.getName(), fileHash);
+					return;
+				}
+
+				ContentStore.add(file, fileHash);
+
+				Entry entry = new Entry();
+				entry.name = artifact.getName();
+				entry.hash = artifact.getHash();
+				entry.fileHash = fileHash;
+				entry.reordered = PatchedManifest.isReordered(artifact, fileHash);
+				entry.compression = PatchedManifest.getCompression(artifact, fileHash);
+				generation.files.add(entry);
+			}
+		}
+		catch (FileNotFoundException e)
+		{
+			log.debug("Not recording a generation, {} is missing", e.getMessage());
+			return;
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to record generation", e);
+			return;
+		}
+
+		try
+		{
+			// into the generations as saved, which other launchers may have recorded into since they were read
+			STATE.update(list ->
+			{
+				Generation same = list.stream()
+					.filter(g -> g.bootstrap.equals(generation.bootstrap) && g.preparation.equals(preparation))
+					.findFirst()
+					.orElse(null);
+				if (same != null && fileHashes(same).equals(fileHashes(generation)))
+				{
+					same.used = generation.used;
+				}
+				else
+				{
+					// a generation of the same bootstrap prepared the same way is superseded, eg. by new patches, and
+					// the new one gets a new id, so selecting by an id shown earlier can't pick it instead
+					generation.id = list.stream().mapToInt(g -> g.id).max().orElse(0) + 1;
+					list.remove(same);
+					list.add(generation);
+					log.info("Recorded generation {}", generation.id);
+				}
+
+				list.sort(Comparator.comparingLong((Generation g) -> g.used).reversed());
+				while (list.size() > keep)
+				{
+					Generation dropped = list.remove(list.size() - 1);
+					log.debug("Dropped generation {}", dropped.id);
+				}
+			});
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to save generations", e);
+		}
+
+		collectGarbage();
+	}
+
+	/**
+	 * Make the bootstrap of the generation with this id the current one, so it is launched. Its files are restored
+	 * when the repository is next prepared.
+	 */
+	public static void select(int id) throws IOException
+	{
+		Generation generation;
+		synchronized (Generations.class)
+		{
+			generation = generations().stream()
+				.filter(g -> g.id == id)
+				.findFirst()
+				.orElseThrow(() -> new IOException("No generation " + id));
+		}
+		select(generation);
+	}
+
+	/**
+	 * Go back to the most recently used generation of a bootstrap other than the current one.
+	 */
+	public static void rollback() throws IOException
+	{
+		String current = BOOTSTRAP_FILE.exists() ? HashIndex.hash(BOOTSTRAP_FILE) : null;
+		Generation generation;
+		synchronized (Generations.class)
+		{
+			generation = generations().stream()
+				.filter(g -> !g.bootstrap.equals(current))
+				.max(Comparator.comparingLong(g -> g.used))
+				.orElseThrow(() -> new IOException("No earlier generation to roll back to"));
+		}
+		select(generation);
+	}
+
+	/**
+	 * @return one line for each generation, most recently used first
+	 */
+	public static synchronized String describe()
+	{
+		String current = null;
+		try
+		{
+			current = BOOTSTRAP_FILE.exists() ? HashIndex.hash(BOOTSTRAP_FILE) : null;
+		}
+		catch (IOException e)
+		{
+			log.debug("Unable to hash the bootstrap", e);
+		}
+
+		StringBuilder sb = new StringBuilder();
+		List<Generation> list = new ArrayList<>(generations());
+		list.sort(Comparator.comparingLong((Generation g) -> g.used).reversed());
+		for (Generation generation : list)
+		{
+			sb.append(generation.bootstrap.equals(current) ? "* " : "  ")
+				.append(generation.id)
+				.append("  ").append(Instant.ofEpochMilli(generation.used))
+				.append("  bootstrap ").append(generation.bootstrap, 0, 12)
+				.append("  ").append(generation.files.size()).append(" artifacts")
+				.append("  ").append(generation.preparation)
+				.append(System.lineSeparator());
+		}
+		return sb.toString();
+	}
+
+	@SuppressWarnings("try")
+	private static void select(Generation generation) throws IOException
+	{
+		try (var lock = RepositoryLock.acquire())
+		{
+			ContentStore.install(generation.bootstrap, BOOTSTRAP_FILE);
+			HashIndex.record(BOOTSTRAP_FILE, generation.bootstrap);
+			HashIndex.save();
+		}
+		log.info("Selected generation {}", generation.id);
+	}
+
+	/**
+	 * Delete the least recently modified files in the store which nothing refers to, until it fits the budget.
+	 */
+	private static void collectGarbage()
+	{
+		File[] files = ContentStore.STORE_DIR.listFiles();
+		if (files == null)
+		{
+			return;
+		}
+
+		long total = 0;
+		for (File file : files)
+		{
+			total += file.length();
+		}
+		if (total <= storeBudget)
+		{
+			return;
+		}
+
+		Set<String> referenced = new HashSet<>(DiffGraph.baseHashes());
+		for (Generation generation : generations())
+		{
+			referenced.add(generation.bootstrap);
+			for (Entry entry : generation.files)
+			{
+				referenced.add(entry.hash);
+				referenced.add(entry.fileHash);
+			}
+		}
+
+		List<File> unreferenced = new ArrayList<>();
+		for (File file : files)
+		{
+			// in-progress files end in .tmp
+			if (file.isFile() && !file.getName().endsWith(".tmp") && !referenced.contains(file.getName()))
+			{
+				unreferenced.add(file);
+			}
+		}
+		unreferenced.sort(Comparator.comparingLong(File::lastModified));
+
+		int deleted = 0;
+		long freed = 0;
+		for (File file : unreferenced)
+		{
+			if (total <= storeBudget)
+			{
+				break;
+			}
+
+			long length = file.length();
+			if (file.delete())
+			{
+				total -= length;
+				freed += length;
+				++deleted;
+			}
+			else
+			{
+				log.warn("Unable to delete {} from the content store", file);
+			}
+		}
+
+		log.debug("Deleted {} files ({} KiB) from the content store, {} KiB left", deleted, freed / 1024, total / 1024);
+	}
+
+	private static boolean contains(Generation generation, List<Artifact> artifacts)
+	{
+		Map<String, Entry> files = byName(generation);
+		for (Artifact artifact : artifacts)
+		{
+			Entry entry = files.get(artifact.getName());
+			if (entry == null || !entry.hash.equals(artifact.getHash()) || ContentStore.get(entry.fileHash) == null)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Map<String, Entry> byName(Generation generation)
+	{
+		return generation.files.stream()
+			.collect(Collectors.toMap(e -> e.name, Function.identity(), (a, b) -> a));
+	}
+
+	private static Set<String> fileHashes(Generation generation)
+	{
+		return generation.files.stream()
+			.map(e -> e.name + " " + e.fileHash)
+			.collect(Collectors.toSet());
+	}
+
+	static List<Generation> generations()
+	{
+		return STATE.read();
+	}
+
+	private static List<Generation> valid(@Nullable List<Generation> list)
+	{
+		List<Generation> generations = new ArrayList<>();
+		if (list != null)
+		{
+			list.stream()
+				.filter(g -> g != null && g.bootstrap != null && g.preparation != null && g.files != null
+					&& g.files.stream().allMatch(e -> e != null && e.name != null && e.hash != null && e.fileHash != null))
+				.forEach(generations::add);
+		}
+		return generations;
+	}
+}
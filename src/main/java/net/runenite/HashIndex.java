@@ -0,0 +1,200 @@
+package net.runenite;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.Launcher;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+
+/**
+ * The SHA-256 of files hashed on previous runs, so unchanged files aren't read again. A file is taken to be unchanged
+ * while its size, modification time and file key (the inode, where there is one) are the same as when it was hashed;
+ * since repository files are only ever replaced, never written in place, replacing one always changes its file key.
+ */
+@Slf4j
+public class HashIndex
+{
+	static final File INDEX_FILE = new File(RUNENITE_DIR, "hashes.json");
+
+	private static final StateFile<Map<String, Entry>> STATE = new StateFile<>(INDEX_FILE, new TypeToken<Map<String, Entry>>()
+	{
+	}, HashIndex::valid, "hash index");
+
+	private static class Entry
+	{
+		long size;
+		long mtime;
+		String fileKey;
+		String hash;
+	}
+
+	private static Map<String, Entry> entries;
+	/**
+	 * Hashes learned since the last save
+	 */
+	private static final Map<String, Entry> changed = new HashMap<>();
+
+	/**
+	 * @return the file's hash, reading the file only if it has changed since it was last hashed
+	 * @throws FileNotFoundException if the file doesn't exist
+	 */
+	public static String hash(File file) throws IOException
+	{
+		BasicFileAttributes attributes = attributes(file);
+		String key = file.getAbsolutePath();
+		synchronized (HashIndex.class)
+		{
+			Entry entry = entries().get(key);
+			if (entry != null && matches(entry, attributes))
+			{
+				return entry.hash;
+			}
+		}
+
+		String hash = Launcher.hash(file);
+		put(file, attributes, hash);
+		return hash;
+	}
+
+	/**
+	 * Record the hash of a file which was hashed as it was written.
+	 */
+	public static void record(File file, String hash) throws IOException
+	{
+		put(file, attributes(file), hash);
+	}
+
+	private static void put(File file, BasicFileAttributes attributes, String hash)
+	{
+		Entry entry = new Entry();
+		entry.size = attributes.size();
+		entry.mtime = attributes.lastModifiedTime().to(TimeUnit.MILLISECONDS);
+		entry.fileKey = fileKey(attributes);
+		entry.hash = hash;
+		synchronized (HashIndex.class)
+		{
+			entries().put(file.getAbsolutePath(), entry);
+			changed.put(file.getAbsolutePath(), entry);
+		}
+	}
+
+	/**
+	 * @return the file's hash if it is known without reading the file, otherwise null
+	 */
+	@Nullable
+	public static String cached(File file)
+	{
+		BasicFileAttributes attributes;
+		try
+		{
+			attributes = attributes(file);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+
+		synchronized (HashIndex.class)
+		{
+			Entry entry = entries().get(file.getAbsolutePath());
+			return entry != null && matches(entry, attributes) ? entry.hash : null;
+		}
+	}
+
+	/**
+	 * Write out the hashes learned since the last save, along with those other launchers saved, dropping files which
+	 * no longer exist.
+	 */
+	public static void save()
+	{
+		Map<String, Entry> saving;
+		synchronized (HashIndex.class)
+		{
+			if (changed.isEmpty())
+			{
+				return;
+			}
+			saving = new HashMap<>(changed);
+		}
+
+		try
+		{
+			Map<String, Entry> saved = STATE.update(map ->
+			{
+				map.putAll(saving);
+				map.keySet().removeIf(path -> !new File(path).isFile());
+			});
+
+			synchronized (HashIndex.class)
+			{
+				// hashes learned while saving are kept for the next save
+				changed.entrySet().removeIf(e -> saving.get(e.getKey()) == e.getValue());
+				saved.putAll(changed);
+				entries = saved;
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to save hash index", e);
+		}
+	}
+
+	private static BasicFileAttributes attributes(File file) throws IOException
+	{
+		try
+		{
+			return Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+		}
+		catch (NoSuchFileException e)
+		{
+			throw new FileNotFoundException(file.getPath());
+		}
+	}
+
+	private static boolean matches(Entry entry, BasicFileAttributes attributes)
+	{
+		return entry.size == attributes.size()
+			&& entry.mtime == attributes.lastModifiedTime().to(TimeUnit.MILLISECONDS)
+			&& fileKey(attributes).equals(entry.fileKey);
+	}
+
+	private static String fileKey(BasicFileAttributes attributes)
+	{
+		Object key = attributes.fileKey();
+		return key != null ? key.toString() : "";
+	}
+
+	private static Map<String, Entry> entries()
+	{
+		if (entries == null)
+		{
+			entries = STATE.read();
+		}
+		return entries;
+	}
+
+	private static Map<String, Entry> valid(@Nullable Map<String, Entry> map)
+	{
+		Map<String, Entry> entries = new HashMap<>();
+		if (map != null)
+		{
+			map.forEach((path, entry) ->
+			{
+				if (path != null && entry != null && entry.hash != null && entry.fileKey != null)
+				{
+					entries.put(path, entry);
+				}
+			});
+		}
+		return entries;
+	}
+}
@@ -0,0 +1,519 @@
+package net.runenite;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.jar.Manifest;
+import java.util.zip.ZipFile;
+import lombok.extern.slf4j.Slf4j;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+
+/**
+ * A class loader which looks classes and resources up in an index of entry name to jar, rather than probing each
+ * jar in classpath order. Entries are read from memory-mapped jars. The index is cached per set of jars in
+ * {@link #INDEX_DIR}, keyed by their hashes, so later launches with the same artifacts do not read the central
+ * directories at all.
+ * <p>
+ * Signed jars, multi-release jars, jars which can't be mapped, and jars added later with {@link #addURL(URL)}, are
+ * served by {@link URLClassLoader}, so that their classes keep their signers and versioned classes are found. Their entry names are still indexed, so a lookup
+ * is only handed to {@link URLClassLoader} when the first jar on the classpath with the entry is one of them, and
+ * classpath order is kept.
+ */
+@Slf4j
+public class IndexedClassLoader extends URLClassLoader
+{
+	static final File INDEX_DIR = new File(RUNENITE_DIR, "classindex");
+
+	private static final int INDEX_MAGIC = 0x52434958;
+	private static final int INDEX_VERSION = 2;
+	/**
+	 * How many indexes are kept, the most recently written ones, so switching between artifact sets keeps theirs
+	 */
+	private static final int MAX_INDEXES = 4;
+
+	static
+	{
+		ClassLoader.registerAsParallelCapable();
+	}
+
+	static final class Entry
+	{
+		final int jar;
+		final int offset;
+		final int compressedSize;
+		final int size;
+		final int method;
+		/**
+		 * The same name in a later jar
+		 */
+		Entry next;
+
+		Entry(int jar, int offset, int compressedSize, int size, int method)
+		{
+			this.jar = jar;
+			this.offset = offset;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.method = method;
+		}
+	}
+
+	private final List<File> files;
+	/**
+	 * The mapped jars, by classpath position, or null for a jar which couldn't be mapped
+	 */
+	private final List<MappedJar> jars = new ArrayList<>();
+	/**
+	 * Classpath positions of the jars served by {@link URLClassLoader}
+	 */
+	private final BitSet delegated = new BitSet();
+	private final String key;
+	private final Map<String, Entry> index;
+	private volatile Consumer<String> classListener;
+	private final Map<MappedJar, Manifest> manifests = Collections.synchronizedMap(new HashMap<>());
+
+	public IndexedClassLoader(List<File> classpath, ClassLoader parent)
+	{
+		super(new URL[0], parent);
+
+		files = new ArrayList<>(classpath);
+		for (File file : files)
+		{
+			log.debug("Adding jar: {}", file);
+			try
+			{
+				jars.add(new MappedJar(file));
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to map {}, falling back to URLClassLoader", file, e);
+				jars.add(null);
+				delegated.set(jars.size() - 1);
+			}
+		}
+
+		key = indexKey();
+		index = loadIndex();
+
+		for (Map.Entry<String, Entry> mapEntry : index.entrySet())
+		{
+			if (isSignature(mapEntry.getKey()) || mapEntry.getKey().startsWith("META-INF/versions/"))
+			{
+				for (Entry e = mapEntry.getValue(); e != null; e = e.next)
+				{
+					delegated.set(e.jar);
+				}
+			}
+		}
+
+		// in classpath order, so URLClassLoader finds an entry in the same jar the index does
+		for (int i = delegated.nextSetBit(0); i >= 0; i = delegated.nextSetBit(i + 1))
+		{
+			log.debug("Serving {} from URLClassLoader", files.get(i));
+			addURL(files.get(i));
+		}
+	}
+
+	private static boolean isSignature(String name)
+	{
+		return name.startsWith("META-INF/") && name.indexOf('/', "META-INF/".length()) == -1
+			&& (name.endsWith(".SF") || name.endsWith(".RSA") || name.endsWith(".DSA") || name.endsWith(".EC"));
+	}
+
+	/**
+	 * Identifies the set of jars this loader serves
+	 */
+	public String getKey()
+	{
+		return key;
+	}
+
+	/**
+	 * Set a listener which is passed the name of each class defined from the index, or null to remove it.
+	 */
+	public void setClassListener(Consumer<String> classListener)
+	{
+		this.classListener = classListener;
+	}
+
+	private void addURL(File file)
+	{
+		try
+		{
+			addURL(file.toURI().toURL());
+		}
+		catch (MalformedURLException e)
+		{
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	private Map<String, Entry> loadIndex()
+	{
+		// entries of jars which couldn't be mapped have no offsets, so those indexes aren't cached
+		File cache = delegated.isEmpty() ? new File(INDEX_DIR, key + ".idx") : null;
+		if (cache != null && cache.exists())
+		{
+			try
+			{
+				Map<String, Entry> index = readIndex(cache);
+				log.debug("Loaded class index {} ({} entries)", cache.getName(), index.size());
+				return index;
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to read class index {}", cache, e);
+			}
+		}
+
+		Map<String, Entry> index = new HashMap<>();
+		for (int i = 0; i < jars.size(); ++i)
+		{
+			MappedJar jar = jars.get(i);
+			Map<String, Entry> entries = new HashMap<>();
+			try
+			{
+				if (jar == null)
+				{
+					listEntries(files.get(i), entries, i);
+				}
+				else
+				{
+					jar.forEachEntry(entries::put, i);
+				}
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to index {}, falling back to URLClassLoader", files.get(i), e);
+				entries.clear();
+				delegated.set(i);
+				// the rest of the jars are still indexed, but this one is no longer trusted for the cache
+				cache = null;
+
+				if (jar != null)
+				{
+					try
+					{
+						listEntries(jar.file, entries, i);
+					}
+					catch (IOException ex)
+					{
+						log.warn("Unable to list entries of {}", jar.file, ex);
+					}
+				}
+			}
+			entries.forEach((name, entry) -> append(index, name, entry));
+		}
+
+		if (cache != null)
+		{
+			writeIndex(cache, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Index the entry names of a jar served by {@link URLClassLoader}. The entries have no location, as they are
+	 * never read from the index.
+	 */
+	private static void listEntries(File file, Map<String, Entry> entries, int jar) throws IOException
+	{
+		try (ZipFile zip = new ZipFile(file))
+		{
+			zip.stream().forEach(e -> entries.put(e.getName(), new Entry(jar, 0, 0, 0, 0)));
+		}
+	}
+
+	private static void append(Map<String, Entry> index, String name, Entry entry)
+	{
+		Entry head = index.putIfAbsent(name, entry);
+		if (head != null)
+		{
+			while (head.next != null)
+			{
+				head = head.next;
+			}
+			head.next = entry;
+		}
+	}
+
+	/**
+	 * Identifies the set of jars by their hashes, in classpath order. Entry offsets are those of the jars as they are,
+	 * so a patched or reordered artifact is a different set. A jar whose hash isn't known without reading it is
+	 * identified by path, size and modification time instead.
+	 */
+	private String indexKey()
+	{
+		Hasher hasher = Hashing.sha256().newHasher();
+		for (File file : files)
+		{
+			String hash = HashIndex.cached(file);
+			hasher.putString(hash != null ? hash : file.getAbsolutePath() + '\0' + file.length() + '\0' + file.lastModified(),
+				StandardCharsets.UTF_8).putChar('\n');
+		}
+		return hasher.hash().toString();
+	}
+
+	private Map<String, Entry> readIndex(File file) throws IOException
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()))))
+		{
+			if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION || in.readInt() != jars.size())
+			{
+				throw new IOException("index header mismatch");
+			}
+
+			int count = in.readInt();
+			Map<String, Entry> index = new HashMap<>(count * 2);
+			for (int i = 0; i < count; ++i)
+			{
+				String name = in.readUTF();
+				Entry entry = new Entry(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readUnsignedShort());
+				if (entry.jar < 0 || entry.jar >= jars.size())
+				{
+					throw new IOException("index refers to unknown jar " + entry.jar);
+				}
+				append(index, name, entry);
+			}
+			return index;
+		}
+	}
+
+	private void writeIndex(File file, Map<String, Entry> index)
+	{
+		try
+		{
+			Files.createDirectories(INDEX_DIR.toPath());
+
+			File tmp = new File(INDEX_DIR, file.getName() + ".tmp");
+			int count = 0;
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath()))))
+			{
+				for (Entry head : index.values())
+				{
+					for (Entry e = head; e != null; e = e.next)
+					{
+						++count;
+					}
+				}
+
+				out.writeInt(INDEX_MAGIC);
+				out.writeInt(INDEX_VERSION);
+				out.writeInt(jars.size());
+				out.writeInt(count);
+				for (Map.Entry<String, Entry> mapEntry : index.entrySet())
+				{
+					for (Entry e = mapEntry.getValue(); e != null; e = e.next)
+					{
+						out.writeUTF(mapEntry.getKey());
+						out.writeInt(e.jar);
+						out.writeInt(e.offset);
+						out.writeInt(e.compressedSize);
+						out.writeInt(e.size);
+						out.writeShort(e.method);
+					}
+				}
+			}
+
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.debug("Wrote class index {} ({} entries)", file.getName(), count);
+
+			prune();
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to write class index {}", file, e);
+		}
+	}
+
+	/**
+	 * Delete all but the {@link #MAX_INDEXES} most recently written indexes
+	 */
+	static void prune() throws IOException
+	{
+		File[] indexes = INDEX_DIR.listFiles((dir, name) -> name.endsWith(".idx"));
+		if (indexes == null || indexes.length <= MAX_INDEXES)
+		{
+			return;
+		}
+
+		Arrays.sort(indexes, Comparator.comparingLong(File::lastModified).reversed());
+		for (int i = MAX_INDEXES; i < indexes.length; ++i)
+		{
+			log.debug("Deleting old class index {}", indexes[i].getName());
+			Files.deleteIfExists(indexes[i].toPath());
+		}
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException
+	{
+		Entry entry = index.get(name.replace('.', '/').concat(".class"));
+		if (entry == null || delegated.get(entry.jar))
+		{
+			return super.findClass(name);
+		}
+
+		MappedJar jar = jars.get(entry.jar);
+		ByteBuffer bytes;
+		try
+		{
+			bytes = jar.read(entry);
+		}
+		catch (IOException e)
+		{
+			throw new ClassNotFoundException(name, e);
+		}
+
+		int dot = name.lastIndexOf('.');
+		if (dot != -1)
+		{
+			definePackage(name.substring(0, dot), jar);
+		}
+
+		CodeSource codeSource = new CodeSource(jar.url, (CodeSigner[]) null);
+		Class<?> clazz = defineClass(name, bytes, codeSource);
+
+		Consumer<String> listener = classListener;
+		if (listener != null)
+		{
+			listener.accept(name);
+		}
+		return clazz;
+	}
+
+	private void definePackage(String name, MappedJar jar)
+	{
+		if (getDefinedPackage(name) != null)
+		{
+			return;
+		}
+
+		try
+		{
+			Manifest manifest = manifest(jar);
+			if (manifest != null)
+			{
+				definePackage(name, manifest, jar.url);
+			}
+			else
+			{
+				definePackage(name, null, null, null, null, null, null, null);
+			}
+		}
+		catch (IllegalArgumentException e)
+		{
+			// defined concurrently by another thread
+		}
+	}
+
+	private Manifest manifest(MappedJar jar)
+	{
+		return manifests.computeIfAbsent(jar, j ->
+		{
+			for (Entry e = index.get("META-INF/MANIFEST.MF"); e != null; e = e.next)
+			{
+				if (jars.get(e.jar) == j)
+				{
+					try
+					{
+						ByteBuffer buf = j.read(e);
+						byte[] bytes = new byte[buf.remaining()];
+						buf.get(bytes);
+						return new Manifest(new ByteArrayInputStream(bytes));
+					}
+					catch (IOException ex)
+					{
+						log.warn("Unable to read manifest of {}", j.file, ex);
+						return null;
+					}
+				}
+			}
+			return null;
+		});
+	}
+
+	private URL url(String name, Entry entry)
+	{
+		try
+		{
+			return new URL("jar:" + files.get(entry.jar).toURI().toURL() + "!/" + name);
+		}
+		catch (MalformedURLException e)
+		{
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	@Override
+	public URL findResource(String name)
+	{
+		Entry entry = index.get(name);
+		return entry != null && !delegated.get(entry.jar) ? url(name, entry) : super.findResource(name);
+	}
+
+	@Override
+	public Enumeration<URL> findResources(String name) throws IOException
+	{
+		// URLClassLoader has the same delegated jars in the same order, and its URLs find versioned entries
+		Iterator<URL> delegatedUrls = Collections.list(super.findResources(name)).iterator();
+		List<URL> urls = new ArrayList<>();
+		for (Entry e = index.get(name); e != null; e = e.next)
+		{
+			urls.add(delegated.get(e.jar) && delegatedUrls.hasNext() ? delegatedUrls.next() : url(name, e));
+		}
+		// and jars added since
+		delegatedUrls.forEachRemaining(urls::add);
+		return Collections.enumeration(urls);
+	}
+
+	@Override
+	public InputStream getResourceAsStream(String name)
+	{
+		Entry entry = index.get(name);
+		if (entry == null || delegated.get(entry.jar) || getParent().getResource(name) != null)
+		{
+			return super.getResourceAsStream(name);
+		}
+
+		try
+		{
+			ByteBuffer buf = jars.get(entry.jar).read(entry);
+			byte[] bytes = new byte[buf.remaining()];
+			buf.get(bytes);
+			return new ByteArrayInputStream(bytes);
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to read {}", name, e);
+			return null;
+		}
+	}
+}
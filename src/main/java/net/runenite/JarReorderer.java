@@ -0,0 +1,215 @@
+package net.runenite;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import net.runenite.jfr.ZipRewriteEvent;
+
+/**
+ * Rewrites jars so their entries are in the order the client loaded them in a previous start, making the reads of a
+ * cold start mostly sequential. Entry data is copied as is, so signatures stay valid.
+ */
+@Slf4j
+public class JarReorderer
+{
+	/**
+	 * Reorder the artifacts which contain classes from the last recorded class load order, and which have not been
+	 * reordered already.
+	 */
+	public static void reorder(List<Artifact> artifacts)
+	{
+		List<String> order = ClassPreloader.getLastLoadOrder();
+		if (order.isEmpty())
+		{
+			log.debug("No recorded class load order, not reordering jars");
+			return;
+		}
+
+		List<String> entryOrder = new ArrayList<>(order.size());
+		for (String className : order)
+		{
+			entryOrder.add(className.replace('.', '/') + ".class");
+		}
+
+		for (Artifact artifact : artifacts)
+		{
+			if (artifact.getPlatform() != null)
+			{
+				continue;
+			}
+
+			File file = new File(REPO_DIR, artifact.getName());
+			try
+			{
+				String hash = HashIndex.hash(file);
+				if (PatchedManifest.isReordered(artifact, hash))
+				{
+					continue;
+				}
+
+				File tmp = new File(file.getParentFile(), file.getName() + "-" + ProcessHandle.current().pid() + ".reorder");
+				try
+				{
+					if (reorder(file, tmp, entryOrder))
+					{
+						// entries are copied as they are, so a patched jar keeps its compression
+						RepositoryJournal.replace(artifact, tmp, file, true, PatchedManifest.getCompression(artifact, hash));
+					}
+				}
+				finally
+				{
+					Files.deleteIfExists(tmp.toPath());
+				}
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to reorder {}", artifact.getName(), e);
+			}
+		}
+	}
+
+	/**
+	 * Rewrite a jar to out with META-INF first, then the entries in the given order, then everything else in its
+	 * original order.
+	 *
+	 * @return false if the jar contains none of the ordered entries, in which case nothing is written
+	 */
+	static boolean reorder(File file, File out, List<String> order) throws IOException
+	{
+		MappedJar jar = new MappedJar(file);
+		Map<String, MappedJar.CentralHeader> remaining = new LinkedHashMap<>();
+		for (MappedJar.CentralHeader header : jar.centralDirectory())
+		{
+			remaining.putIfAbsent(header.name, header);
+		}
+
+		List<MappedJar.CentralHeader> headers = new ArrayList<>(remaining.size());
+		remaining.entrySet().removeIf(e ->
+		{
+			if (e.getKey().startsWith("META-INF/"))
+			{
+				headers.add(e.getValue());
+				return true;
+			}
+			return false;
+		});
+
+		int metaInf = headers.size();
+		for (String name : order)
+		{
+			MappedJar.CentralHeader header = remaining.remove(name);
+			if (header != null)
+			{
+				headers.add(header);
+			}
+		}
+
+		if (headers.size() == metaInf)
+		{
+			return false;
+		}
+		log.info("Reordering {} entries of {}", headers.size() - metaInf, file.getName());
+		headers.addAll(remaining.values());
+
+		ZipRewriteEvent event = new ZipRewriteEvent();
+		event.begin();
+		event.artifact = file.getName();
+		event.inputBytes = file.length();
+
+		try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(out.toPath()), 1 << 16))
+		{
+			write(jar, headers, Channels.newChannel(stream));
+		}
+
+		event.outputBytes = out.length();
+		event.commit();
+		return true;
+	}
+
+	private static void write(MappedJar jar, List<MappedJar.CentralHeader> headers, WritableByteChannel out) throws IOException
+	{
+		List<ByteBuffer> central = new ArrayList<>(headers.size());
+		long offset = 0;
+		for (MappedJar.CentralHeader header : headers)
+		{
+			ByteBuffer record = header.record;
+			byte[] name = new byte[record.getShort(28) & 0xffff];
+			record.duplicate().position(MappedJar.CENHDR).get(name);
+			ByteBuffer extra = jar.localExtra(header.localOffset);
+			ByteBuffer data = jar.data(header.localOffset, header.compressedSize);
+
+			// sizes and crc come from the central directory, so a data descriptor is never needed
+			int flags = header.flags & ~0x8;
+
+			ByteBuffer local = ByteBuffer.allocate(MappedJar.LOCHDR).order(ByteOrder.LITTLE_ENDIAN);
+			local.putInt(MappedJar.LOCSIG);
+			local.putShort(record.getShort(6)); // version needed
+			local.putShort((short) flags);
+			local.putShort(record.getShort(10)); // method
+			local.putShort(record.getShort(12)); // time
+			local.putShort(record.getShort(14)); // date
+			local.putInt(record.getInt(16)); // crc
+			local.putInt(header.compressedSize);
+			local.putInt(header.size);
+			local.putShort((short) name.length);
+			local.putShort((short) extra.remaining());
+			local.flip();
+
+			long headerOffset = offset;
+			offset += writeFully(out, local) + writeFully(out, ByteBuffer.wrap(name)) + writeFully(out, extra) + writeFully(out, data);
+			if (offset > 0xffffffffL)
+			{
+				throw new IOException("reordered jar would need zip64");
+			}
+
+			ByteBuffer copy = ByteBuffer.allocate(record.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+			copy.put(record.duplicate());
+			copy.putShort(8, (short) flags);
+			copy.putInt(42, (int) headerOffset);
+			copy.flip();
+			central.add(copy);
+		}
+
+		long centralOffset = offset;
+		long centralSize = 0;
+		for (ByteBuffer record : central)
+		{
+			centralSize += writeFully(out, record);
+		}
+
+		ByteBuffer end = ByteBuffer.allocate(MappedJar.ENDHDR).order(ByteOrder.LITTLE_ENDIAN);
+		end.putInt(MappedJar.ENDSIG);
+		end.putShort((short) 0); // this disk
+		end.putShort((short) 0); // central directory disk
+		end.putShort((short) central.size());
+		end.putShort((short) central.size());
+		end.putInt((int) centralSize);
+		end.putInt((int) centralOffset);
+		end.putShort((short) 0); // comment length
+		end.flip();
+		writeFully(out, end);
+	}
+
+	private static int writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException
+	{
+		int n = buffer.remaining();
+		while (buffer.hasRemaining())
+		{
+			out.write(buffer);
+		}
+		return n;
+	}
+}
@@ -0,0 +1,131 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A class loader over a classpath of which some jars are still being prepared. The ready jars are indexed; lookups
+ * that miss in them block until the pending jars which may have the entry arrive, so the client can start before all
+ * of its artifacts are in place. Lookups only wait for a pending jar whose entries are known if it has the entry.
+ */
+@Slf4j
+public class LazyClassLoader extends IndexedClassLoader
+{
+	static
+	{
+		ClassLoader.registerAsParallelCapable();
+	}
+
+	/**
+	 * The entry names of each pending jar, or null where they aren't known, in which case it may have any entry
+	 */
+	private final Map<File, Set<String>> pending;
+
+	public LazyClassLoader(List<File> classpath, Map<File, Set<String>> pending, ClassLoader parent)
+	{
+		super(classpath.stream()
+			.filter(file -> !pending.containsKey(file))
+			.collect(Collectors.toList()), parent);
+		this.pending = new HashMap<>(pending);
+	}
+
+	/**
+	 * Make a pending jar available to lookups.
+	 */
+	public void ready(File file) throws MalformedURLException
+	{
+		addURL(file.toURI().toURL());
+		log.debug("Deferred jar ready: {}", file);
+		release(file);
+	}
+
+	/**
+	 * Stop waiting for a pending jar which could not be prepared.
+	 */
+	public void failed(File file)
+	{
+		log.warn("Deferred jar failed: {}", file);
+		release(file);
+	}
+
+	private void release(File file)
+	{
+		synchronized (pending)
+		{
+			pending.remove(file);
+			pending.notifyAll();
+		}
+	}
+
+	/**
+	 * Wait until none of the pending jars may have the entry.
+	 *
+	 * @return false if there was nothing to wait for
+	 */
+	private boolean awaitEntry(String entry)
+	{
+		boolean waited = false;
+		synchronized (pending)
+		{
+			while (pending.values().stream().anyMatch(entries -> entries == null || entries.contains(entry)))
+			{
+				waited = true;
+				try
+				{
+					pending.wait();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+		return waited;
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException
+	{
+		try
+		{
+			return super.findClass(name);
+		}
+		catch (ClassNotFoundException ex)
+		{
+			if (!awaitEntry(name.replace('.', '/') + ".class"))
+			{
+				throw ex;
+			}
+			return super.findClass(name);
+		}
+	}
+
+	@Override
+	public URL findResource(String name)
+	{
+		URL url = super.findResource(name);
+		if (url == null && awaitEntry(name))
+		{
+			url = super.findResource(name);
+		}
+		return url;
+	}
+
+	@Override
+	public Enumeration<URL> findResources(String name) throws IOException
+	{
+		// any of the jars with the entry may contribute, so wait for all of them
+		awaitEntry(name);
+		return super.findResources(name);
+	}
+}
@@ -0,0 +1,105 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+
+/**
+ * Other launchers' repositories on this machine, which mostly hold the same upstream jars as ours. A missing artifact
+ * found in one of them is copied into the {@link ContentStore}, which checks its hash on the way in, and installed
+ * from there rather than unpacked or downloaded.
+ * <p>
+ * Their files are never linked: the other launcher may write them in place, which would write through every link.
+ */
+@Slf4j
+public class LocalRepositories
+{
+	/**
+	 * The repository of an official RuneLite install, which is always checked
+	 */
+	static final File RUNELITE_REPOSITORY = new File(new File(System.getProperty("user.home"), ".runelite"), "repository2");
+
+	private static List<File> repositories = List.of(RUNELITE_REPOSITORY);
+
+	public static void configure(List<String> extra)
+	{
+		List<File> dirs = new ArrayList<>();
+		dirs.add(RUNELITE_REPOSITORY);
+		extra.forEach(dir -> dirs.add(new File(dir)));
+		dirs.removeIf(dir -> dir.getAbsoluteFile().equals(REPO_DIR.getAbsoluteFile()));
+		repositories = dirs;
+	}
+
+	/**
+	 * Find a file which may be the artifact, without hashing it.
+	 */
+	@Nullable
+	public static File find(Artifact artifact)
+	{
+		for (File repository : repositories)
+		{
+			File file = candidate(repository, artifact);
+			if (file != null)
+			{
+				return file;
+			}
+		}
+		return null;
+	}
+
+	@Nullable
+	private static File candidate(File repository, Artifact artifact)
+	{
+		File file = new File(repository, artifact.getName());
+		// the size is a cheap check before hashing
+		return file.isFile() && (artifact.getSize() <= 0 || file.length() == artifact.getSize()) ? file : null;
+	}
+
+	/**
+	 * Install the artifact at dest from another repository which has it.
+	 *
+	 * @return whether it was found
+	 */
+	public static boolean install(Artifact artifact, File dest)
+	{
+		for (File repository : repositories)
+		{
+			File file = candidate(repository, artifact);
+			if (file == null)
+			{
+				continue;
+			}
+
+			try (InputStream in = Files.newInputStream(file.toPath()))
+			{
+				ContentStore.put(in, artifact.getHash());
+			}
+			catch (IOException e)
+			{
+				// most likely a different version under the same name
+				log.debug("Unable to reuse {} from {}", artifact.getName(), repository, e);
+				continue;
+			}
+
+			try
+			{
+				ContentStore.install(artifact.getHash(), dest);
+				log.info("Copied {} from {}", artifact.getName(), repository);
+				return true;
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to install {} from the content store", artifact.getName(), e);
+				return false;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,233 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A jar mapped into memory. Only the parts of the zip format used by jars are understood: no zip64 and no
+ * encryption. Entries are located by their local header offset, which is read from the central directory once and
+ * then cached by {@link IndexedClassLoader}.
+ */
+class MappedJar
+{
+	static final int LOCHDR = 30;
+	static final int CENHDR = 46;
+	static final int ENDHDR = 22;
+	static final int LOCSIG = 0x04034b50;
+	static final int CENSIG = 0x02014b50;
+	static final int ENDSIG = 0x06054b50;
+
+	static final int STORED = 0;
+	static final int DEFLATED = 8;
+
+	final File file;
+	final URL url;
+	private final MappedByteBuffer buffer;
+
+	MappedJar(File file) throws IOException
+	{
+		this.file = file;
+		this.url = file.toURI().toURL();
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			if (channel.size() > Integer.MAX_VALUE)
+			{
+				throw new ZipException("jar too large to map: " + file);
+			}
+
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+
+	/**
+	 * A central directory record, with a view of its raw bytes
+	 */
+	static final class CentralHeader
+	{
+		final String name;
+		final ByteBuffer record;
+		final int flags;
+		final int method;
+		final int compressedSize;
+		final int size;
+		final int localOffset;
+
+		private CentralHeader(String name, ByteBuffer record)
+		{
+			this.name = name;
+			this.record = record;
+			this.flags = record.getShort(8) & 0xffff;
+			this.method = record.getShort(10) & 0xffff;
+			this.compressedSize = record.getInt(20);
+			this.size = record.getInt(24);
+			this.localOffset = record.getInt(42);
+		}
+	}
+
+	/**
+	 * Read the central directory, in order.
+	 */
+	List<CentralHeader> centralDirectory() throws ZipException
+	{
+		int end = findEnd();
+		int count = buffer.getShort(end + 10) & 0xffff;
+		long offset = buffer.getInt(end + 16) & 0xffffffffL;
+		if (count == 0xffff || offset == 0xffffffffL)
+		{
+			throw new ZipException("zip64 is not supported: " + file);
+		}
+
+		List<CentralHeader> headers = new ArrayList<>(count);
+		int pos = (int) offset;
+		for (int i = 0; i < count; ++i)
+		{
+			if (pos + CENHDR > buffer.limit() || buffer.getInt(pos) != CENSIG)
+			{
+				throw new ZipException("invalid central directory header: " + file);
+			}
+
+			int nameLength = buffer.getShort(pos + 28) & 0xffff;
+			int extraLength = buffer.getShort(pos + 30) & 0xffff;
+			int commentLength = buffer.getShort(pos + 32) & 0xffff;
+			int length = CENHDR + nameLength + extraLength + commentLength;
+
+			byte[] name = new byte[nameLength];
+			buffer.duplicate().position(pos + CENHDR).get(name);
+			ByteBuffer record = buffer.duplicate()
+				.position(pos)
+				.limit(pos + length)
+				.slice()
+				.order(ByteOrder.LITTLE_ENDIAN);
+
+			headers.add(new CentralHeader(new String(name, StandardCharsets.UTF_8), record));
+			pos += length;
+		}
+		return headers;
+	}
+
+	/**
+	 * Walk the central directory, passing each entry name and its location to the consumer.
+	 */
+	void forEachEntry(BiConsumer<String, IndexedClassLoader.Entry> consumer, int jar) throws ZipException
+	{
+		for (CentralHeader header : centralDirectory())
+		{
+			consumer.accept(header.name,
+				new IndexedClassLoader.Entry(jar, header.localOffset, header.compressedSize, header.size, header.method));
+		}
+	}
+
+	private int findEnd() throws ZipException
+	{
+		int min = Math.max(0, buffer.limit() - ENDHDR - 0xffff);
+		for (int pos = buffer.limit() - ENDHDR; pos >= min; --pos)
+		{
+			if (buffer.getInt(pos) == ENDSIG)
+			{
+				return pos;
+			}
+		}
+		throw new ZipException("end of central directory not found: " + file);
+	}
+
+	private int checkLocalHeader(int pos) throws ZipException
+	{
+		if (pos < 0 || pos + LOCHDR > buffer.limit() || buffer.getInt(pos) != LOCSIG)
+		{
+			throw new ZipException("invalid local header: " + file);
+		}
+		return pos;
+	}
+
+	/**
+	 * The extra field of the local header at the offset
+	 */
+	ByteBuffer localExtra(int offset) throws ZipException
+	{
+		int pos = checkLocalHeader(offset);
+		int start = pos + LOCHDR + (buffer.getShort(pos + 26) & 0xffff);
+		return buffer.duplicate()
+			.position(start)
+			.limit(start + (buffer.getShort(pos + 28) & 0xffff))
+			.slice();
+	}
+
+	/**
+	 * The raw, possibly compressed, data of the entry with its local header at the offset. The returned buffer is a
+	 * view of the mapping.
+	 */
+	ByteBuffer data(int offset, int compressedSize) throws ZipException
+	{
+		int pos = checkLocalHeader(offset);
+		int start = pos + LOCHDR + (buffer.getShort(pos + 26) & 0xffff) + (buffer.getShort(pos + 28) & 0xffff);
+		if (start + compressedSize > buffer.limit())
+		{
+			throw new ZipException("truncated entry: " + file);
+		}
+
+		return buffer.duplicate()
+			.position(start)
+			.limit(start + compressedSize)
+			.slice();
+	}
+
+	/**
+	 * The uncompressed contents of an entry. Stored entries are returned as a view of the mapping.
+	 */
+	ByteBuffer read(IndexedClassLoader.Entry entry) throws ZipException
+	{
+		ByteBuffer data = data(entry.offset, entry.compressedSize);
+		switch (entry.method)
+		{
+			case STORED:
+				return data;
+			case DEFLATED:
+				byte[] out = new byte[entry.size];
+				Inflater inflater = new Inflater(true);
+				try
+				{
+					inflater.setInput(data);
+					int n = 0;
+					while (n < out.length && !inflater.finished())
+					{
+						int r = inflater.inflate(out, n, out.length - n);
+						if (r == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+						{
+							break;
+						}
+						n += r;
+					}
+					if (n != out.length)
+					{
+						throw new ZipException("short entry: " + file);
+					}
+				}
+				catch (DataFormatException e)
+				{
+					throw new ZipException("invalid deflate data: " + file + ": " + e.getMessage());
+				}
+				finally
+				{
+					inflater.end();
+				}
+				return ByteBuffer.wrap(out);
+			default:
+				throw new ZipException("unsupported compression method " + entry.method + ": " + file);
+		}
+	}
+}
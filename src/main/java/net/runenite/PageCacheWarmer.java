@@ -0,0 +1,70 @@
+package net.runenite;
+
+import com.sun.management.OperatingSystemMXBean;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the classpath jars into the page cache ahead of spawning the client, so its class loading doesn't wait on
+ * scattered cold reads. Jars are read whole and sequentially, in classpath order, until the memory budget is spent.
+ */
+@Slf4j
+public class PageCacheWarmer
+{
+	/**
+	 * @param budget the most bytes to read. This is further capped at half of the free physical memory, so warming
+	 *               doesn't evict more than it brings in.
+	 */
+	public static void warm(List<File> classpath, long budget)
+	{
+		long free = freePhysicalMemory();
+		if (free > 0)
+		{
+			budget = Math.min(budget, free / 2);
+		}
+
+		long start = System.nanoTime();
+		long warmed = 0;
+		int files = 0;
+		for (File file : classpath)
+		{
+			long length = file.length();
+			if (length == 0 || warmed + length > budget)
+			{
+				continue;
+			}
+
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+			{
+				channel.map(FileChannel.MapMode.READ_ONLY, 0, length).load();
+				warmed += length;
+				++files;
+			}
+			catch (IOException e)
+			{
+				log.debug("Unable to warm {}", file, e);
+			}
+		}
+
+		log.debug("Warmed {} of {} jars ({} KiB) in {}ms", files, classpath.size(), warmed / 1024,
+			(System.nanoTime() - start) / 1_000_000L);
+	}
+
+	private static long freePhysicalMemory()
+	{
+		var bean = ManagementFactory.getOperatingSystemMXBean();
+		if (bean instanceof OperatingSystemMXBean)
+		{
+			// getFreeMemorySize() replaces this, but only from Java 14
+			@SuppressWarnings("deprecation")
+			long free = ((OperatingSystemMXBean) bean).getFreePhysicalMemorySize();
+			return free;
+		}
+		return -1;
+	}
+}
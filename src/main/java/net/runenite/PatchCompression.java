@@ -0,0 +1,29 @@
+package net.runenite;
+
+import lombok.AllArgsConstructor;
+import net.lingala.zip4j.model.ZipParameters;
+import net.lingala.zip4j.model.enums.CompressionLevel;
+import net.lingala.zip4j.model.enums.CompressionMethod;
+
+/**
+ * How {@link ArtifactPatcher} compresses the jars it writes. Stored jars are larger on disk, but are quicker to write
+ * and the client does not inflate each class it loads from them.
+ */
+@AllArgsConstructor
+public enum PatchCompression
+{
+	STORE(CompressionMethod.STORE, CompressionLevel.NORMAL),
+	FAST(CompressionMethod.DEFLATE, CompressionLevel.FASTEST),
+	DEFAULT(CompressionMethod.DEFLATE, CompressionLevel.NORMAL);
+
+	private final CompressionMethod method;
+	private final CompressionLevel level;
+
+	ZipParameters getZipParameters()
+	{
+		ZipParameters parameters = new ZipParameters();
+		parameters.setCompressionMethod(method);
+		parameters.setCompressionLevel(level);
+		return parameters;
+	}
+}
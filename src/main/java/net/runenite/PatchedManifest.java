@@ -0,0 +1,123 @@
+package net.runenite;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.beans.Artifact;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+
+/**
+ * Hashes of artifacts as we rewrote them, patched or reordered, keyed by artifact name. The bootstrap only knows the
+ * upstream hash, so this is what lets a rewritten artifact be recognized as up to date rather than re-downloaded or
+ * skipped unchecked.
+ */
+@Slf4j
+public class PatchedManifest
+{
+	static final File MANIFEST_FILE = new File(RUNENITE_DIR, "patched.json");
+
+	static class Entry
+	{
+		/**
+		 * Upstream hash, from the bootstrap
+		 */
+		String hash;
+		/**
+		 * Hash of the file in the repository
+		 */
+		String patchedHash;
+		boolean reordered;
+		/**
+		 * How the patched entries were compressed, null if the file was only reordered. Entries recorded before this
+		 * was kept have none either.
+		 */
+		@Nullable
+		PatchCompression compression;
+	}
+
+	private static final StateFile<Map<String, Entry>> STATE = new StateFile<>(MANIFEST_FILE, new TypeToken<Map<String, Entry>>()
+	{
+	}, PatchedManifest::valid, "patched artifact manifest");
+
+	private static Map<String, Entry> entries;
+
+	private static Map<String, Entry> entries()
+	{
+		if (entries == null)
+		{
+			entries = STATE.read();
+		}
+		return entries;
+	}
+
+	private static Map<String, Entry> valid(@Nullable Map<String, Entry> map)
+	{
+		Map<String, Entry> entries = new HashMap<>();
+		if (map != null)
+		{
+			map.forEach((name, entry) ->
+			{
+				if (name != null && entry != null && entry.hash != null && entry.patchedHash != null)
+				{
+					entries.put(name, entry);
+				}
+			});
+		}
+		return entries;
+	}
+
+	private static Entry find(Artifact artifact, String hash)
+	{
+		Entry entry = entries().get(artifact.getName());
+		if (entry != null && entry.hash.equals(artifact.getHash()) && entry.patchedHash.equals(hash))
+		{
+			return entry;
+		}
+		return null;
+	}
+
+	/**
+	 * Whether the file with this hash is a rewrite of the artifact made by us
+	 */
+	public static synchronized boolean isPatched(Artifact artifact, String hash)
+	{
+		return find(artifact, hash) != null;
+	}
+
+	public static synchronized boolean isReordered(Artifact artifact, String hash)
+	{
+		Entry entry = find(artifact, hash);
+		return entry != null && entry.reordered;
+	}
+
+	@Nullable
+	public static synchronized PatchCompression getCompression(Artifact artifact, String hash)
+	{
+		Entry entry = find(artifact, hash);
+		return entry != null ? entry.compression : null;
+	}
+
+	/**
+	 * Record the file with this hash as a rewrite of the artifact.
+	 *
+	 * @param compression how its patched entries were compressed, or null if it wasn't patched
+	 */
+	public static void record(Artifact artifact, String patchedHash, boolean reordered, @Nullable PatchCompression compression) throws IOException
+	{
+		Entry entry = new Entry();
+		entry.hash = artifact.getHash();
+		entry.patchedHash = patchedHash;
+		entry.reordered = reordered;
+		entry.compression = compression;
+
+		Map<String, Entry> saved = STATE.update(map -> map.put(artifact.getName(), entry));
+		synchronized (PatchedManifest.class)
+		{
+			entries = saved;
+		}
+	}
+}
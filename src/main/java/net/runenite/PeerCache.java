@@ -0,0 +1,129 @@
+package net.runenite;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetches artifacts from {@link RepositoryServer}s on the local network before falling back to the artifact's own
+ * path. Whatever a peer sends is checked against the expected hash, so a bad peer costs time but nothing else.
+ */
+@Slf4j
+public class PeerCache
+{
+	private static final HttpClient client = HttpClient.newBuilder()
+		.connectTimeout(Duration.ofSeconds(2))
+		.followRedirects(HttpClient.Redirect.NEVER)
+		.build();
+
+	private static List<URI> peers = List.of();
+	/**
+	 * Peers which couldn't be reached, which aren't tried again for the rest of this launch
+	 */
+	private static final Set<URI> unreachable = new HashSet<>();
+
+	public static void setPeers(List<String> urls)
+	{
+		peers = urls.stream()
+			.map(url -> URI.create(url.endsWith("/") ? url : url + "/"))
+			.collect(Collectors.toList());
+	}
+
+	public static boolean hasPeers()
+	{
+		return !peers.isEmpty();
+	}
+
+	/**
+	 * Fetch the file with this hash from the first peer which has it.
+	 *
+	 * @return whether dest now holds the file
+	 */
+	public static boolean fetch(String hash, File dest)
+	{
+		return fetch(peers, hash, dest);
+	}
+
+	static boolean fetch(List<URI> peers, String hash, File dest)
+	{
+		for (URI peer : peers)
+		{
+			synchronized (unreachable)
+			{
+				if (unreachable.contains(peer))
+				{
+					continue;
+				}
+			}
+
+			URI uri = peer.resolve(RepositoryServer.PREFIX.substring(1) + hash);
+			File tmp = new File(dest.getParentFile(), dest.getName() + "-" + ProcessHandle.current().pid() + ".peer");
+			try
+			{
+				HttpRequest request = HttpRequest.newBuilder(uri)
+					.timeout(Duration.ofSeconds(5))
+					.GET()
+					.build();
+				HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+				String actual;
+				try (InputStream in = response.body())
+				{
+					if (response.statusCode() != 200)
+					{
+						log.debug("Peer {} doesn't have {} (status code {})", peer, hash, response.statusCode());
+						continue;
+					}
+
+					try (HashingOutputStream out = new HashingOutputStream(Hashing.sha256(), Files.newOutputStream(tmp.toPath())))
+					{
+						in.transferTo(out);
+						actual = out.hash().toString();
+					}
+				}
+
+				if (!hash.equals(actual))
+				{
+					log.warn("Peer {} sent {} for {}", peer, actual, hash);
+					continue;
+				}
+
+				Files.move(tmp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				log.info("Fetched {} from peer {}", dest.getName(), peer);
+				return true;
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to reach peer {}", peer, e);
+				synchronized (unreachable)
+				{
+					unreachable.add(peer);
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			finally
+			{
+				// noinspection ResultOfMethodCallIgnored
+				tmp.delete();
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,122 @@
+package net.runenite;
+
+import ch.qos.logback.classic.Logger;
+import com.google.gson.Gson;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Headless repository preparation, for provisioning machines from scripts. Instead of the splash screen and error
+ * dialogs, progress and errors are printed to stdout as one JSON object per line, and the outcome is reported with
+ * the exit status. Logging still goes to the log file, but not to stdout.
+ * <p>
+ * Lines look like:
+ * <pre>
+ * {"type":"progress","progress":0.42,"stage":"Downloading","detail":"client-1.10.46.1.jar","count":"12 / 40"}
+ * {"type":"error","status":3,"message":"Unable to download artifacts: ..."}
+ * {"type":"done","status":0}
+ * </pre>
+ */
+@Slf4j
+public class PrepareOnly
+{
+	public static final int OK = 0;
+	public static final int ERROR = 1;
+	public static final int BOOTSTRAP_FAILED = 2;
+	public static final int DOWNLOAD_FAILED = 3;
+	public static final int VERIFY_FAILED = 4;
+	public static final int FILESYSTEM_FAILED = 5;
+
+	private static final Gson GSON = new Gson();
+
+	private static boolean enabled;
+	private static boolean prepared;
+	private static boolean failed;
+	private static int status = ERROR;
+	private static String stage = "";
+
+	static void enable()
+	{
+		enabled = true;
+		System.setProperty("java.awt.headless", "true");
+
+		// stdout is for progress
+		Logger root = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+		root.detachAppender("STDOUT");
+	}
+
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	public static synchronized void progress(double progress, @Nullable String stageText, String detail, @Nullable String count)
+	{
+		if (stageText != null)
+		{
+			stage = stageText;
+		}
+
+		Map<String, Object> line = new LinkedHashMap<>();
+		line.put("type", "progress");
+		line.put("progress", Math.round(progress * 100) / 100.0);
+		line.put("stage", stage);
+		line.put("detail", detail);
+		if (count != null)
+		{
+			line.put("count", count);
+		}
+		print(line);
+	}
+
+	/**
+	 * Report a failure. The first failure decides the exit status.
+	 */
+	public static synchronized void fail(int status, String message, @Nullable Throwable cause)
+	{
+		if (failed || prepared)
+		{
+			return;
+		}
+
+		failed = true;
+		PrepareOnly.status = status;
+		Map<String, Object> line = new LinkedHashMap<>();
+		line.put("type", "error");
+		line.put("status", status);
+		line.put("message", cause != null ? message + ": " + cause : message);
+		print(line);
+	}
+
+	public static synchronized void prepared()
+	{
+		prepared = true;
+		status = OK;
+	}
+
+	/**
+	 * Exit with the outcome. Anything which ended preparation without reporting is an error.
+	 */
+	public static synchronized void exit()
+	{
+		if (!prepared && !failed)
+		{
+			fail(ERROR, "Preparation ended unexpectedly, see the launcher log", null);
+		}
+
+		Map<String, Object> line = new LinkedHashMap<>();
+		line.put("type", "done");
+		line.put("status", status);
+		print(line);
+		System.exit(status);
+	}
+
+	private static void print(Map<String, Object> line)
+	{
+		System.out.println(GSON.toJson(line));
+		System.out.flush();
+	}
+}
@@ -0,0 +1,252 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.OS;
+
+/**
+ * CPU and I/O scheduling of the client process, and of the launcher's own background threads. Only Linux is
+ * supported; it is applied with nice, ionice and taskset from util-linux, which exec the client so its pid is
+ * unchanged.
+ */
+@Slf4j
+public class ProcessScheduling
+{
+	@AllArgsConstructor
+	public enum IoClass
+	{
+		DEFAULT(0),
+		REALTIME(1),
+		BEST_EFFORT(2),
+		IDLE(3);
+
+		private final int value;
+	}
+
+	/**
+	 * Niceness of launcher background threads
+	 */
+	private static final int BACKGROUND_NICE = 10;
+
+	/**
+	 * taskset's list format, eg. 0-3,8 or 0-7:2
+	 */
+	private static final Pattern CPU_LIST = Pattern.compile("\\d{1,5}(-\\d{1,5}(:\\d{1,5})?)?(,\\d{1,5}(-\\d{1,5}(:\\d{1,5})?)?)*");
+
+	private static Integer nice;
+	private static IoClass ioClass = IoClass.DEFAULT;
+	private static Integer ioLevel;
+	private static String cpuAffinity;
+
+	/**
+	 * @param nice        niceness of the client, -20 to 19, or null for the default
+	 * @param ioClass     I/O scheduling class of the client
+	 * @param ioLevel     I/O priority within the class, 0 to 7, or null for the default
+	 * @param cpuAffinity cpus the client may run on in taskset list format, eg. "0-3,8", or null for any
+	 */
+	public static void configure(Integer nice, IoClass ioClass, Integer ioLevel, String cpuAffinity)
+	{
+		// the wrappers exit without starting the client on a bad argument, so those are dropped here instead
+		if (nice != null && (nice < -20 || nice > 19))
+		{
+			log.warn("Ignoring client nice {}, it must be from -20 to 19", nice);
+			nice = null;
+		}
+
+		if (ioLevel != null && (ioLevel < 0 || ioLevel > 7))
+		{
+			log.warn("Ignoring client I/O level {}, it must be from 0 to 7", ioLevel);
+			ioLevel = null;
+		}
+
+		if (cpuAffinity != null && !isValidCpuList(cpuAffinity, Runtime.getRuntime().availableProcessors()))
+		{
+			log.warn("Ignoring client CPU affinity {}, it must be a list of this machine's cpus, eg. 0-3,8", cpuAffinity);
+			cpuAffinity = null;
+		}
+
+		ProcessScheduling.nice = nice;
+		ProcessScheduling.ioClass = ioClass;
+		ProcessScheduling.ioLevel = ioLevel;
+		ProcessScheduling.cpuAffinity = cpuAffinity;
+	}
+
+	/**
+	 * Whether any client scheduling setting is set
+	 */
+	public static boolean isConfigured()
+	{
+		return nice != null || ioClass != IoClass.DEFAULT || cpuAffinity != null;
+	}
+
+	/**
+	 * Whether the list is in taskset list format, and has at least one of the machine's cpus
+	 */
+	static boolean isValidCpuList(String list, int cpus)
+	{
+		if (!CPU_LIST.matcher(list).matches())
+		{
+			return false;
+		}
+
+		boolean any = false;
+		for (String range : list.split(","))
+		{
+			String[] stride = range.split(":");
+			String[] bounds = stride[0].split("-");
+			int low = Integer.parseInt(bounds[0]);
+			int high = bounds.length > 1 ? Integer.parseInt(bounds[1]) : low;
+			if (high < low || (stride.length > 1 && Integer.parseInt(stride[1]) == 0))
+			{
+				return false;
+			}
+			any |= low < cpus;
+		}
+		return any;
+	}
+
+	/**
+	 * The command to prepend to the client's command line
+	 */
+	public static List<String> getCommandPrefix()
+	{
+		if (!isConfigured())
+		{
+			return new ArrayList<>();
+		}
+
+		if (OS.getOs() != OS.OSType.Linux)
+		{
+			log.warn("Client scheduling settings are only supported on Linux");
+			return new ArrayList<>();
+		}
+
+		List<String> prefix = getCommandPrefix(ProcessScheduling::hasCommand);
+		log.info("Client scheduling: {}", prefix);
+		return prefix;
+	}
+
+	/**
+	 * The command prefix for the settings, using only the commands which are there
+	 */
+	static List<String> getCommandPrefix(Predicate<String> hasCommand)
+	{
+		List<String> prefix = new ArrayList<>();
+		if (nice != null && hasCommand.test("nice"))
+		{
+			prefix.add("nice");
+			prefix.add("-n");
+			prefix.add(Integer.toString(nice));
+		}
+
+		if (ioClass != IoClass.DEFAULT && hasCommand.test("ionice"))
+		{
+			prefix.add("ionice");
+			// start the client even if the class can't be set, as for realtime without root
+			prefix.add("-t");
+			prefix.add("-c");
+			prefix.add(Integer.toString(ioClass.value));
+			if (ioLevel != null && (ioClass == IoClass.REALTIME || ioClass == IoClass.BEST_EFFORT))
+			{
+				prefix.add("-n");
+				prefix.add(Integer.toString(ioLevel));
+			}
+		}
+
+		if (cpuAffinity != null && hasCommand.test("taskset"))
+		{
+			prefix.add("taskset");
+			prefix.add("-c");
+			prefix.add(cpuAffinity);
+		}
+		return prefix;
+	}
+
+	/**
+	 * Lower the CPU and I/O priority of the calling thread, for launcher work which the client shouldn't wait on.
+	 */
+	public static void lowerCurrentThreadPriority()
+	{
+		Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
+
+		if (OS.getOs() != OS.OSType.Linux)
+		{
+			return;
+		}
+
+		// java thread priorities are ignored on linux, but both scheduling attributes are per thread there
+		String tid;
+		try
+		{
+			// eg. 1234/task/1240
+			tid = Files.readSymbolicLink(Path.of("/proc/thread-self")).getFileName().toString();
+		}
+		catch (IOException | UnsupportedOperationException e)
+		{
+			log.debug("Unable to find the current thread id", e);
+			return;
+		}
+
+		run("renice", "-n", Integer.toString(BACKGROUND_NICE), "-p", tid);
+		run("ionice", "-c", Integer.toString(IoClass.IDLE.value), "-p", tid);
+	}
+
+	private static void run(String... command)
+	{
+		if (!hasCommand(command[0]))
+		{
+			return;
+		}
+
+		try
+		{
+			Process process = new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+				.start();
+			if (!process.waitFor(5, TimeUnit.SECONDS))
+			{
+				process.destroy();
+			}
+			else if (process.exitValue() != 0)
+			{
+				log.debug("{} exited with {}", command, process.exitValue());
+			}
+		}
+		catch (IOException e)
+		{
+			log.debug("Unable to run {}", command, e);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static boolean hasCommand(String command)
+	{
+		String path = System.getenv("PATH");
+		if (path != null)
+		{
+			for (String dir : path.split(File.pathSeparator))
+			{
+				if (Files.isExecutable(Path.of(dir, command)))
+				{
+					return true;
+				}
+			}
+		}
+
+		log.warn("{} not found, not applying its scheduling setting", command);
+		return false;
+	}
+}
@@ -0,0 +1,365 @@
+package net.runenite;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import joptsimple.OptionSet;
+import lombok.extern.slf4j.Slf4j;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.VerificationException;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Bootstrap;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+import static net.runenite.RuneNiteLauncher.ensureDirectoryExists;
+
+/**
+ * A prepared repository packed into one file, for seeding machines which can't, or shouldn't, each download it.
+ * <p>
+ * A bundle is an uncompressed zip holding the bootstrap, the upstream artifacts from the repository, and a manifest
+ * with the hash of every file. Only a bundle of a bootstrap this launcher already trusts is imported, so the hashes
+ * are the bootstrap's own; patched artifacts are never bundled, the importing launcher patches them itself. Importing
+ * checks every file before any of them is installed, and installs them through the {@link ContentStore}.
+ */
+@Slf4j
+public class RepositoryBundle
+{
+	private static final String MANIFEST = "manifest.json";
+	private static final String BOOTSTRAP = "bootstrap.json";
+	private static final String REPOSITORY = "repository/";
+
+	static class Manifest
+	{
+		/**
+		 * Version 1 bundles carried patched artifacts, which can't be verified against the bootstrap
+		 */
+		int version = 2;
+		List<Entry> files = new ArrayList<>();
+	}
+
+	static class Entry
+	{
+		String name;
+		/**
+		 * Upstream hash, from the bootstrap
+		 */
+		String hash;
+		long size;
+	}
+
+	/**
+	 * Run the bundle command given in the options.
+	 *
+	 * @return the exit status, as for {@link PrepareOnly}
+	 */
+	public static int run(OptionSet options)
+	{
+		File bundle = null;
+		try
+		{
+			if (options.has("export-bundle"))
+			{
+				bundle = (File) options.valueOf("export-bundle");
+				export(bundle);
+			}
+			else
+			{
+				bundle = (File) options.valueOf("import-bundle");
+				importBundle(bundle);
+			}
+			return PrepareOnly.OK;
+		}
+		catch (VerificationFailedException e)
+		{
+			log.error("Bundle {} failed verification", bundle, e);
+			return PrepareOnly.VERIFY_FAILED;
+		}
+		catch (IOException e)
+		{
+			log.error("Unable to process bundle {}", bundle, e);
+			return PrepareOnly.FILESYSTEM_FAILED;
+		}
+	}
+
+	/**
+	 * Pack the upstream artifacts of the repository, with the bootstrap they came from, into the bundle.
+	 */
+	@SuppressWarnings("try")
+	public static void export(File bundle) throws IOException
+	{
+		Bootstrap bootstrap;
+		try
+		{
+			bootstrap = RuneNiteLauncher.getBootstrap();
+		}
+		catch (GeneralSecurityException | VerificationException e)
+		{
+			throw new IOException("Unable to read the bootstrap", e);
+		}
+		// bundle the bootstrap as it is, rather than as we parsed it
+		byte[] bootstrapBytes = Files.readAllBytes(RuneNiteLauncher.BOOTSTRAP_FILE.toPath());
+
+		try (var lock = RepositoryLock.acquire())
+		{
+			Manifest manifest = new Manifest();
+			Map<String, Long> crcs = new HashMap<>();
+			Map<String, File> files = new HashMap<>();
+			for (Artifact artifact : bootstrap.getArtifacts())
+			{
+				File file = new File(REPO_DIR, artifact.getName());
+				if (!file.isFile() || !artifact.getHash().equals(HashIndex.hash(file)))
+				{
+					// patched in the repository, so bundle the upstream file kept in the store
+					file = ContentStore.get(artifact.getHash());
+					if (file == null)
+					{
+						log.debug("Not bundling {}, its upstream file isn't available", artifact.getName());
+						continue;
+					}
+				}
+
+				// one read for both the hash and the crc the stored entry needs
+				Hasher hasher = Hashing.sha256().newHasher();
+				CRC32 crc = new CRC32();
+				try (InputStream in = Files.newInputStream(file.toPath()))
+				{
+					byte[] buf = new byte[1 << 16];
+					for (int n; (n = in.read(buf)) != -1; )
+					{
+						hasher.putBytes(buf, 0, n);
+						crc.update(buf, 0, n);
+					}
+				}
+				String fileHash = hasher.hash().toString();
+
+				if (!fileHash.equals(artifact.getHash()))
+				{
+					log.warn("Not bundling {}, its hash {} doesn't match the bootstrap", artifact.getName(), fileHash);
+					continue;
+				}
+
+				Entry entry = new Entry();
+				entry.name = artifact.getName();
+				entry.hash = artifact.getHash();
+				entry.size = file.length();
+				manifest.files.add(entry);
+				crcs.put(entry.name, crc.getValue());
+				files.put(entry.name, file);
+			}
+
+			File parent = bundle.getAbsoluteFile().getParentFile();
+			ensureDirectoryExists(parent);
+			File tmp = new File(parent, bundle.getName() + ".tmp");
+			try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath()), 1 << 16)))
+			{
+				writeStored(out, MANIFEST, new Gson().toJson(manifest).getBytes(StandardCharsets.UTF_8));
+				writeStored(out, BOOTSTRAP, bootstrapBytes);
+				for (Entry entry : manifest.files)
+				{
+					ZipEntry zipEntry = new ZipEntry(REPOSITORY + entry.name);
+					zipEntry.setMethod(ZipEntry.STORED);
+					zipEntry.setSize(entry.size);
+					zipEntry.setCompressedSize(entry.size);
+					zipEntry.setCrc(crcs.get(entry.name));
+					out.putNextEntry(zipEntry);
+					Files.copy(files.get(entry.name).toPath(), out);
+					out.closeEntry();
+				}
+			}
+			Files.move(tmp.toPath(), bundle.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+			log.info("Exported {} artifacts to {} ({} KiB)", manifest.files.size(), bundle, bundle.length() / 1024);
+		}
+	}
+
+	/**
+	 * Verify the bundle and install its artifacts and bootstrap. Nothing is installed unless the bundle's bootstrap is
+	 * one already trusted, the current or the bundled one, and every file verifies against it. The artifacts are
+	 * installed as they are upstream, and patched when the repository is next prepared.
+	 */
+	public static void importBundle(File bundle) throws IOException
+	{
+		long start = System.nanoTime();
+		try (ZipFile zip = new ZipFile(bundle))
+		{
+			Manifest manifest = parse(read(zip, MANIFEST), Manifest.class);
+			byte[] bootstrapBytes = read(zip, BOOTSTRAP);
+			Bootstrap bootstrap = parse(bootstrapBytes, Bootstrap.class);
+			if (manifest.version != 2 || manifest.files == null || bootstrap.getArtifacts() == null)
+			{
+				throw new VerificationFailedException("Unsupported bundle");
+			}
+
+			File bootstrapFile = RuneNiteLauncher.BOOTSTRAP_FILE;
+			boolean current = bootstrapFile.exists() && Arrays.equals(bootstrapBytes, Files.readAllBytes(bootstrapFile.toPath()));
+			if (!current && !Arrays.equals(bootstrapBytes, RuneNiteLauncher.getBundledBootstrapBytes()))
+			{
+				throw new VerificationFailedException("Bundle " + bundle + " is of an unknown bootstrap");
+			}
+
+			Map<String, Artifact> artifacts = Arrays.stream(bootstrap.getArtifacts())
+				.collect(Collectors.toMap(Artifact::getName, Function.identity(), (a, b) -> a));
+
+			// the store verifies each file as it takes it in, so verification reads each file once, in parallel
+			ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(manifest.files.size(), Runtime.getRuntime().availableProcessors())));
+			try
+			{
+				List<Future<?>> futures = new ArrayList<>();
+				for (Entry entry : manifest.files)
+				{
+					Artifact artifact = artifacts.get(entry.name);
+					if (artifact == null || !artifact.getHash().equals(entry.hash) || entry.name.contains("/") || entry.name.contains("\\"))
+					{
+						throw new VerificationFailedException("Bundle file " + entry.name + " isn't an artifact of its bootstrap");
+					}
+
+					ZipEntry zipEntry = zip.getEntry(REPOSITORY + entry.name);
+					if (zipEntry == null || zipEntry.getSize() != entry.size)
+					{
+						throw new VerificationFailedException("Bundle file " + entry.name + " is missing or truncated");
+					}
+
+					futures.add(executor.submit(() ->
+					{
+						try (InputStream in = zip.getInputStream(zipEntry))
+						{
+							ContentStore.put(in, entry.hash);
+						}
+						return null;
+					}));
+				}
+
+				for (Future<?> future : futures)
+				{
+					future.get();
+				}
+			}
+			catch (ExecutionException e)
+			{
+				throw new VerificationFailedException("Bundle " + bundle + " is corrupt", e.getCause());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+
+			try (var lock = RepositoryLock.acquire())
+			{
+				lock.clearPrepared();
+				ensureDirectoryExists(REPO_DIR);
+
+				int linked = 0;
+				for (Entry entry : manifest.files)
+				{
+					File dest = new File(REPO_DIR, entry.name);
+					if (ContentStore.install(entry.hash, dest))
+					{
+						++linked;
+					}
+					HashIndex.record(dest, entry.hash);
+				}
+				HashIndex.save();
+
+				if (!current)
+				{
+					File tmp = new File(RUNENITE_DIR, BOOTSTRAP + ".tmp");
+					Files.write(tmp.toPath(), bootstrapBytes);
+					Files.move(tmp.toPath(), bootstrapFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				}
+
+				log.info("Imported {} artifacts from {} ({} linked, {} copied) in {}ms", manifest.files.size(), bundle,
+					linked, manifest.files.size() - linked, (System.nanoTime() - start) / 1_000_000L);
+			}
+		}
+	}
+
+	private static void writeStored(ZipOutputStream out, String name, byte[] data) throws IOException
+	{
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		ZipEntry entry = new ZipEntry(name);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(data.length);
+		entry.setCompressedSize(data.length);
+		entry.setCrc(crc.getValue());
+		out.putNextEntry(entry);
+		out.write(data);
+		out.closeEntry();
+	}
+
+	private static byte[] read(ZipFile zip, String name) throws IOException
+	{
+		ZipEntry entry = zip.getEntry(name);
+		if (entry == null)
+		{
+			throw new VerificationFailedException("Bundle has no " + name);
+		}
+
+		try (InputStream in = zip.getInputStream(entry))
+		{
+			return in.readAllBytes();
+		}
+	}
+
+	private static <T> T parse(byte[] json, Class<T> type) throws IOException
+	{
+		try
+		{
+			T value = new Gson().fromJson(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8), type);
+			if (value == null)
+			{
+				throw new VerificationFailedException("Empty " + type.getSimpleName());
+			}
+			return value;
+		}
+		catch (JsonParseException e)
+		{
+			throw new VerificationFailedException("Malformed " + type.getSimpleName(), e);
+		}
+	}
+
+	private static class VerificationFailedException extends IOException
+	{
+		private static final long serialVersionUID = 1L;
+
+		VerificationFailedException(String message)
+		{
+			super(message);
+		}
+
+		VerificationFailedException(String message, Throwable cause)
+		{
+			super(message, cause);
+		}
+	}
+}
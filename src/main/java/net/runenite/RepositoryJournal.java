@@ -0,0 +1,183 @@
+package net.runenite;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.Launcher;
+import net.runelite.launcher.beans.Artifact;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+
+/**
+ * Crash safety for rewriting repository files. A rewrite is written to a temp file next to the artifact, synced, and
+ * moved over it atomically, so the artifact is always either the old file or the new one. Rewrites must also be
+ * recorded in the {@link PatchedManifest}, or the new file isn't recognized, so each one is journaled until it is
+ * recorded; an interrupted rewrite is completed or rolled back the next time the {@link RepositoryLock} is taken,
+ * rather than the artifact being taken for corrupt and downloaded again.
+ */
+@Slf4j
+public class RepositoryJournal
+{
+	static final File JOURNAL_FILE = new File(RUNENITE_DIR, "journal.json");
+
+	private static final StateFile<List<Entry>> STATE = new StateFile<>(JOURNAL_FILE, new TypeToken<List<Entry>>()
+	{
+	}, RepositoryJournal::valid, "repository journal");
+
+	static class Entry
+	{
+		/**
+		 * The artifact's name and upstream hash
+		 */
+		String name;
+		String hash;
+		String tmp;
+		String dest;
+		String newHash;
+		boolean reordered;
+		@Nullable
+		PatchCompression compression;
+	}
+
+	/**
+	 * Replace an artifact's file with a rewrite of it, and record the rewrite in the {@link PatchedManifest}.
+	 *
+	 * @param tmp the rewrite, in the same directory as dest
+	 * @param compression how its patched entries are compressed, or null if it isn't patched
+	 */
+	public static synchronized void replace(Artifact artifact, File tmp, File dest, boolean reordered, @Nullable PatchCompression compression) throws IOException
+	{
+		sync(tmp);
+
+		Entry entry = new Entry();
+		entry.name = artifact.getName();
+		entry.hash = artifact.getHash();
+		entry.tmp = tmp.getAbsolutePath();
+		entry.dest = dest.getAbsolutePath();
+		entry.newHash = Launcher.hash(tmp);
+		entry.reordered = reordered;
+		entry.compression = compression;
+		write(List.of(entry));
+
+		complete(entry);
+		write(List.of());
+	}
+
+	/**
+	 * Complete or roll back rewrites which were interrupted. Must be called holding the {@link RepositoryLock}.
+	 */
+	static synchronized void recover()
+	{
+		List<Entry> entries = STATE.read();
+		if (entries.isEmpty())
+		{
+			return;
+		}
+
+		for (Entry entry : entries)
+		{
+			try
+			{
+				File tmp = new File(entry.tmp);
+				if (entry.newHash.equals(hash(new File(entry.dest))) || entry.newHash.equals(hash(tmp)))
+				{
+					log.info("Completing interrupted rewrite of {}", entry.name);
+					complete(entry);
+				}
+				else
+				{
+					log.info("Rolling back interrupted rewrite of {}", entry.name);
+					Files.deleteIfExists(tmp.toPath());
+				}
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to recover interrupted rewrite of {}", entry.name, e);
+			}
+		}
+
+		try
+		{
+			write(List.of());
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to clear repository journal", e);
+		}
+	}
+
+	/**
+	 * Flush a file's content to disk, so that a crash after it is moved into place can't leave it empty.
+	 */
+	public static void sync(File file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE))
+		{
+			channel.force(true);
+		}
+	}
+
+	private static void complete(Entry entry) throws IOException
+	{
+		File tmp = new File(entry.tmp);
+		File dest = new File(entry.dest);
+		if (tmp.exists())
+		{
+			Files.move(tmp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		HashIndex.record(dest, entry.newHash);
+
+		Artifact artifact = new Artifact();
+		artifact.setName(entry.name);
+		artifact.setHash(entry.hash);
+		PatchedManifest.record(artifact, entry.newHash, entry.reordered, entry.compression);
+	}
+
+	private static String hash(File file) throws IOException
+	{
+		try
+		{
+			return Launcher.hash(file);
+		}
+		catch (FileNotFoundException e)
+		{
+			return null;
+		}
+	}
+
+	private static List<Entry> valid(@Nullable List<Entry> entries)
+	{
+		List<Entry> valid = new ArrayList<>();
+		if (entries != null)
+		{
+			for (Entry entry : entries)
+			{
+				if (entry != null && entry.name != null && entry.hash != null && entry.tmp != null && entry.dest != null && entry.newHash != null)
+				{
+					valid.add(entry);
+				}
+			}
+		}
+		return valid;
+	}
+
+	private static void write(List<Entry> entries) throws IOException
+	{
+		if (entries.isEmpty())
+		{
+			Files.deleteIfExists(JOURNAL_FILE.toPath());
+			return;
+		}
+
+		// only the holder of the repository lock rewrites files, so there is nothing of another launcher's to keep
+		STATE.replace(entries);
+	}
+}
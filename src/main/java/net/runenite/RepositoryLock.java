@@ -0,0 +1,150 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.SplashScreen;
+import net.runelite.launcher.beans.Artifact;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+import static net.runenite.RuneNiteLauncher.ensureDirectoryExists;
+
+/**
+ * Serializes changes to the repository across launcher processes, so concurrent launches don't clean, download and
+ * patch over each other. Whoever holds the lock first prepares the repository and records it as prepared; the
+ * others find it prepared once they get the lock, and go straight to launching.
+ * <p>
+ * The lock is reentrant within a process.
+ */
+@Slf4j
+public class RepositoryLock implements AutoCloseable
+{
+	static final File LOCK_FILE = new File(RUNENITE_DIR, "repository.lock");
+	static final File PREPARED_FILE = new File(RUNENITE_DIR, "prepared");
+
+	/**
+	 * File locks are held per process, so threads of this process are serialized here
+	 */
+	private static final ReentrantLock processLock = new ReentrantLock();
+	private static FileChannel channel;
+	private static FileLock fileLock;
+
+	private RepositoryLock()
+	{
+	}
+
+	/**
+	 * Acquire the repository lock, waiting for other launchers to release it.
+	 */
+	public static RepositoryLock acquire() throws IOException
+	{
+		processLock.lock();
+		if (processLock.getHoldCount() > 1)
+		{
+			return new RepositoryLock();
+		}
+
+		try
+		{
+			ensureDirectoryExists(RUNENITE_DIR);
+			channel = FileChannel.open(LOCK_FILE.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			fileLock = channel.tryLock();
+			if (fileLock == null)
+			{
+				log.info("Waiting for another launcher to finish preparing the repository");
+				SplashScreen.stage(.10, null, "Waiting for another launcher");
+				fileLock = channel.lock();
+			}
+
+			RepositoryJournal.recover();
+		}
+		catch (IOException | RuntimeException e)
+		{
+			if (channel != null)
+			{
+				channel.close();
+				channel = null;
+			}
+			processLock.unlock();
+			throw e;
+		}
+		return new RepositoryLock();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			if (processLock.getHoldCount() == 1)
+			{
+				fileLock = null;
+				// closing the channel releases the lock
+				channel.close();
+				channel = null;
+			}
+		}
+		finally
+		{
+			processLock.unlock();
+		}
+	}
+
+	/**
+	 * Whether the repository was prepared for these artifacts and has not changed since.
+	 *
+	 * @param preparation describes any options which change the prepared files
+	 */
+	public boolean isPrepared(List<Artifact> artifacts, String preparation)
+	{
+		try
+		{
+			return PREPARED_FILE.exists()
+				&& Files.readAllLines(PREPARED_FILE.toPath(), StandardCharsets.UTF_8).equals(describe(artifacts, preparation));
+		}
+		catch (IOException e)
+		{
+			log.debug("Unable to read prepared marker", e);
+			return false;
+		}
+	}
+
+	public void markPrepared(List<Artifact> artifacts, String preparation) throws IOException
+	{
+		File tmp = new File(RUNENITE_DIR, PREPARED_FILE.getName() + ".tmp");
+		Files.write(tmp.toPath(), describe(artifacts, preparation), StandardCharsets.UTF_8);
+		Files.move(tmp.toPath(), PREPARED_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Forget that the repository was prepared, before changing it.
+	 */
+	public void clearPrepared() throws IOException
+	{
+		Files.deleteIfExists(PREPARED_FILE.toPath());
+	}
+
+	private static List<String> describe(List<Artifact> artifacts, String preparation)
+	{
+		List<String> lines = new ArrayList<>();
+		lines.add(preparation);
+		artifacts.stream()
+			.sorted(Comparator.comparing(Artifact::getName))
+			.forEach(artifact ->
+			{
+				File file = new File(REPO_DIR, artifact.getName());
+				lines.add(artifact.getName() + '\t' + artifact.getHash() + '\t' + file.length() + '\t' + file.lastModified());
+			});
+		return lines;
+	}
+}
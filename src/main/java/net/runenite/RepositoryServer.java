@@ -0,0 +1,155 @@
+package net.runenite;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Bootstrap;
+
+/**
+ * Serves the content store over HTTP, so machines on the same network can download each artifact once between them.
+ * Files are addressed by SHA-256, as {@code /sha256/<hash>}. Peers don't need to trust the server, since they check
+ * everything they fetch against the hashes in their bootstrap.
+ * <p>
+ * Only upstream artifacts are useful to peers, so those are what the store is seeded with. Patched files never match
+ * a bootstrap hash.
+ */
+@Slf4j
+public class RepositoryServer
+{
+	public static final int DEFAULT_PORT = 8650;
+
+	static final String PREFIX = "/sha256/";
+	private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+	private final File dir;
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	RepositoryServer(InetSocketAddress address, File dir) throws IOException
+	{
+		this.dir = dir;
+		server = HttpServer.create(address, 0);
+		server.createContext(PREFIX, this::handle);
+		executor = Executors.newFixedThreadPool(4);
+		server.setExecutor(executor);
+	}
+
+	void start()
+	{
+		server.start();
+	}
+
+	void stop()
+	{
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	int getPort()
+	{
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Serve the content store on the port until the launcher is killed.
+	 */
+	public static void serve(int port) throws IOException
+	{
+		seed();
+
+		RepositoryServer server = new RepositoryServer(new InetSocketAddress(port), ContentStore.STORE_DIR);
+		server.start();
+		log.info("Serving {} on port {}", ContentStore.STORE_DIR, server.getPort());
+	}
+
+	/**
+	 * Add the upstream artifacts in the repository to the content store.
+	 */
+	@SuppressWarnings("try")
+	private static void seed()
+	{
+		Bootstrap bootstrap;
+		try
+		{
+			bootstrap = RuneNiteLauncher.getBootstrap();
+		}
+		catch (Exception e)
+		{
+			log.warn("Unable to read the bootstrap, serving the content store as it is", e);
+			return;
+		}
+
+		try (var lock = RepositoryLock.acquire())
+		{
+			for (Artifact artifact : bootstrap.getArtifacts())
+			{
+				File file = new File(REPO_DIR, artifact.getName());
+				if (ContentStore.get(artifact.getHash()) != null || !file.isFile())
+				{
+					continue;
+				}
+
+				if (artifact.getHash().equals(HashIndex.hash(file)))
+				{
+					ContentStore.add(file, artifact.getHash());
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to add the repository to the content store", e);
+		}
+	}
+
+	private void handle(HttpExchange exchange) throws IOException
+	{
+		try
+		{
+			String method = exchange.getRequestMethod();
+			if (!"GET".equals(method) && !"HEAD".equals(method))
+			{
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+
+			// the hash pattern keeps requests inside the store
+			String hash = exchange.getRequestURI().getPath().substring(PREFIX.length());
+			File file = new File(dir, hash);
+			if (!HASH.matcher(hash).matches() || !file.isFile())
+			{
+				log.debug("{} {} from {}: not found", method, hash, exchange.getRemoteAddress());
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+
+			exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+			if ("HEAD".equals(method))
+			{
+				exchange.getResponseHeaders().set("Content-Length", Long.toString(file.length()));
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+
+			exchange.sendResponseHeaders(200, file.length());
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				Files.copy(file.toPath(), out);
+			}
+			log.debug("Served {} to {}", hash, exchange.getRemoteAddress());
+		}
+		finally
+		{
+			exchange.close();
+		}
+	}
+}
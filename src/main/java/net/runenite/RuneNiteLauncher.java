@@ -3,7 +3,6 @@ package net.runenite;
 import com.google.gson.Gson;
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -13,13 +12,11 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
 import lombok.extern.slf4j.Slf4j;
-import net.runelite.launcher.Launcher;
+import static net.runelite.launcher.Launcher.LOGS_DIR;
 import static net.runelite.launcher.Launcher.REPO_DIR;
 import static net.runelite.launcher.Launcher.RUNELITE_DIR;
 import net.runelite.launcher.LauncherSettings;
@@ -27,28 +24,90 @@ import net.runelite.launcher.SplashScreen;
 import net.runelite.launcher.VerificationException;
 import net.runelite.launcher.beans.Artifact;
 import net.runelite.launcher.beans.Bootstrap;
+import net.runenite.jfr.ArtifactDownloadEvent;
+import net.runenite.jfr.FlightRecording;
+import net.runenite.sources.DiffGraph;
+import net.runenite.sources.UpdatePlan;
 import net.runenite.utils.ResourceManager;
 
 @Slf4j
 public class RuneNiteLauncher
 {
 	public static final File RUNENITE_DIR = new File(RUNELITE_DIR, "runenite");
+	public static final File BOOTSTRAP_FILE = new File(RUNENITE_DIR, "bootstrap.json");
 	private static boolean patchAnyway = false;
 	private static boolean ignoreMissingArtifacts = false;
+	private static boolean skipLaunch = false;
+	private static boolean planOnly = false;
+
+	private static final List<String> DEFERRABLE_ARTIFACTS = List.of("lwjgl-opencl-");
 
-	private static final List<Artifact> verifiedPatchableArtifacts = new ArrayList<>();
 	private static final List<Artifact> artifactsToPatch = new ArrayList<>();
 
 	public static void extendOptionsParser(OptionParser parser)
 	{
 		parser.accepts("patch-anyway", "Whether or not to blindly apply any existing patches.");
 		parser.accepts("ignore-missing-artifacts", "Continue with patching even when some artifacts are missing.");
+		parser.accepts("skip-launch", "Prepare the repository without starting the client.");
+		parser.accepts("prepare-only", "Prepare the repository headlessly, printing progress as JSON lines, and exit with a status code.");
+		parser.accepts("export-bundle", "Pack the prepared repository into a bundle file for --import-bundle on other machines, and exit.")
+			.withRequiredArg()
+			.ofType(File.class);
+		parser.accepts("import-bundle", "Verify and install a repository bundle made with --export-bundle, and exit.")
+			.withRequiredArg()
+			.ofType(File.class);
+		parser.accepts("serve-repo", "Serve the verified artifacts to other launchers on the network, on the given port, instead of launching.")
+			.withOptionalArg()
+			.ofType(Integer.class)
+			.defaultsTo(RepositoryServer.DEFAULT_PORT);
+		parser.accepts("plan", "Print what preparing the repository would do and cost, without changing anything, and exit.");
+		parser.accepts("jfr", "Record launcher events with Java Flight Recorder to the logs directory.");
+		parser.accepts("list-generations", "List the prepared artifact sets kept for switching back to, and exit.");
+		parser.accepts("generation", "Launch the prepared artifact set with the given id from --list-generations, and keep launching it.")
+			.withRequiredArg()
+			.ofType(Integer.class);
+		parser.accepts("rollback", "Go back to the last launched artifact set of an earlier bootstrap, and keep launching it.");
 	}
 
 	public static boolean parseOptions(OptionSet options)
 	{
 		patchAnyway = options.has("patch-anyway");
 		ignoreMissingArtifacts = options.has("ignore-missing-artifacts");
+		skipLaunch = options.has("skip-launch") || options.has("prepare-only");
+		planOnly = options.has("plan");
+
+		if (options.has("prepare-only"))
+		{
+			PrepareOnly.enable();
+		}
+
+		if (options.has("jfr"))
+		{
+			FlightRecording.start(LOGS_DIR);
+		}
+
+		if (options.has("list-generations"))
+		{
+			System.out.print(Generations.describe());
+			return false;
+		}
+
+		try
+		{
+			if (options.has("generation"))
+			{
+				Generations.select((Integer) options.valueOf("generation"));
+			}
+			else if (options.has("rollback"))
+			{
+				Generations.rollback();
+			}
+		}
+		catch (IOException e)
+		{
+			log.error("Unable to switch generation", e);
+			return false;
+		}
 
 		return true;
 	}
@@ -57,22 +116,29 @@ public class RuneNiteLauncher
 	{
 		ensureDirectoryExists(RUNENITE_DIR);
 
-		File bootstrapFile = new File(RUNENITE_DIR, "bootstrap.json");
-		if (!bootstrapFile.exists())
+		if (!BOOTSTRAP_FILE.exists())
 		{
-			ResourceManager.copyResource("bootstrap.json", bootstrapFile);
+			ResourceManager.copyResource("bootstrap.json", BOOTSTRAP_FILE);
 		}
 
-		return parseBootstrap(Files.readAllBytes(bootstrapFile.toPath()));
+		return parseBootstrap(Files.readAllBytes(BOOTSTRAP_FILE.toPath()));
 	}
 
-	protected static Bootstrap getBundledBootstrap() throws IOException
+	public static Bootstrap getBundledBootstrap() throws IOException
+	{
+		return parseBootstrap(getBundledBootstrapBytes());
+	}
+
+	/**
+	 * @return the bootstrap the launcher was built with, as it is
+	 */
+	public static byte[] getBundledBootstrapBytes() throws IOException
 	{
 		try (InputStream stream = RuneNiteLauncher.class.getResourceAsStream("bootstrap.json"))
 		{
 			assert stream != null;
 
-			return parseBootstrap(stream.readAllBytes());
+			return stream.readAllBytes();
 		}
 	}
 
@@ -87,100 +153,179 @@ public class RuneNiteLauncher
 		//
 	}
 
-	public static void download(List<Artifact> artifacts, boolean ignoredNodiff) throws IOException, VerificationException
+	public static boolean isSkipLaunch()
 	{
-		SplashScreen.stage(.15, "Downloading", "Unpacking bundled artifacts");
-		Bootstrap bundledBootstrap = getBundledBootstrap();
+		return skipLaunch;
+	}
 
-		for (Artifact artifact : artifacts)
-		{
-			if (Arrays.stream(bundledBootstrap.getArtifacts()).anyMatch(a -> a.getName().equals(artifact.getName()) && a.getHash().equals(artifact.getHash())))
-			{
-				verifiedPatchableArtifacts.add(artifact);
-			}
-		}
+	public static boolean isPlanOnly()
+	{
+		return planOnly;
+	}
+
+	/**
+	 * Plan getting the artifacts into the repository, without changing anything.
+	 */
+	public static UpdatePlan plan(List<Artifact> artifacts, boolean nodiff)
+	{
+		return UpdatePlan.compute(artifacts, nodiff, patchAnyway);
+	}
 
+	/**
+	 * Print the plan as a real run would compute it, with the bootstrap's diffs learned. Nothing is written: the diff
+	 * graph is only learned in memory, and the repository lock, which recovers interrupted rewrites, isn't taken.
+	 */
+	public static void printPlan(List<Artifact> artifacts, boolean nodiff)
+	{
+		DiffGraph.learn(artifacts);
+		System.out.print(plan(artifacts, nodiff).describe());
+	}
+
+	public static void download(List<Artifact> artifacts, boolean nodiff) throws IOException, VerificationException
+	{
+		SplashScreen.stage(.15, "Downloading", "Checking artifacts");
+		UpdatePlan plan = plan(artifacts, nodiff);
+		log.debug("Update plan:{}{}", System.lineSeparator(), plan.describe());
+		plan.begin();
+		artifactsToPatch.clear();
+
+		final double START_PROGRESS = .15;
+		final double END_PROGRESS = .80;
 		int total = artifacts.size();
 		int completed = 0;
 
 		List<String> missingArtifacts = new ArrayList<>();
 
-		for (Artifact artifact : artifacts)
+		for (UpdatePlan.Step step : plan.getSteps())
 		{
-			completed++;
-			SplashScreen.stage(.15, .80, null, artifact.getName(), completed, total, false);
-			File dest = new File(REPO_DIR, artifact.getName());
+			Artifact artifact = step.getArtifact();
 
-			String hash;
-			try
-			{
-				hash = Launcher.hash(dest);
-			}
-			catch (FileNotFoundException ex)
-			{
-				hash = null;
-			}
-			catch (IOException ex)
-			{
-				// noinspection ResultOfMethodCallIgnored
-				dest.delete();
-				hash = null;
-			}
+			// each artifact gets an equal share of the progress bar, filled by bytes as it downloads
+			double start = START_PROGRESS + (END_PROGRESS - START_PROGRESS) * completed / total;
+			double end = START_PROGRESS + (END_PROGRESS - START_PROGRESS) * ++completed / total;
+			SplashScreen.stage(start, end, null, artifact.getName(), completed, total, false);
+			step.getRequest().setProgress(bytes ->
+				SplashScreen.stage(start, end, null, artifact.getName(), bytes, artifact.getSize(), true));
 
-			if (Objects.equals(hash, artifact.getHash()))
+			ArtifactDownloadEvent event = new ArtifactDownloadEvent();
+			event.begin();
+			event.artifact = artifact.getName();
+			event.cacheOutcome = step.execute();
+
+			if (ArtifactDownloadEvent.MISSING.equals(event.cacheOutcome))
 			{
-				artifactsToPatch.add(artifact);
-				continue;
+				missingArtifacts.add(artifact.getName());
 			}
-
-			if (verifiedPatchableArtifacts.contains(artifact) && hash == null)
+			else if (step.isUpstream())
 			{
-				log.info("Unpacking known artifact from bundled resources {}", artifact.getName());
-				ResourceManager.copyResource("artifacts/" + artifact.getName(), dest);
+				// keep the upstream file, which patching replaces, to serve to peers and diff against later
+				storeUpstream(artifact, step.getRequest().getDest());
 				artifactsToPatch.add(artifact);
-				continue;
 			}
-
-			if (verifiedPatchableArtifacts.contains(artifact) && !patchAnyway)
+			else if (step.getAction() == UpdatePlan.Action.PATCH_ANYWAY)
 			{
-				log.info("Hash for {} is bad or unknown, likely already patched. Skipping...", artifact.getName());
-				continue;
+				artifactsToPatch.add(artifact);
 			}
 
-			if (patchAnyway)
+			if (event.shouldCommit())
 			{
-				log.info("Hash for {} is bad or unknown, but patching anyway.", artifact.getName());
-				artifactsToPatch.add(artifact);
-				continue;
+				event.bytes = step.getRequest().getDest().length();
+				event.commit();
 			}
-
-			missingArtifacts.add(artifact.getName());
 		}
 
+		HashIndex.save();
+
 		if (!missingArtifacts.isEmpty() && !ignoreMissingArtifacts)
 		{
 			throw new IOException("Missing or bad artifacts: " + String.join(", ", missingArtifacts));
 		}
 	}
 
+	private static void storeUpstream(Artifact artifact, File file)
+	{
+		try
+		{
+			ContentStore.add(file, artifact.getHash());
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to add {} to the content store", artifact.getName(), e);
+		}
+	}
+
 	public static void verifyJarHashes(List<Artifact> ignoredArtifacts) throws VerificationException, IOException
 	{
-		// We currently don't verify the hashes of the jars.
-		// We could do this against a custom .patched file, but it's not worth the effort.
-		// Instead, we'll just use this step to patch our artifacts.
+		// Artifacts are verified in download(), against the bootstrap or the patched manifest.
+		// This step patches the artifacts which are still upstream.
 
 		if (artifactsToPatch.isEmpty())
 		{
 			return;
 		}
 
-		ArtifactPatcher.unpackBundledPatchResources();
-		for (Artifact artifact : artifactsToPatch)
+		try
 		{
-			ArtifactPatcher.patch(artifact);
+			ArtifactPatcher.unpackBundledPatchResources();
+			for (Artifact artifact : artifactsToPatch)
+			{
+				try
+				{
+					ArtifactPatcher.patch(artifact);
+				}
+				catch (IOException e)
+				{
+					// the upstream file is left in place, and patched again on the next launch
+					throw new VerificationException("Unable to patch " + artifact.getName(), e);
+				}
+			}
+		}
+		finally
+		{
+			artifactsToPatch.clear();
 		}
 	}
 
+	/**
+	 * Whether the client can start before this artifact is ready. These are the platform natives and other jars
+	 * which are only used once the client is up, if at all.
+	 */
+	public static boolean isDeferrable(Artifact artifact)
+	{
+		return artifact.getPlatform() != null
+			|| DEFERRABLE_ARTIFACTS.stream().anyMatch(artifact.getName()::startsWith);
+	}
+
+	/**
+	 * Prepare the deferred artifacts in the background, releasing each to the class loader as it becomes ready.
+	 */
+	@SuppressWarnings("try")
+	public static void prepareDeferred(List<Artifact> artifacts, boolean nodiff, LazyClassLoader loader)
+	{
+		Thread thread = new Thread(() ->
+		{
+			ProcessScheduling.lowerCurrentThreadPriority();
+			for (Artifact artifact : artifacts)
+			{
+				File file = new File(REPO_DIR, artifact.getName());
+				try (var lock = RepositoryLock.acquire())
+				{
+					download(List.of(artifact), nodiff);
+					verifyJarHashes(List.of(artifact));
+					loader.ready(file);
+				}
+				catch (IOException | VerificationException e)
+				{
+					log.error("Unable to prepare deferred artifact {}", artifact.getName(), e);
+					loader.failed(file);
+				}
+			}
+		});
+		thread.setName("Deferred artifacts");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
 	public static void ensureDirectoryExists(File directory)
 	{
 		// noinspection ResultOfMethodCallIgnored
@@ -0,0 +1,124 @@
+package net.runenite;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import static net.runenite.RuneNiteLauncher.ensureDirectoryExists;
+
+/**
+ * A JSON file of launcher state which every launcher process reads and changes. Changes are made holding the
+ * {@link RepositoryLock}, to the file as it is then, so a launcher doesn't write over what another one wrote since it
+ * read the file; and the file is replaced with a synced temp file, so a crash leaves either the old state or the new.
+ *
+ * @param <T> the file's content
+ */
+@Slf4j
+public class StateFile<T>
+{
+	private final File file;
+	private final TypeToken<T> type;
+	private final UnaryOperator<T> valid;
+	private final String description;
+
+	/**
+	 * @param valid makes a mutable copy of what was read, without entries which are missing fields. It is passed null
+	 *              when there is no file, or it can't be read.
+	 * @param description what the file is, for log messages
+	 */
+	public StateFile(File file, TypeToken<T> type, UnaryOperator<T> valid, String description)
+	{
+		this.file = file;
+		this.type = type;
+		this.valid = valid;
+		this.description = description;
+	}
+
+	public File getFile()
+	{
+		return file;
+	}
+
+	/**
+	 * Read the file as it is now.
+	 */
+	public T read()
+	{
+		return valid.apply(parse());
+	}
+
+	@Nullable
+	private T parse()
+	{
+		if (!file.exists())
+		{
+			return null;
+		}
+
+		try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
+		{
+			return new Gson().fromJson(in, type.getType());
+		}
+		catch (IOException | JsonParseException e)
+		{
+			log.warn("Unable to read {}", description, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Read the file again, make the change, and write it back, holding the {@link RepositoryLock} throughout.
+	 *
+	 * @return the content as written
+	 */
+	@SuppressWarnings("try")
+	public T update(Consumer<T> change) throws IOException
+	{
+		try (var lock = RepositoryLock.acquire())
+		{
+			T content = read();
+			change.accept(content);
+			write(content);
+			return content;
+		}
+	}
+
+	/**
+	 * Replace the file's content, for a file which only the holder of the {@link RepositoryLock} uses. Must be called
+	 * holding the lock.
+	 */
+	public void replace(T content) throws IOException
+	{
+		write(content);
+	}
+
+	private void write(T content) throws IOException
+	{
+		File dir = file.getParentFile();
+		ensureDirectoryExists(dir);
+		File tmp = new File(dir, file.getName() + "-" + ProcessHandle.current().pid() + ".tmp");
+		try
+		{
+			try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8))
+			{
+				new Gson().toJson(content, type.getType(), out);
+			}
+			RepositoryJournal.sync(tmp);
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+}
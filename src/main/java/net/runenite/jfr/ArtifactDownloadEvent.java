@@ -0,0 +1,39 @@
+package net.runenite.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.runenite.ArtifactDownload")
+@Label("Artifact Download")
+@Category({"RuneNite", "Launcher"})
+@Description("Acquisition of a single artifact into the repository")
+public class ArtifactDownloadEvent extends jdk.jfr.Event
+{
+	public static final String UP_TO_DATE = "up to date";
+	public static final String PATCHED = "patched";
+	public static final String STORE = "store";
+	/**
+	 * Installed from the content store with the rest of a generation prepared before
+	 */
+	public static final String RESTORED = "restored";
+	public static final String LOCAL = "local";
+	public static final String UNPACKED = "unpacked";
+	public static final String DOWNLOADED = "downloaded";
+	public static final String DIFF = "diff";
+	public static final String PEER = "peer";
+	public static final String SKIPPED = "skipped";
+	public static final String MISSING = "missing";
+
+	@Label("Artifact")
+	public String artifact;
+
+	@Label("Bytes")
+	@DataAmount
+	public long bytes;
+
+	@Label("Cache Outcome")
+	public String cacheOutcome;
+}
@@ -0,0 +1,24 @@
+package net.runenite.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.runenite.Clean")
+@Label("Clean")
+@Category({"RuneNite", "Launcher"})
+@Description("Removal of old artifacts from the repository")
+public class CleanEvent extends jdk.jfr.Event
+{
+	@Label("Files Kept")
+	public int filesKept;
+
+	@Label("Files Deleted")
+	public int filesDeleted;
+
+	@Label("Bytes Deleted")
+	@DataAmount
+	public long bytesDeleted;
+}
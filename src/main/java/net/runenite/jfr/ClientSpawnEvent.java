@@ -0,0 +1,22 @@
+package net.runenite.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.runenite.ClientSpawn")
+@Label("Client Spawn")
+@Category({"RuneNite", "Launcher"})
+@Description("Start of the client process or thread")
+public class ClientSpawnEvent extends jdk.jfr.Event
+{
+	@Label("Launch Mode")
+	public String launchMode;
+
+	@Label("Classpath Entries")
+	public int classpathEntries;
+
+	@Label("Process Id")
+	public long pid;
+}
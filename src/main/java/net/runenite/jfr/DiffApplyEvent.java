@@ -0,0 +1,31 @@
+package net.runenite.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.runenite.DiffApply")
+@Label("Diff Apply")
+@Category({"RuneNite", "Launcher"})
+@Description("Application of an archive-patcher diff to an older artifact")
+public class DiffApplyEvent extends jdk.jfr.Event
+{
+	@Label("Artifact")
+	public String artifact;
+
+	@Label("Diff")
+	public String diff;
+
+	@Label("Diff Bytes")
+	@DataAmount
+	public long diffBytes;
+
+	@Label("Output Bytes")
+	@DataAmount
+	public long outputBytes;
+
+	@Label("Success")
+	public boolean success;
+}
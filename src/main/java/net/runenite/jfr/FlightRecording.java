@@ -0,0 +1,54 @@
+package net.runenite.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class FlightRecording
+{
+	private static Recording recording;
+
+	/**
+	 * Start a recording with the default JFR settings, which is dumped into the given directory when the JVM exits.
+	 */
+	public static synchronized void start(File directory)
+	{
+		if (recording != null)
+		{
+			return;
+		}
+
+		// noinspection ResultOfMethodCallIgnored
+		directory.mkdirs();
+		// a forked launcher records too, and may start within the same second
+		File destination = new File(directory, "launcher-" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date())
+			+ "-" + ProcessHandle.current().pid() + ".jfr");
+
+		try
+		{
+			Recording r = new Recording(Configuration.getConfiguration("default"));
+			r.setName("RuneNite launcher");
+			r.setToDisk(true);
+			r.setDumpOnExit(true);
+			r.setDestination(destination.toPath());
+			r.start();
+			recording = r;
+			log.info("Started flight recording to {}", destination);
+		}
+		catch (IOException | ParseException | IllegalStateException | SecurityException e)
+		{
+			log.warn("Unable to start flight recording", e);
+		}
+	}
+
+	public static synchronized boolean isRecording()
+	{
+		return recording != null;
+	}
+}
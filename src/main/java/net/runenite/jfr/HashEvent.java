@@ -0,0 +1,21 @@
+package net.runenite.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.runenite.Hash")
+@Label("Hash")
+@Category({"RuneNite", "Launcher"})
+@Description("SHA-256 of a file in the repository")
+public class HashEvent extends jdk.jfr.Event
+{
+	@Label("File")
+	public String file;
+
+	@Label("Bytes")
+	@DataAmount
+	public long bytes;
+}
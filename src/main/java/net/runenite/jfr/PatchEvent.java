@@ -0,0 +1,19 @@
+package net.runenite.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.runenite.Patch")
+@Label("Patch")
+@Category({"RuneNite", "Launcher"})
+@Description("A single Patch applied to an extracted artifact")
+public class PatchEvent extends jdk.jfr.Event
+{
+	@Label("Artifact")
+	public String artifact;
+
+	@Label("Patch")
+	public String patch;
+}
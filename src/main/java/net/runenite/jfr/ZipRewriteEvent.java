@@ -0,0 +1,28 @@
+package net.runenite.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.runenite.ZipRewrite")
+@Label("Zip Rewrite")
+@Category({"RuneNite", "Launcher"})
+@Description("Extraction and recompression of a patched artifact")
+public class ZipRewriteEvent extends jdk.jfr.Event
+{
+	@Label("Artifact")
+	public String artifact;
+
+	@Label("Input Bytes")
+	@DataAmount
+	public long inputBytes;
+
+	@Label("Output Bytes")
+	@DataAmount
+	public long outputBytes;
+
+	@Label("Signed")
+	public boolean signed;
+}
@@ -0,0 +1,147 @@
+package net.runenite.sources;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.function.IntConsumer;
+import javax.annotation.Nullable;
+import net.runelite.launcher.beans.Artifact;
+import net.runenite.HashIndex;
+import net.runenite.RepositoryJournal;
+
+/**
+ * An artifact to get into the repository, and what is known so far about the file it goes to.
+ */
+public class ArtifactRequest
+{
+	private final Artifact artifact;
+	private final File dest;
+	private final boolean nodiff;
+	private IntConsumer progress = bytes ->
+	{
+	};
+
+	private boolean hashed;
+	@Nullable
+	private String currentHash;
+	/**
+	 * Whether the destination exists but couldn't be read
+	 */
+	private boolean unreadable;
+
+	public ArtifactRequest(Artifact artifact, File dest, boolean nodiff)
+	{
+		this.artifact = artifact;
+		this.dest = dest;
+		this.nodiff = nodiff;
+	}
+
+	public Artifact getArtifact()
+	{
+		return artifact;
+	}
+
+	public File getDest()
+	{
+		return dest;
+	}
+
+	public boolean isNodiff()
+	{
+		return nodiff;
+	}
+
+	public void setProgress(IntConsumer progress)
+	{
+		this.progress = progress;
+	}
+
+	/**
+	 * Report the bytes transferred so far for this artifact
+	 */
+	public void progress(int bytes)
+	{
+		progress.accept(bytes);
+	}
+
+	/**
+	 * @return the hash of the file at the destination, or null if there is none or it can't be read. The file is only hashed
+	 * once, and not at all if the {@link HashIndex} already knows it. This only reads the repository.
+	 */
+	@Nullable
+	public String getCurrentHash()
+	{
+		if (!hashed)
+		{
+			try
+			{
+				currentHash = HashIndex.hash(dest);
+			}
+			catch (FileNotFoundException ex)
+			{
+				currentHash = null;
+			}
+			catch (IOException ex)
+			{
+				unreadable = true;
+				currentHash = null;
+			}
+			hashed = true;
+		}
+		return currentHash;
+	}
+
+	/**
+	 * Delete the destination if it couldn't be read, so it can be replaced.
+	 */
+	void deleteIfUnreadable()
+	{
+		if (unreadable)
+		{
+			// noinspection ResultOfMethodCallIgnored
+			dest.delete();
+			unreadable = false;
+		}
+	}
+
+	/**
+	 * Forget the destination's hash, after it has been replaced by something unverified.
+	 */
+	void reset()
+	{
+		hashed = false;
+		currentHash = null;
+	}
+
+	/**
+	 * Record the destination's hash, for sources which hashed the content as they delivered it.
+	 */
+	void setCurrentHash(String hash)
+	{
+		currentHash = hash;
+		hashed = true;
+	}
+
+	/**
+	 * A file next to the destination for a source to write into, before moving it over the destination
+	 */
+	File getTempFile()
+	{
+		return new File(dest.getParentFile(), dest.getName() + "-" + ProcessHandle.current().pid() + ".part");
+	}
+
+	/**
+	 * Move the temp file over the destination.
+	 *
+	 * @param hash the hash of the temp file, as computed while writing it
+	 */
+	void commit(File tmp, String hash) throws IOException
+	{
+		RepositoryJournal.sync(tmp);
+		Files.move(tmp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		HashIndex.record(dest, hash);
+		setCurrentHash(hash);
+	}
+}
@@ -0,0 +1,33 @@
+package net.runenite.sources;
+
+import java.io.IOException;
+import javax.annotation.Nullable;
+
+/**
+ * A way of getting an artifact into the repository. {@link UpdatePlan} asks every source what delivering an artifact
+ * would cost, and they are tried cheapest first until one delivers the expected hash.
+ */
+public interface ArtifactSource
+{
+	/**
+	 * @return the outcome recorded for artifacts from this source, one of the
+	 * {@link net.runenite.jfr.ArtifactDownloadEvent} outcomes
+	 */
+	String getName();
+
+	/**
+	 * Estimate the cost of delivering the artifact. This should be cheap, and do no more than check what is on disk.
+	 *
+	 * @return the estimate, or null if this source can't deliver the artifact
+	 */
+	@Nullable
+	Estimate estimate(ArtifactRequest request);
+
+	/**
+	 * Deliver the artifact to the request's destination. It is verified afterwards, so a source may deliver
+	 * something which turns out to be wrong, but it must replace the destination rather than write into it.
+	 *
+	 * @return false if the artifact turned out to be unavailable
+	 */
+	boolean deliver(ArtifactRequest request) throws IOException;
+}
@@ -0,0 +1,97 @@
+package net.runenite.sources;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.beans.Artifact;
+
+/**
+ * The chain of {@link ArtifactSource}s artifacts are acquired from. New ways of getting artifacts are added to
+ * {@link #sources}; the cheapest available one is always tried first.
+ */
+@Slf4j
+public class ArtifactSources
+{
+	// Latencies in milliseconds, for the cost estimates. Throughput comes from Throughput.
+	static final double LAN_LATENCY = 5;
+	static final double INTERNET_LATENCY = 200;
+
+	/**
+	 * In order of preference, for sources of the same cost
+	 */
+	private static final List<ArtifactSource> sources = List.of(
+		new ExistingFileSource(),
+		new ContentStoreSource(),
+		new LocalRepositorySource(),
+		new BundledSource(),
+		new PeerSource(),
+		new DiffSource(),
+		new RemoteSource()
+	);
+
+	/**
+	 * Estimate every source which can deliver the artifact.
+	 *
+	 * @return the estimates, cheapest first
+	 */
+	static List<Estimate> estimate(ArtifactRequest request)
+	{
+		return sources.stream()
+			.map(source -> source.estimate(request))
+			.filter(Objects::nonNull)
+			.sorted(Comparator.comparingDouble(Estimate::getMillis))
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get the artifact into the request's destination, trying the sources in the order given until one delivers it.
+	 *
+	 * @return the source it came from, or null if no source could deliver it
+	 */
+	@Nullable
+	static ArtifactSource acquire(ArtifactRequest request, List<Estimate> estimates)
+	{
+		Artifact artifact = request.getArtifact();
+		for (Estimate estimate : estimates)
+		{
+			ArtifactSource source = estimate.getSource();
+			log.debug("Trying {} from {} (estimated {}ms)", artifact.getName(), source.getClass().getSimpleName(), Math.round(estimate.getMillis()));
+			try
+			{
+				if (!source.deliver(request))
+				{
+					continue;
+				}
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to get {} from {}", artifact.getName(), source.getClass().getSimpleName(), e);
+				request.reset();
+				continue;
+			}
+
+			String hash = request.getCurrentHash();
+			if (artifact.getHash().equals(hash))
+			{
+				return source;
+			}
+
+			log.warn("{} from {} has hash {}, expected {}", artifact.getName(), source.getClass().getSimpleName(), hash, artifact.getHash());
+			try
+			{
+				Files.deleteIfExists(request.getDest().toPath());
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to delete {}", request.getDest(), e);
+			}
+			request.reset();
+		}
+		return null;
+	}
+}
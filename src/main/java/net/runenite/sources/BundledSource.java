@@ -0,0 +1,137 @@
+package net.runenite.sources;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.beans.Artifact;
+import net.runenite.RuneNiteLauncher;
+import net.runenite.jfr.ArtifactDownloadEvent;
+
+/**
+ * Unpack the artifact from the launcher's own resources
+ */
+@Slf4j
+public class BundledSource implements ArtifactSource
+{
+	private static Set<String> bundled;
+
+	/**
+	 * Whether the launcher was built against this artifact, whether or not it bundles the file
+	 */
+	public static synchronized boolean isBundled(Artifact artifact)
+	{
+		if (bundled == null)
+		{
+			try
+			{
+				bundled = Arrays.stream(RuneNiteLauncher.getBundledBootstrap().getArtifacts())
+					.map(a -> a.getName() + '\0' + a.getHash())
+					.collect(Collectors.toSet());
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to read the bundled bootstrap", e);
+				bundled = Set.of();
+			}
+		}
+		return bundled.contains(artifact.getName() + '\0' + artifact.getHash());
+	}
+
+	/**
+	 * @return the names of the entries of the bundled artifact, or null if it isn't bundled
+	 */
+	@Nullable
+	public static Set<String> entries(Artifact artifact)
+	{
+		if (!isBundled(artifact))
+		{
+			return null;
+		}
+
+		try (InputStream in = RuneNiteLauncher.class.getResourceAsStream(resource(artifact)))
+		{
+			if (in == null)
+			{
+				return null;
+			}
+
+			Set<String> names = new HashSet<>();
+			try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(in)))
+			{
+				for (ZipEntry entry; (entry = zip.getNextEntry()) != null; )
+				{
+					names.add(entry.getName());
+				}
+			}
+			return names;
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to list the entries of bundled {}", artifact.getName(), e);
+			return null;
+		}
+	}
+
+	@Override
+	public String getName()
+	{
+		return ArtifactDownloadEvent.UNPACKED;
+	}
+
+	@Override
+	public Estimate estimate(ArtifactRequest request)
+	{
+		Artifact artifact = request.getArtifact();
+		return isBundled(artifact) && RuneNiteLauncher.class.getResource(resource(artifact)) != null ?
+			new Estimate(this, Throughput.estimate(Throughput.Link.DISK, artifact.getSize()), 0) :
+			null;
+	}
+
+	@Override
+	public boolean deliver(ArtifactRequest request) throws IOException
+	{
+		Artifact artifact = request.getArtifact();
+		log.info("Unpacking known artifact from bundled resources {}", artifact.getName());
+
+		File tmp = request.getTempFile();
+		try (InputStream in = RuneNiteLauncher.class.getResourceAsStream(resource(artifact)))
+		{
+			if (in == null)
+			{
+				return false;
+			}
+
+			long start = System.nanoTime();
+			String hash;
+			try (HashingOutputStream out = new HashingOutputStream(Hashing.sha256(), Files.newOutputStream(tmp.toPath())))
+			{
+				in.transferTo(out);
+				hash = out.hash().toString();
+			}
+			Throughput.record(Throughput.Link.DISK, tmp.length(), System.nanoTime() - start);
+			request.commit(tmp, hash);
+			return true;
+		}
+		finally
+		{
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+
+	private static String resource(Artifact artifact)
+	{
+		return "artifacts/" + artifact.getName();
+	}
+}
@@ -0,0 +1,38 @@
+package net.runenite.sources;
+
+import java.io.IOException;
+import net.runenite.ContentStore;
+import net.runenite.jfr.ArtifactDownloadEvent;
+
+/**
+ * Link the artifact from the {@link ContentStore}, which keeps upstream copies of downloaded and imported artifacts
+ */
+class ContentStoreSource implements ArtifactSource
+{
+	@Override
+	public String getName()
+	{
+		return ArtifactDownloadEvent.STORE;
+	}
+
+	@Override
+	public Estimate estimate(ArtifactRequest request)
+	{
+		// a link is as good as free, but a copy across filesystems isn't
+		return ContentStore.get(request.getArtifact().getHash()) != null ? new Estimate(this, 1, 0) : null;
+	}
+
+	@Override
+	public boolean deliver(ArtifactRequest request) throws IOException
+	{
+		String hash = request.getArtifact().getHash();
+		if (ContentStore.verified(hash) == null)
+		{
+			return false;
+		}
+
+		ContentStore.install(hash, request.getDest());
+		request.setCurrentHash(hash);
+		return true;
+	}
+}
@@ -0,0 +1,128 @@
+package net.runenite.sources;
+
+import com.google.archivepatcher.shared.DefaultDeflateCompatibilityWindow;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runenite.StateFile;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+
+/**
+ * Whether the system zlib compresses exactly like the one archive-patcher's diffs were made against. Checking means
+ * compressing a test corpus with every deflate level and strategy, so the result is kept across runs for each JVM,
+ * OS and arch, and the check is only run once a diff could actually be used, in the background.
+ */
+@Slf4j
+class DeflateCompatibility
+{
+	static final File CACHE_FILE = new File(RUNENITE_DIR, "deflate-compatibility.json");
+
+	private static final StateFile<Map<String, Boolean>> STATE = new StateFile<>(CACHE_FILE, new TypeToken<Map<String, Boolean>>()
+	{
+	}, map -> map != null ? new HashMap<>(map) : new HashMap<>(), "zlib compatibility results");
+
+	private static CompletableFuture<Boolean> check;
+	/**
+	 * Results from earlier runs, by {@link #key()}
+	 */
+	private static Map<String, Boolean> results;
+
+	/**
+	 * Start the check in the background, unless the result is already known.
+	 */
+	static synchronized void start()
+	{
+		if (check != null || peek() != null)
+		{
+			return;
+		}
+
+		check = CompletableFuture.supplyAsync(() ->
+		{
+			long start = System.nanoTime();
+			boolean compatible = new DefaultDeflateCompatibilityWindow().isCompatible();
+			log.debug("Checked zlib compatibility in {}ms", (System.nanoTime() - start) / 1_000_000);
+			if (!compatible)
+			{
+				log.debug("System zlib is not compatible with archive-patcher; not using diffs");
+			}
+
+			// saving waits for the repository lock, which whoever waits for the result may be holding
+			CompletableFuture.runAsync(() -> save(compatible));
+			return compatible;
+		}).exceptionally(ex ->
+		{
+			log.warn("Unable to check zlib compatibility", ex);
+			return false;
+		});
+	}
+
+	/**
+	 * @return the result of the check if it is known, from this run or an earlier one, otherwise null
+	 */
+	@Nullable
+	static synchronized Boolean peek()
+	{
+		if (check == null)
+		{
+			Boolean known = results().get(key());
+			if (known == null)
+			{
+				return null;
+			}
+			check = CompletableFuture.completedFuture(known);
+		}
+		return check.isDone() ? check.join() : null;
+	}
+
+	/**
+	 * @return the result of the check, running it or waiting for it if it isn't known yet
+	 */
+	static boolean isCompatible()
+	{
+		CompletableFuture<Boolean> check;
+		synchronized (DeflateCompatibility.class)
+		{
+			start();
+			check = DeflateCompatibility.check;
+		}
+		return check.join();
+	}
+
+	private static String key()
+	{
+		return System.getProperty("java.vm.vendor") + " " + System.getProperty("java.runtime.version")
+			+ " " + System.getProperty("os.name") + " " + System.getProperty("os.version")
+			+ " " + System.getProperty("os.arch");
+	}
+
+	private static Map<String, Boolean> results()
+	{
+		if (results == null)
+		{
+			results = STATE.read();
+		}
+		return results;
+	}
+
+	private static void save(boolean compatible)
+	{
+		try
+		{
+			Map<String, Boolean> saved = STATE.update(map -> map.put(key(), compatible));
+			synchronized (DeflateCompatibility.class)
+			{
+				results = saved;
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to save zlib compatibility results", e);
+		}
+	}
+}
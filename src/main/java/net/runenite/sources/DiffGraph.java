@@ -0,0 +1,295 @@
+package net.runenite.sources;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Diff;
+import net.runenite.StateFile;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+
+/**
+ * Every diff seen in a bootstrap, as edges from one version of an artifact to the next. A bootstrap only has diffs to
+ * the current versions, so a file two or more releases old can only be brought up to date by a chain of diffs learned
+ * from earlier bootstraps. Edges which are no longer on a short enough chain to a current version are forgotten.
+ */
+@Slf4j
+public class DiffGraph
+{
+	static final File GRAPH_FILE = new File(RUNENITE_DIR, "diffs.json");
+
+	/**
+	 * Longest chain of diffs considered
+	 */
+	static final int MAX_HOPS = 3;
+
+	static class Edge
+	{
+		Diff diff;
+		/**
+		 * Name, hash and size of the version the diff produces
+		 */
+		String to;
+		String toHash;
+		long toSize;
+
+		static Edge of(Artifact artifact, Diff diff)
+		{
+			Edge edge = new Edge();
+			edge.diff = diff;
+			edge.to = artifact.getName();
+			edge.toHash = artifact.getHash();
+			edge.toSize = artifact.getSize();
+			return edge;
+		}
+	}
+
+	private static final StateFile<List<Edge>> STATE = new StateFile<>(GRAPH_FILE, new TypeToken<List<Edge>>()
+	{
+	}, DiffGraph::valid, "diff graph");
+
+	/**
+	 * Keyed by the diff's hash
+	 */
+	private static Map<String, Edge> edges;
+	/**
+	 * The bootstraps' artifacts learned since the last save, in order
+	 */
+	private static final List<Collection<Artifact>> learned = new ArrayList<>();
+
+	/**
+	 * Add the bootstrap's diffs to the graph, and forget those which no longer lead to one of its artifacts. This only
+	 * changes the graph in memory, so that planning has no side effects; {@link #save()} keeps it.
+	 */
+	public static synchronized void learn(Collection<Artifact> artifacts)
+	{
+		if (learn(edges(), artifacts))
+		{
+			log.debug("Diff graph has {} edges", edges.size());
+			learned.add(List.copyOf(artifacts));
+		}
+	}
+
+	/**
+	 * @return whether the graph changed
+	 */
+	private static boolean learn(Map<String, Edge> graph, Collection<Artifact> artifacts)
+	{
+		Set<String> known = new HashSet<>(graph.keySet());
+
+		for (Artifact artifact : artifacts)
+		{
+			if (artifact.getDiffs() != null)
+			{
+				for (Diff diff : artifact.getDiffs())
+				{
+					graph.put(diff.getHash(), Edge.of(artifact, diff));
+				}
+			}
+		}
+
+		List<Edge> kept = prune(graph.values(), artifacts.stream().map(Artifact::getHash).collect(Collectors.toSet()));
+		graph.clear();
+		kept.forEach(edge -> graph.put(edge.diff.getHash(), edge));
+		return !graph.keySet().equals(known);
+	}
+
+	/**
+	 * @return the names of the old versions which diffs in the graph are from, which the repository should keep
+	 */
+	public static synchronized Set<String> bases()
+	{
+		return edges().values().stream()
+			.map(edge -> edge.diff.getFrom())
+			.collect(Collectors.toSet());
+	}
+
+	/**
+	 * @return the hashes of the old versions which diffs in the graph are from, which the content store should keep
+	 */
+	public static synchronized Set<String> baseHashes()
+	{
+		return edges().values().stream()
+			.map(edge -> edge.diff.getFromHash())
+			.collect(Collectors.toSet());
+	}
+
+	/**
+	 * @return the chains of two or more diffs, in the order they are applied, which produce this version
+	 */
+	static synchronized List<List<Edge>> chains(String hash)
+	{
+		return chains(edges().values(), hash);
+	}
+
+	/**
+	 * @return the edges which are on a chain of at most {@link #MAX_HOPS} diffs to one of the given versions
+	 */
+	static List<Edge> prune(Collection<Edge> edges, Set<String> current)
+	{
+		Map<String, List<Edge>> into = byTarget(edges);
+
+		// hops from each version to the nearest current version
+		Map<String, Integer> distance = new HashMap<>();
+		Deque<String> queue = new ArrayDeque<>();
+		for (String hash : current)
+		{
+			distance.put(hash, 0);
+			queue.add(hash);
+		}
+		while (!queue.isEmpty())
+		{
+			String hash = queue.poll();
+			int hops = distance.get(hash) + 1;
+			if (hops > MAX_HOPS)
+			{
+				continue;
+			}
+			for (Edge edge : into.getOrDefault(hash, Collections.emptyList()))
+			{
+				if (!distance.containsKey(edge.diff.getFromHash()))
+				{
+					distance.put(edge.diff.getFromHash(), hops);
+					queue.add(edge.diff.getFromHash());
+				}
+			}
+		}
+
+		return edges.stream()
+			.filter(edge ->
+			{
+				Integer hops = distance.get(edge.toHash);
+				return hops != null && hops < MAX_HOPS;
+			})
+			.collect(Collectors.toList());
+	}
+
+	static List<List<Edge>> chains(Collection<Edge> edges, String hash)
+	{
+		Map<String, List<Edge>> into = byTarget(edges);
+		List<List<Edge>> chains = new ArrayList<>();
+		Deque<Edge> chain = new ArrayDeque<>();
+		Set<String> visited = new HashSet<>();
+		visited.add(hash);
+		extend(into, hash, chain, visited, chains);
+		return chains;
+	}
+
+	private static void extend(Map<String, List<Edge>> into, String hash, Deque<Edge> chain, Set<String> visited, List<List<Edge>> chains)
+	{
+		if (chain.size() == MAX_HOPS)
+		{
+			return;
+		}
+
+		for (Edge edge : into.getOrDefault(hash, Collections.emptyList()))
+		{
+			String from = edge.diff.getFromHash();
+			if (!visited.add(from))
+			{
+				continue;
+			}
+
+			chain.addFirst(edge);
+			if (chain.size() > 1)
+			{
+				chains.add(new ArrayList<>(chain));
+			}
+			extend(into, from, chain, visited, chains);
+			chain.removeFirst();
+			visited.remove(from);
+		}
+	}
+
+	private static Map<String, List<Edge>> byTarget(Collection<Edge> edges)
+	{
+		Map<String, List<Edge>> into = new HashMap<>();
+		for (Edge edge : edges)
+		{
+			into.computeIfAbsent(edge.toHash, k -> new ArrayList<>()).add(edge);
+		}
+		return into;
+	}
+
+	private static Map<String, Edge> edges()
+	{
+		if (edges == null)
+		{
+			edges = byHash(STATE.read());
+		}
+		return edges;
+	}
+
+	private static Map<String, Edge> byHash(List<Edge> list)
+	{
+		Map<String, Edge> graph = new LinkedHashMap<>();
+		list.forEach(edge -> graph.put(edge.diff.getHash(), edge));
+		return graph;
+	}
+
+	private static List<Edge> valid(@Nullable List<Edge> list)
+	{
+		List<Edge> edges = new ArrayList<>();
+		if (list != null)
+		{
+			list.stream()
+				.filter(edge -> edge != null && edge.diff != null && edge.diff.getHash() != null && edge.toHash != null)
+				.forEach(edges::add);
+		}
+		return edges;
+	}
+
+	/**
+	 * Learn the artifacts learned since the last save into the graph as it is saved, which other launchers may have
+	 * learned into since it was read, and write it out.
+	 */
+	public static void save()
+	{
+		List<Collection<Artifact>> saving;
+		synchronized (DiffGraph.class)
+		{
+			if (learned.isEmpty())
+			{
+				return;
+			}
+			saving = List.copyOf(learned);
+		}
+
+		try
+		{
+			List<Edge> saved = STATE.update(list ->
+			{
+				Map<String, Edge> graph = byHash(list);
+				saving.forEach(artifacts -> learn(graph, artifacts));
+				list.clear();
+				list.addAll(graph.values());
+			});
+
+			synchronized (DiffGraph.class)
+			{
+				learned.subList(0, saving.size()).clear();
+				edges = byHash(saved);
+				// and anything learned while saving
+				learned.forEach(artifacts -> learn(edges, artifacts));
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to save diff graph", e);
+		}
+	}
+}
@@ -0,0 +1,352 @@
+package net.runenite.sources;
+
+import com.google.archivepatcher.applier.FileByFileV1DeltaApplier;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.Launcher;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.VerificationException;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Diff;
+import net.runenite.ContentStore;
+import net.runenite.HashIndex;
+import net.runenite.jfr.ArtifactDownloadEvent;
+import net.runenite.jfr.DiffApplyEvent;
+
+/**
+ * Download a diff from an older version of the artifact which we still have, and apply it. The older version is
+ * looked up in the {@link ContentStore} first, since the repository's copy has usually been patched since. When the
+ * bootstrap offers several usable diffs, the one expected to be cheapest to download and apply is used. Versions too old
+ * for a direct diff can be brought up to date through a chain of diffs from the {@link DiffGraph}.
+ */
+@Slf4j
+class DiffSource implements ArtifactSource
+{
+	/**
+	 * Chains of diffs are only used when together they are at most this fraction of the artifact's size, since every
+	 * step recompresses the whole artifact and the estimates for that are rough
+	 */
+	static final double MAX_CHAIN_FRACTION = 0.5;
+
+	static class Candidate
+	{
+		/**
+		 * The diffs to apply in order; a single diff unless there is no direct diff from the old version
+		 */
+		List<DiffGraph.Edge> chain;
+		File old;
+		/**
+		 * The old file's hash, if it is known without reading the file
+		 */
+		@Nullable
+		String oldHash;
+		/**
+		 * Expected milliseconds to check the old file, download the diffs and apply them
+		 */
+		double millis;
+
+		Diff first()
+		{
+			return chain.get(0).diff;
+		}
+
+		long getTransferBytes()
+		{
+			return chain.stream().mapToLong(edge -> edge.diff.getSize()).sum();
+		}
+	}
+
+	@Override
+	public String getName()
+	{
+		return ArtifactDownloadEvent.DIFF;
+	}
+
+	@Override
+	public Estimate estimate(ArtifactRequest request)
+	{
+		List<Candidate> candidates = candidates(request);
+		if (candidates.isEmpty())
+		{
+			return null;
+		}
+
+		Candidate cheapest = candidates.get(0);
+		return new Estimate(this, cheapest.millis, cheapest.getTransferBytes());
+	}
+
+	@Override
+	public boolean deliver(ArtifactRequest request) throws IOException
+	{
+		List<Candidate> candidates = candidates(request);
+		if (candidates.isEmpty() || !DeflateCompatibility.isCompatible())
+		{
+			return false;
+		}
+
+		for (Candidate candidate : candidates)
+		{
+			Diff diff = candidate.first();
+			if (candidate.oldHash == null && !diff.getFromHash().equals(HashIndex.hash(candidate.old)))
+			{
+				log.debug("{} isn't the version {} applies to", candidate.old, diff.getName());
+				continue;
+			}
+
+			if (candidate.chain.size() > 1)
+			{
+				log.info("Updating {} from {} through {} diffs ({} bytes)", request.getArtifact().getName(), diff.getFrom(),
+					candidate.chain.size(), candidate.getTransferBytes());
+			}
+
+			File old = candidate.old;
+			for (DiffGraph.Edge edge : candidate.chain.subList(0, candidate.chain.size() - 1))
+			{
+				old = applyIntermediate(request, edge, old);
+			}
+
+			apply(request, candidate.chain.get(candidate.chain.size() - 1), old);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Apply a diff leading to an intermediate version, which is kept in the content store as a base for next time.
+	 *
+	 * @return the intermediate version
+	 */
+	private static File applyIntermediate(ArtifactRequest request, DiffGraph.Edge edge, File old) throws IOException
+	{
+		File stored = ContentStore.get(edge.toHash);
+		if (stored != null)
+		{
+			return stored;
+		}
+
+		File tmp = new File(request.getDest().getParentFile(), edge.to + "-" + ProcessHandle.current().pid() + ".part");
+		try
+		{
+			String hash = apply(request, edge, old, tmp);
+			if (!edge.toHash.equals(hash))
+			{
+				throw new IOException("Applying " + edge.diff.getName() + " produced " + hash + ", expected " + edge.toHash);
+			}
+			ContentStore.add(tmp, hash);
+			return ContentStore.get(hash);
+		}
+		finally
+		{
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+
+	private static void apply(ArtifactRequest request, DiffGraph.Edge edge, File old) throws IOException
+	{
+		File tmp = request.getTempFile();
+		try
+		{
+			request.commit(tmp, apply(request, edge, old, tmp));
+		}
+		finally
+		{
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+
+	/**
+	 * Download the diff and apply it to old, writing the result to out.
+	 *
+	 * @return the hash of the result
+	 */
+	private static String apply(ArtifactRequest request, DiffGraph.Edge edge, File old, File out) throws IOException
+	{
+		Diff diff = edge.diff;
+		log.debug("Downloading diff {} ({} bytes)", diff.getName(), diff.getSize());
+		DiffApplyEvent diffEvent = new DiffApplyEvent();
+		diffEvent.begin();
+		diffEvent.artifact = request.getArtifact().getName();
+		diffEvent.diff = diff.getName();
+		diffEvent.diffBytes = diff.getSize();
+
+		try
+		{
+			long start = System.nanoTime();
+			ByteArrayOutputStream patch = new ByteArrayOutputStream();
+			Launcher.download(diff.getPath(), diff.getHash(), request::progress, patch);
+			Throughput.record(Throughput.Link.INTERNET, diff.getSize(), System.nanoTime() - start);
+
+			start = System.nanoTime();
+			String hash = null;
+			int threads = Runtime.getRuntime().availableProcessors();
+			if (threads > 1)
+			{
+				try
+				{
+					hash = applyDelta(new ParallelDeltaApplier(out.getParentFile(), threads)::applyDelta, old, patch.toByteArray(), out);
+					if (!edge.toHash.equals(hash))
+					{
+						log.warn("Parallel apply of {} produced {}, expected {}", diff.getName(), hash, edge.toHash);
+						hash = null;
+					}
+				}
+				catch (IOException | RuntimeException e)
+				{
+					log.warn("Unable to apply {} in parallel", diff.getName(), e);
+				}
+			}
+			if (hash == null)
+			{
+				hash = applyDelta(new FileByFileV1DeltaApplier()::applyDelta, old, patch.toByteArray(), out);
+			}
+
+			Throughput.record(Throughput.Link.DIFF_APPLY, out.length(), System.nanoTime() - start);
+			diffEvent.outputBytes = out.length();
+			diffEvent.success = edge.toHash.equals(hash);
+			return hash;
+		}
+		catch (VerificationException e)
+		{
+			throw new IOException(e);
+		}
+		finally
+		{
+			diffEvent.commit();
+		}
+	}
+
+	private interface DeltaApplier
+	{
+		void applyDelta(File oldBlob, InputStream deltaIn, OutputStream newBlobOut) throws IOException;
+	}
+
+	/**
+	 * @return the hash of the output
+	 */
+	private static String applyDelta(DeltaApplier applier, File old, byte[] patch, File out) throws IOException
+	{
+		try (InputStream patchStream = new GZIPInputStream(new ByteArrayInputStream(patch));
+			HashingOutputStream fout = new HashingOutputStream(Hashing.sha256(), Files.newOutputStream(out.toPath())))
+		{
+			applier.applyDelta(old, patchStream, fout);
+			return fout.hash().toString();
+		}
+	}
+
+	/**
+	 * Every diff, or chain of diffs from the {@link DiffGraph}, we may have the old version of, cheapest first. Old
+	 * files in the content store are known to have their hash; others are checked against the {@link HashIndex}, and
+	 * if they haven't been hashed before the cost of reading them is added to the estimate, rather than reading them
+	 * now. Until the zlib check has a result the diffs are assumed usable; deliver waits for it.
+	 */
+	static List<Candidate> candidates(ArtifactRequest request)
+	{
+		Artifact artifact = request.getArtifact();
+		if (request.isNodiff() || Boolean.FALSE.equals(DeflateCompatibility.peek()))
+		{
+			return Collections.emptyList();
+		}
+
+		List<List<DiffGraph.Edge>> chains = new ArrayList<>();
+		if (artifact.getDiffs() != null)
+		{
+			for (Diff diff : artifact.getDiffs())
+			{
+				chains.add(List.of(DiffGraph.Edge.of(artifact, diff)));
+			}
+		}
+		for (List<DiffGraph.Edge> chain : DiffGraph.chains(artifact.getHash()))
+		{
+			long bytes = chain.stream().mapToLong(edge -> edge.diff.getSize()).sum();
+			if (bytes <= artifact.getSize() * MAX_CHAIN_FRACTION)
+			{
+				chains.add(chain);
+			}
+		}
+
+		List<Candidate> candidates = new ArrayList<>(chains.size());
+		for (List<DiffGraph.Edge> chain : chains)
+		{
+			Candidate candidate = candidate(chain);
+			if (candidate != null)
+			{
+				candidate.millis = cost(candidate);
+				candidates.add(candidate);
+			}
+		}
+
+		return select(candidates);
+	}
+
+	@Nullable
+	private static Candidate candidate(List<DiffGraph.Edge> chain)
+	{
+		Diff diff = chain.get(0).diff;
+		Candidate candidate = new Candidate();
+		candidate.chain = chain;
+
+		File stored = ContentStore.get(diff.getFromHash());
+		if (stored != null)
+		{
+			candidate.old = stored;
+			candidate.oldHash = diff.getFromHash();
+			return candidate;
+		}
+
+		File old = new File(REPO_DIR, diff.getFrom());
+		if (!old.isFile())
+		{
+			return null;
+		}
+
+		String hash = HashIndex.cached(old);
+		if (hash != null && !hash.equals(diff.getFromHash()))
+		{
+			// patched since, or some other version
+			return null;
+		}
+		candidate.old = old;
+		candidate.oldHash = hash;
+		return candidate;
+	}
+
+	/**
+	 * @return the candidates ordered by cost, with fewer bytes to download first between equal costs
+	 */
+	static List<Candidate> select(List<Candidate> candidates)
+	{
+		candidates.sort(Comparator.<Candidate>comparingDouble(c -> c.millis)
+			.thenComparingLong(Candidate::getTransferBytes));
+		return candidates;
+	}
+
+	static double cost(Candidate candidate)
+	{
+		double millis = 0;
+		for (DiffGraph.Edge edge : candidate.chain)
+		{
+			millis += ArtifactSources.INTERNET_LATENCY
+				+ Throughput.estimate(Throughput.Link.INTERNET, edge.diff.getSize())
+				+ Throughput.estimate(Throughput.Link.DIFF_APPLY, edge.toSize);
+		}
+		if (candidate.oldHash == null)
+		{
+			millis += Throughput.estimate(Throughput.Link.DISK, candidate.old.length());
+		}
+		return millis;
+	}
+}
@@ -0,0 +1,39 @@
+package net.runenite.sources;
+
+/**
+ * What getting an artifact from a source is expected to cost
+ */
+public class Estimate
+{
+	private final ArtifactSource source;
+	private final double millis;
+	private final long transferBytes;
+
+	Estimate(ArtifactSource source, double millis, long transferBytes)
+	{
+		this.source = source;
+		this.millis = millis;
+		this.transferBytes = transferBytes;
+	}
+
+	public ArtifactSource getSource()
+	{
+		return source;
+	}
+
+	/**
+	 * @return the expected time to deliver the artifact
+	 */
+	public double getMillis()
+	{
+		return millis;
+	}
+
+	/**
+	 * @return the bytes expected to come over the network
+	 */
+	public long getTransferBytes()
+	{
+		return transferBytes;
+	}
+}
@@ -0,0 +1,27 @@
+package net.runenite.sources;
+
+import net.runenite.jfr.ArtifactDownloadEvent;
+
+/**
+ * The artifact is already in the repository
+ */
+class ExistingFileSource implements ArtifactSource
+{
+	@Override
+	public String getName()
+	{
+		return ArtifactDownloadEvent.UP_TO_DATE;
+	}
+
+	@Override
+	public Estimate estimate(ArtifactRequest request)
+	{
+		return request.getArtifact().getHash().equals(request.getCurrentHash()) ? new Estimate(this, 0, 0) : null;
+	}
+
+	@Override
+	public boolean deliver(ArtifactRequest request)
+	{
+		return true;
+	}
+}
@@ -0,0 +1,39 @@
+package net.runenite.sources;
+
+import net.runenite.LocalRepositories;
+import net.runenite.jfr.ArtifactDownloadEvent;
+
+/**
+ * Reuse the artifact from another launcher's repository on this machine
+ */
+class LocalRepositorySource implements ArtifactSource
+{
+	@Override
+	public String getName()
+	{
+		return ArtifactDownloadEvent.LOCAL;
+	}
+
+	@Override
+	public Estimate estimate(ArtifactRequest request)
+	{
+		// the candidate is copied into the content store, hashing it on the way
+		return LocalRepositories.find(request.getArtifact()) != null ?
+			new Estimate(this, Throughput.estimate(Throughput.Link.DISK, request.getArtifact().getSize()), 0) :
+			null;
+	}
+
+	@Override
+	public boolean deliver(ArtifactRequest request)
+	{
+		long start = System.nanoTime();
+		if (!LocalRepositories.install(request.getArtifact(), request.getDest()))
+		{
+			return false;
+		}
+		Throughput.record(Throughput.Link.DISK, request.getArtifact().getSize(), System.nanoTime() - start);
+
+		request.setCurrentHash(request.getArtifact().getHash());
+		return true;
+	}
+}
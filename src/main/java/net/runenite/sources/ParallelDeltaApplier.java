@@ -0,0 +1,211 @@
+package net.runenite.sources;
+
+import com.google.archivepatcher.applier.DeltaDescriptor;
+import com.google.archivepatcher.applier.PatchApplyPlan;
+import com.google.archivepatcher.applier.PatchReader;
+import com.google.archivepatcher.applier.bsdiff.BsDiffDeltaApplier;
+import com.google.archivepatcher.shared.JreDeflateParameters;
+import com.google.archivepatcher.shared.TypedRange;
+import com.google.common.io.ByteStreams;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Applies archive-patcher file-by-file diffs like {@link com.google.archivepatcher.applier.FileByFileV1DeltaApplier},
+ * but inflates the old archive's entries and deflates the new archive's entries on all cores rather than one. Each
+ * entry is deflated on its own with the parameters from the patch, exactly as the upstream applier does, and the
+ * results are written out in order, so the output is byte-identical.
+ */
+class ParallelDeltaApplier
+{
+	private static final int BUFFER_SIZE = 32 * 1024;
+
+	private final File tempDir;
+	private final int threads;
+
+	ParallelDeltaApplier(File tempDir, int threads)
+	{
+		this.tempDir = tempDir;
+		this.threads = threads;
+	}
+
+	/**
+	 * Transforms one range of a file
+	 */
+	interface RangeTransform<T>
+	{
+		byte[] apply(byte[] data, T metadata) throws IOException;
+	}
+
+	void applyDelta(File oldBlob, InputStream deltaIn, OutputStream newBlobOut) throws IOException
+	{
+		PatchApplyPlan plan = new PatchReader().readPatchApplyPlan(deltaIn);
+		List<DeltaDescriptor> descriptors = plan.getDeltaDescriptors();
+		if (descriptors.size() != 1)
+		{
+			throw new IOException("Only one delta is supported, patch has " + descriptors.size());
+		}
+
+		File deltaFriendlyOld = File.createTempFile("runenite-old", ".tmp", tempDir);
+		File deltaFriendlyNew = File.createTempFile("runenite-new", ".tmp", tempDir);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(deltaFriendlyOld.toPath()), BUFFER_SIZE))
+			{
+				transformRanges(oldBlob, plan.getOldFileUncompressionPlan(), (data, metadata) -> inflate(data), out, executor, threads * 2);
+			}
+
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(deltaFriendlyNew.toPath()), BUFFER_SIZE))
+			{
+				new BsDiffDeltaApplier().applyDelta(deltaFriendlyOld, ByteStreams.limit(deltaIn, descriptors.get(0).getDeltaLength()), out);
+			}
+
+			transformRanges(deltaFriendlyNew, plan.getDeltaFriendlyNewFileRecompressionPlan(), ParallelDeltaApplier::deflate, newBlobOut, executor, threads * 2);
+			newBlobOut.flush();
+		}
+		finally
+		{
+			executor.shutdownNow();
+			Files.deleteIfExists(deltaFriendlyOld.toPath());
+			Files.deleteIfExists(deltaFriendlyNew.toPath());
+		}
+	}
+
+	/**
+	 * Copy the file to out, transforming each of the ranges on the executor. At most {@code window} pieces of the
+	 * output are held in memory at once.
+	 *
+	 * @param ranges non-overlapping, in file order
+	 */
+	static <T> void transformRanges(File file, List<TypedRange<T>> ranges, RangeTransform<T> transform, OutputStream out,
+		ExecutorService executor, int window) throws IOException
+	{
+		Deque<Future<byte[]>> pending = new ArrayDeque<>();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			long position = 0;
+			for (TypedRange<T> range : ranges)
+			{
+				long offset = range.getOffset();
+				long length = range.getLength();
+				if (offset > position)
+				{
+					pending.add(CompletableFuture.completedFuture(read(channel, position, offset - position)));
+				}
+				pending.add(executor.submit(() -> transform.apply(read(channel, offset, length), range.getMetadata())));
+				position = offset + length;
+
+				while (pending.size() > window)
+				{
+					out.write(pending.remove().get());
+				}
+			}
+
+			while (!pending.isEmpty())
+			{
+				out.write(pending.remove().get());
+			}
+
+			channel.position(position);
+			Channels.newInputStream(channel).transferTo(out);
+		}
+		catch (ExecutionException e)
+		{
+			throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+		finally
+		{
+			pending.forEach(future -> future.cancel(true));
+		}
+	}
+
+	private static byte[] read(FileChannel channel, long offset, long length) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(length));
+		while (buffer.hasRemaining())
+		{
+			if (channel.read(buffer, offset + buffer.position()) < 0)
+			{
+				throw new IOException("Range " + offset + "+" + length + " is past the end of the file");
+			}
+		}
+		return buffer.array();
+	}
+
+	static byte[] inflate(byte[] data) throws IOException
+	{
+		Inflater inflater = new Inflater(true);
+		try
+		{
+			inflater.setInput(data);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			while (!inflater.finished())
+			{
+				int n = inflater.inflate(buffer);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+				{
+					throw new IOException("Truncated deflate stream");
+				}
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		}
+		catch (DataFormatException e)
+		{
+			throw new IOException(e);
+		}
+		finally
+		{
+			inflater.end();
+		}
+	}
+
+	static byte[] deflate(byte[] data, JreDeflateParameters parameters)
+	{
+		Deflater deflater = new Deflater(parameters.level, parameters.nowrap);
+		try
+		{
+			deflater.setStrategy(parameters.strategy);
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			while (!deflater.finished())
+			{
+				out.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return out.toByteArray();
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+}
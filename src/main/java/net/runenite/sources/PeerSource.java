@@ -0,0 +1,41 @@
+package net.runenite.sources;
+
+import net.runenite.PeerCache;
+import net.runenite.jfr.ArtifactDownloadEvent;
+
+/**
+ * Fetch the artifact from another launcher's {@link net.runenite.RepositoryServer} on the network
+ */
+class PeerSource implements ArtifactSource
+{
+	@Override
+	public String getName()
+	{
+		return ArtifactDownloadEvent.PEER;
+	}
+
+	@Override
+	public Estimate estimate(ArtifactRequest request)
+	{
+		int size = request.getArtifact().getSize();
+		return PeerCache.hasPeers() ?
+			new Estimate(this, ArtifactSources.LAN_LATENCY + Throughput.estimate(Throughput.Link.LAN, size), size) :
+			null;
+	}
+
+	@Override
+	public boolean deliver(ArtifactRequest request)
+	{
+		String hash = request.getArtifact().getHash();
+		long start = System.nanoTime();
+		if (!PeerCache.fetch(hash, request.getDest()))
+		{
+			return false;
+		}
+		Throughput.record(Throughput.Link.LAN, request.getArtifact().getSize(), System.nanoTime() - start);
+
+		// the peer cache checks the hash before moving the file into place
+		request.setCurrentHash(hash);
+		return true;
+	}
+}
@@ -0,0 +1,62 @@
+package net.runenite.sources;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.launcher.Launcher;
+import net.runelite.launcher.VerificationException;
+import net.runelite.launcher.beans.Artifact;
+import net.runenite.jfr.ArtifactDownloadEvent;
+
+/**
+ * Download the whole artifact from the path in the bootstrap
+ */
+@Slf4j
+class RemoteSource implements ArtifactSource
+{
+	@Override
+	public String getName()
+	{
+		return ArtifactDownloadEvent.DOWNLOADED;
+	}
+
+	@Override
+	public Estimate estimate(ArtifactRequest request)
+	{
+		int size = request.getArtifact().getSize();
+		return request.getArtifact().getPath() != null ?
+			new Estimate(this, ArtifactSources.INTERNET_LATENCY + Throughput.estimate(Throughput.Link.INTERNET, size), size) :
+			null;
+	}
+
+	@Override
+	public boolean deliver(ArtifactRequest request) throws IOException
+	{
+		Artifact artifact = request.getArtifact();
+		log.debug("Downloading {}", artifact.getName());
+
+		File tmp = request.getTempFile();
+		try
+		{
+			long start = System.nanoTime();
+			try (OutputStream out = Files.newOutputStream(tmp.toPath()))
+			{
+				// this checks the hash as it goes
+				Launcher.download(artifact.getPath(), artifact.getHash(), request::progress, out);
+			}
+			Throughput.record(Throughput.Link.INTERNET, artifact.getSize(), System.nanoTime() - start);
+			request.commit(tmp, artifact.getHash());
+			return true;
+		}
+		catch (VerificationException e)
+		{
+			throw new IOException(e);
+		}
+		finally
+		{
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+}
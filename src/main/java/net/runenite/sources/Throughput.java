@@ -0,0 +1,133 @@
+package net.runenite.sources;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runenite.StateFile;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+
+/**
+ * Throughput measured on previous transfers, by the kind of link they went over, for estimating what getting an
+ * artifact will cost. Until something has been measured the estimates are rough defaults.
+ */
+@Slf4j
+public class Throughput
+{
+	static final File THROUGHPUT_FILE = new File(RUNENITE_DIR, "throughput.json");
+
+	/**
+	 * Transfers smaller than this are dominated by latency, and say little about throughput
+	 */
+	private static final long MIN_SAMPLE_BYTES = 256 * 1024;
+	/**
+	 * Weight of each new sample in the moving average
+	 */
+	private static final double ALPHA = 0.3;
+
+	public enum Link
+	{
+		DISK(500_000),
+		LAN(50_000),
+		INTERNET(2_000),
+		/**
+		 * Applying a diff, which recompresses the whole artifact
+		 */
+		DIFF_APPLY(20_000);
+
+		/**
+		 * Bytes per millisecond
+		 */
+		private final double defaultRate;
+
+		Link(double defaultRate)
+		{
+			this.defaultRate = defaultRate;
+		}
+	}
+
+	private static final StateFile<Map<Link, Double>> STATE = new StateFile<>(THROUGHPUT_FILE, new TypeToken<Map<Link, Double>>()
+	{
+	}, Throughput::valid, "throughput history");
+
+	private static Map<Link, Double> rates;
+
+	/**
+	 * @return the expected bytes per millisecond over the link
+	 */
+	public static synchronized double rate(Link link)
+	{
+		return rates().getOrDefault(link, link.defaultRate);
+	}
+
+	/**
+	 * @return the expected milliseconds to move the bytes over the link
+	 */
+	public static double estimate(Link link, long bytes)
+	{
+		return bytes / rate(link);
+	}
+
+	/**
+	 * Record a transfer, to improve later estimates.
+	 *
+	 * @param nanos how long it took
+	 */
+	public static void record(Link link, long bytes, long nanos)
+	{
+		if (bytes < MIN_SAMPLE_BYTES || nanos <= 0)
+		{
+			return;
+		}
+
+		double sample = bytes / (nanos / 1_000_000d);
+		try
+		{
+			// averaged into the rate as saved, which other launchers may have moved since it was read
+			Map<Link, Double> saved = STATE.update(map ->
+			{
+				Double previous = map.get(link);
+				double rate = previous == null ? sample : previous + ALPHA * (sample - previous);
+				map.put(link, rate);
+				log.debug("{} throughput {} KiB/s, now expecting {} KiB/s", link, Math.round(sample * 1000 / 1024), Math.round(rate * 1000 / 1024));
+			});
+
+			synchronized (Throughput.class)
+			{
+				rates = saved;
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to save throughput history", e);
+		}
+	}
+
+	private static Map<Link, Double> rates()
+	{
+		if (rates == null)
+		{
+			rates = STATE.read();
+		}
+		return rates;
+	}
+
+	private static Map<Link, Double> valid(@Nullable Map<Link, Double> map)
+	{
+		Map<Link, Double> rates = new EnumMap<>(Link.class);
+		if (map != null)
+		{
+			map.forEach((link, rate) ->
+			{
+				if (link != null && rate != null && rate > 0)
+				{
+					rates.put(link, rate);
+				}
+			});
+		}
+		return rates;
+	}
+}
@@ -0,0 +1,280 @@
+package net.runenite.sources;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import net.runenite.ArtifactPatcher;
+import net.runenite.PatchedManifest;
+import net.runenite.jfr.ArtifactDownloadEvent;
+
+/**
+ * What preparing the repository will do for each artifact, and what it is expected to cost. The plan is computed
+ * up front, only reading the repository, and then executed a step at a time.
+ */
+@Slf4j
+public class UpdatePlan
+{
+	public enum Action
+	{
+		/**
+		 * The upstream artifact is already in the repository
+		 */
+		KEEP,
+		/**
+		 * Our rewrite of the artifact is already in the repository
+		 */
+		KEEP_PATCHED,
+		/**
+		 * The file has an unknown hash, but it is an artifact the launcher was built against, so it was likely
+		 * patched before we kept track
+		 */
+		SKIP,
+		/**
+		 * The file has an unknown hash, and is to be patched regardless
+		 */
+		PATCH_ANYWAY,
+		FETCH,
+		/**
+		 * No source can deliver the artifact
+		 */
+		MISSING
+	}
+
+	public static class Step
+	{
+		private final ArtifactRequest request;
+		private final Action action;
+		/**
+		 * The sources to try, cheapest first
+		 */
+		private final List<Estimate> estimates;
+
+		private Step(ArtifactRequest request, Action action, List<Estimate> estimates)
+		{
+			this.request = request;
+			this.action = action;
+			this.estimates = estimates;
+		}
+
+		public ArtifactRequest getRequest()
+		{
+			return request;
+		}
+
+		public Artifact getArtifact()
+		{
+			return request.getArtifact();
+		}
+
+		public Action getAction()
+		{
+			return action;
+		}
+
+		/**
+		 * @return the estimate for the source expected to deliver the artifact, or null if nothing is to be delivered
+		 */
+		@Nullable
+		public Estimate getEstimate()
+		{
+			return estimates.isEmpty() ? null : estimates.get(0);
+		}
+
+		/**
+		 * Whether the artifact will be the upstream file afterwards, and so still needs patching
+		 */
+		public boolean isUpstream()
+		{
+			return action == Action.KEEP || action == Action.FETCH;
+		}
+
+		/**
+		 * Carry out the step.
+		 *
+		 * @return the outcome, one of the {@link ArtifactDownloadEvent} outcomes
+		 */
+		public String execute()
+		{
+			Artifact artifact = request.getArtifact();
+			switch (action)
+			{
+				case KEEP_PATCHED:
+					return ArtifactDownloadEvent.PATCHED;
+				case SKIP:
+					log.info("Hash for {} is bad or unknown, likely already patched. Skipping...", artifact.getName());
+					return ArtifactDownloadEvent.SKIPPED;
+				case PATCH_ANYWAY:
+					log.info("Hash for {} is bad or unknown, but patching anyway.", artifact.getName());
+					return ArtifactDownloadEvent.PATCHED;
+				case MISSING:
+					return ArtifactDownloadEvent.MISSING;
+				default:
+					request.deleteIfUnreadable();
+					ArtifactSource source = ArtifactSources.acquire(request, estimates);
+					return source != null ? source.getName() : ArtifactDownloadEvent.MISSING;
+			}
+		}
+	}
+
+	private final List<Step> steps;
+
+	private UpdatePlan(List<Step> steps)
+	{
+		this.steps = steps;
+	}
+
+	/**
+	 * Plan getting the artifacts into the repository.
+	 *
+	 * @param patchAnyway whether artifacts with unknown hashes are to be patched, rather than skipped
+	 */
+	public static UpdatePlan compute(List<Artifact> artifacts, boolean nodiff, boolean patchAnyway)
+	{
+		List<Step> steps = new ArrayList<>(artifacts.size());
+		for (Artifact artifact : artifacts)
+		{
+			ArtifactRequest request = new ArtifactRequest(artifact, new File(REPO_DIR, artifact.getName()), nodiff);
+			steps.add(plan(request, patchAnyway));
+		}
+		return new UpdatePlan(steps);
+	}
+
+	private static Step plan(ArtifactRequest request, boolean patchAnyway)
+	{
+		Artifact artifact = request.getArtifact();
+		String hash = request.getCurrentHash();
+		if (hash != null && !hash.equals(artifact.getHash()))
+		{
+			if (PatchedManifest.isPatched(artifact, hash))
+			{
+				if (!ArtifactPatcher.hasPatches(artifact) || PatchedManifest.getCompression(artifact, hash) == ArtifactPatcher.getCompression())
+				{
+					return new Step(request, Action.KEEP_PATCHED, Collections.emptyList());
+				}
+
+				// patched with another compression, so patch it again if the upstream file can be had
+				List<Estimate> estimates = ArtifactSources.estimate(request);
+				if (estimates.isEmpty())
+				{
+					return new Step(request, Action.KEEP_PATCHED, estimates);
+				}
+				return new Step(request, Action.FETCH, estimates);
+			}
+
+			if (patchAnyway)
+			{
+				return new Step(request, Action.PATCH_ANYWAY, Collections.emptyList());
+			}
+
+			if (BundledSource.isBundled(artifact))
+			{
+				return new Step(request, Action.SKIP, Collections.emptyList());
+			}
+		}
+
+		List<Estimate> estimates = ArtifactSources.estimate(request);
+		if (estimates.isEmpty())
+		{
+			return new Step(request, Action.MISSING, estimates);
+		}
+
+		Action action = estimates.get(0).getSource() instanceof ExistingFileSource ? Action.KEEP : Action.FETCH;
+		return new Step(request, action, estimates);
+	}
+
+	/**
+	 * Start the background work the plan's sources need before they deliver. Computing the plan has no side effects,
+	 * so this is only done once the plan is to be executed.
+	 */
+	public void begin()
+	{
+		boolean diffs = steps.stream()
+			.filter(step -> step.action == Action.FETCH)
+			.anyMatch(step -> step.estimates.stream().anyMatch(estimate -> estimate.getSource() instanceof DiffSource));
+		if (diffs)
+		{
+			DeflateCompatibility.start();
+		}
+	}
+
+	public List<Step> getSteps()
+	{
+		return steps;
+	}
+
+	public long getTransferBytes()
+	{
+		return steps.stream()
+			.map(Step::getEstimate)
+			.filter(Objects::nonNull)
+			.mapToLong(Estimate::getTransferBytes)
+			.sum();
+	}
+
+	public double getEstimatedMillis()
+	{
+		return steps.stream()
+			.map(Step::getEstimate)
+			.filter(Objects::nonNull)
+			.mapToDouble(Estimate::getMillis)
+			.sum();
+	}
+
+	/**
+	 * @return the plan as a table, one artifact per line
+	 */
+	public String describe()
+	{
+		int width = steps.stream().mapToInt(s -> s.getArtifact().getName().length()).max().orElse(0);
+		String format = "%-" + Math.max(width, 8) + "s  %-12s  %-15s  %10s  %9s%n";
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(format, "artifact", "action", "source", "transfer", "estimate"));
+		for (Step step : steps)
+		{
+			Estimate estimate = step.getEstimate();
+			sb.append(String.format(format,
+				step.getArtifact().getName(),
+				step.getAction().name().toLowerCase().replace('_', ' '),
+				estimate != null ? sourceName(estimate.getSource()) : "-",
+				estimate != null ? bytes(estimate.getTransferBytes()) : "-",
+				estimate != null ? millis(estimate.getMillis()) : "-"));
+		}
+		sb.append(String.format(format, "total", "", "", bytes(getTransferBytes()), millis(getEstimatedMillis())));
+		return sb.toString();
+	}
+
+	private static String sourceName(ArtifactSource source)
+	{
+		String name = source.getClass().getSimpleName();
+		return name.endsWith("Source") ? name.substring(0, name.length() - "Source".length()) : name;
+	}
+
+	private static String bytes(long bytes)
+	{
+		if (bytes == 0)
+		{
+			return "0";
+		}
+		if (bytes < 1024 * 1024)
+		{
+			return String.format("%.1f KiB", bytes / 1024d);
+		}
+		return String.format("%.1f MiB", bytes / (1024d * 1024d));
+	}
+
+	private static String millis(double millis)
+	{
+		if (millis < 1000)
+		{
+			return Math.round(millis) + "ms";
+		}
+		return String.format("%.1fs", millis / 1000);
+	}
+}
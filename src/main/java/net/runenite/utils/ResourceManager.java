@@ -127,7 +127,16 @@ public class ResourceManager
 				throw new IOException("Resource not found: " + name);
 			}
 
-			Files.copy(is, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			File tmp = new File(dest.getParentFile(), dest.getName() + "-" + ProcessHandle.current().pid() + ".tmp");
+			try
+			{
+				Files.copy(is, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				Files.move(tmp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally
+			{
+				Files.deleteIfExists(tmp.toPath());
+			}
 		}
 	}
 }
@@ -0,0 +1,70 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import net.runelite.launcher.beans.Artifact;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClassPreloaderTest
+{
+	@Before
+	public void before() throws IOException
+	{
+		File[] lists = ClassPreloader.PRELOAD_DIR.listFiles();
+		if (lists != null)
+		{
+			for (File f : lists)
+			{
+				Files.delete(f.toPath());
+			}
+		}
+		Files.createDirectories(ClassPreloader.PRELOAD_DIR.toPath());
+	}
+
+	@Test
+	public void testArtifactSetIsByHash()
+	{
+		Artifact a = artifact("a-1.0.jar", "aa");
+		Artifact b = artifact("b-1.0.jar", "bb");
+
+		// not by order or by name
+		Assert.assertEquals(ClassPreloader.getArtifactSet(List.of(a, b)), ClassPreloader.getArtifactSet(List.of(b, a)));
+		Assert.assertEquals(ClassPreloader.getArtifactSet(List.of(a, b)),
+			ClassPreloader.getArtifactSet(List.of(artifact("renamed.jar", "aa"), b)));
+
+		Assert.assertNotEquals(ClassPreloader.getArtifactSet(List.of(a, b)),
+			ClassPreloader.getArtifactSet(List.of(a, artifact("b-1.0.jar", "cc"))));
+	}
+
+	@Test
+	public void testPruneKeepsNewestLists() throws IOException
+	{
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 6; ++i)
+		{
+			File list = ClassPreloader.getLoadOrderFile("set" + i);
+			Files.write(list.toPath(), List.of("net.runelite.client.RuneLite"));
+			Assert.assertTrue(list.setLastModified(now - (6 - i) * 60_000L));
+		}
+
+		ClassPreloader.prune();
+
+		for (int i = 0; i < 6; ++i)
+		{
+			Assert.assertEquals("set" + i, i >= 2, ClassPreloader.getLoadOrderFile("set" + i).exists());
+		}
+		Assert.assertEquals(ClassPreloader.getLoadOrderFile("set5"), ClassPreloader.getLastLoadOrderFile());
+	}
+
+	private static Artifact artifact(String name, String hash)
+	{
+		Artifact artifact = new Artifact();
+		artifact.setName(name);
+		artifact.setHash(hash);
+		return artifact;
+	}
+}
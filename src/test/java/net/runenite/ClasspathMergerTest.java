@@ -0,0 +1,162 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClasspathMergerTest
+{
+	private static final String SERVICE = "META-INF/services/net.runenite.Service";
+	private static final String MULTI_RELEASE = "Manifest-Version: 1.0\r\nMulti-Release: true\r\n\r\n";
+
+	private final List<File> created = new ArrayList<>();
+
+	@Before
+	public void before() throws IOException
+	{
+		Files.createDirectories(REPO_DIR.toPath());
+	}
+
+	@After
+	public void after() throws IOException
+	{
+		for (File file : created)
+		{
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	@Test
+	public void testServicesAreConcatenated() throws IOException
+	{
+		Artifact a = artifact("services-a", SERVICE, "net.runenite.A");
+		Artifact b = artifact("services-b", "other.txt", "b");
+		Artifact c = artifact("services-c", SERVICE, "net.runenite.C\n");
+
+		List<File> classpath = ClasspathMerger.merge(List.of(a, b, c), List.of());
+		Assert.assertEquals(1, classpath.size());
+
+		String services = new String(TestJars.read(classpath.get(0)).get(SERVICE), StandardCharsets.UTF_8);
+		Assert.assertEquals(List.of("net.runenite.A", "net.runenite.C"), lines(services));
+	}
+
+	@Test
+	public void testFirstJarWins() throws IOException
+	{
+		Artifact a = artifact("first-a", "dup.txt", "a");
+		Artifact b = artifact("first-b", "dup.txt", "b", "only-b.txt", "b");
+
+		List<File> classpath = ClasspathMerger.merge(List.of(a, b), List.of());
+		Map<String, byte[]> merged = TestJars.read(classpath.get(0));
+		Assert.assertEquals("a", new String(merged.get("dup.txt"), StandardCharsets.UTF_8));
+		Assert.assertEquals("b", new String(merged.get("only-b.txt"), StandardCharsets.UTF_8));
+
+		classpath = ClasspathMerger.merge(List.of(b, a), List.of());
+		Assert.assertEquals("b", new String(TestJars.read(classpath.get(0)).get("dup.txt"), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testExcludedJarKeepsItsPlace() throws IOException
+	{
+		Artifact a1 = artifact("order-a1", "a1.txt", "a1");
+		Artifact a2 = artifact("order-a2", "a2.txt", "a2");
+		Artifact mr = artifact("order-mr", "META-INF/MANIFEST.MF", MULTI_RELEASE, "dup.txt", "mr");
+		Artifact c1 = artifact("order-c1", "dup.txt", "c1");
+		Artifact c2 = artifact("order-c2", "c2.txt", "c2");
+
+		List<File> classpath = ClasspathMerger.merge(List.of(a1, a2, mr, c1, c2), List.of());
+		Assert.assertEquals(3, classpath.size());
+		Assert.assertEquals(file(mr), classpath.get(1));
+		Assert.assertEquals(List.of("a1.txt", "a2.txt"), entries(classpath.get(0)));
+		Assert.assertEquals(List.of("dup.txt", "c2.txt"), entries(classpath.get(2)));
+
+		// found where it would be with separate jars
+		Assert.assertEquals(List.of("mr", "c1"), resources(classpath, "dup.txt"));
+	}
+
+	@Test
+	public void testSeparateArtifactKeepsItsPlace() throws IOException
+	{
+		Artifact a = artifact("separate-a", "dup.txt", "a");
+		Artifact deferred = new Artifact();
+		deferred.setName("separate-deferred-1.0.jar");
+		deferred.setHash("0");
+		Artifact c = artifact("separate-c", "c.txt", "c");
+
+		// not ready yet, so it isn't read
+		List<File> classpath = ClasspathMerger.merge(List.of(a, deferred, c), List.of(deferred));
+		Assert.assertEquals(List.of(file(a), file(deferred), file(c)), classpath);
+	}
+
+	private Artifact artifact(String name, String... namesAndContents) throws IOException
+	{
+		Artifact artifact = new Artifact();
+		artifact.setName("merge-" + name + "-1.0.jar");
+		artifact.setHash(name);
+		created.add(TestJars.write(file(artifact), namesAndContents));
+		return artifact;
+	}
+
+	private static File file(Artifact artifact)
+	{
+		return new File(REPO_DIR, artifact.getName());
+	}
+
+	private static List<String> entries(File jar) throws IOException
+	{
+		List<String> names = new ArrayList<>(TestJars.read(jar).keySet());
+		names.remove("META-INF/MANIFEST.MF");
+		return names;
+	}
+
+	private static List<String> lines(String text)
+	{
+		List<String> lines = new ArrayList<>();
+		for (String line : text.split("\n"))
+		{
+			if (!line.isBlank())
+			{
+				lines.add(line.trim());
+			}
+		}
+		return lines;
+	}
+
+	private static List<String> resources(List<File> classpath, String name) throws IOException
+	{
+		URL[] urls = new URL[classpath.size()];
+		for (int i = 0; i < urls.length; ++i)
+		{
+			urls[i] = classpath.get(i).toURI().toURL();
+		}
+
+		List<String> contents = new ArrayList<>();
+		try (URLClassLoader loader = new URLClassLoader(urls, null))
+		{
+			for (URL url : Collections.list(loader.getResources(name)))
+			{
+				var connection = url.openConnection();
+				connection.setUseCaches(false);
+				try (InputStream in = connection.getInputStream())
+				{
+					contents.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+				}
+			}
+		}
+		return contents;
+	}
+}
@@ -0,0 +1,106 @@
+package net.runenite;
+
+import java.util.List;
+import java.util.Optional;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClientErgonomicsTest
+{
+	private static final long MIB = 1024L * 1024L;
+	private static final long GIB = 1024L * MIB;
+
+	@Test
+	public void testHeapIsClamped()
+	{
+		// a quarter of memory, from the bootstrap's 768 MiB, which is left to the bootstrap, up to 4 GiB
+		Assert.assertFalse(heapArg(0).isPresent());
+		Assert.assertFalse(heapArg(2 * GIB).isPresent());
+		Assert.assertFalse(heapArg(3 * GIB).isPresent());
+		Assert.assertEquals("-Xmx769m", heapArg(3 * GIB + 4 * MIB).get());
+		Assert.assertEquals("-Xmx1024m", heapArg(4 * GIB).get());
+		Assert.assertEquals("-Xmx4095m", heapArg(16 * GIB - 4 * MIB).get());
+		Assert.assertEquals("-Xmx4096m", heapArg(16 * GIB).get());
+		Assert.assertEquals("-Xmx4096m", heapArg(64 * GIB).get());
+	}
+
+	@Test
+	public void testGc()
+	{
+		List<String> g1 = List.of("-XX:+UseG1GC", "-XX:MaxGCPauseMillis=50");
+		List<String> zgc = List.of("-XX:+UseZGC", "-XX:+ZGenerational");
+
+		// ZGC from Java 21, 4 cores and a 2 GiB heap, which is 8 GiB of memory
+		Assert.assertEquals(zgc, gc(8 * GIB, 4, 21));
+		Assert.assertEquals(g1, gc(8 * GIB, 3, 21));
+		Assert.assertEquals(g1, gc(8 * GIB, 4, 17));
+		Assert.assertEquals(g1, gc(8 * GIB - 4 * MIB, 4, 21));
+		Assert.assertEquals(g1, gc(0, 64, 21));
+
+		// generational by default from 23
+		Assert.assertEquals(zgc, gc(8 * GIB, 4, 22));
+		Assert.assertEquals(List.of("-XX:+UseZGC"), gc(8 * GIB, 4, 23));
+	}
+
+	@Test
+	public void testLargePages()
+	{
+		Assert.assertTrue(args(8 * GIB, 4, 21, true).contains("-XX:+UseTransparentHugePages"));
+		Assert.assertFalse(args(8 * GIB, 4, 21, false).contains("-XX:+UseTransparentHugePages"));
+		Assert.assertFalse(args(8 * GIB - 4 * MIB, 4, 21, true).contains("-XX:+UseTransparentHugePages"));
+	}
+
+	@Test
+	public void testClassSpace()
+	{
+		Assert.assertTrue(args(4 * GIB - MIB, 4, 21, false).contains("-XX:CompressedClassSpaceSize=256m"));
+		Assert.assertFalse(args(4 * GIB, 4, 21, false).contains("-XX:CompressedClassSpaceSize=256m"));
+		Assert.assertFalse(args(0, 4, 21, false).contains("-XX:CompressedClassSpaceSize=256m"));
+	}
+
+	@Test
+	public void testUserArgsWin()
+	{
+		// nothing is chosen for what the user set
+		Assert.assertEquals(List.of(), args(16 * GIB, 8, 21, true,
+			"-Xmx2g", "-XX:+UseParallelGC", "-XX:-UseTransparentHugePages", "-XX:CompressedClassSpaceSize=128m"));
+		Assert.assertEquals(List.of("-Xmx896m"), args(3584 * MIB, 4, 21, false, "-XX:+UseZGC", "-XX:-UseCompressedClassPointers"));
+	}
+
+	@Test
+	public void testUserHeapDecidesTheRest()
+	{
+		// the user's heap, not the one which would have been chosen, is what the GC and pages are for
+		Assert.assertEquals(List.of("-XX:+UseG1GC", "-XX:MaxGCPauseMillis=50"), args(16 * GIB, 8, 21, true, "-Xmx1g"));
+		Assert.assertEquals(List.of("-XX:+UseG1GC", "-XX:MaxGCPauseMillis=50"), args(16 * GIB, 8, 21, true, "-XX:MaxHeapSize=2047m"));
+		Assert.assertEquals(List.of("-XX:+UseZGC", "-XX:+ZGenerational", "-XX:+UseTransparentHugePages", "-XX:CompressedClassSpaceSize=256m"),
+			args(3 * GIB, 4, 21, true, "-Xmx2048m"));
+		Assert.assertEquals(List.of("-XX:+UseZGC", "-XX:+ZGenerational", "-XX:+UseTransparentHugePages"),
+			args(4 * GIB, 4, 21, true, "-XX:MaxRAMPercentage=50"));
+
+		// the last one wins, as it does for the jvm
+		Assert.assertEquals(List.of("-XX:+UseG1GC", "-XX:MaxGCPauseMillis=50"), args(16 * GIB, 8, 21, false, "-Xmx4g", "-Xmx1g"));
+
+		// the minimum and initial percentages don't change the maximum heap
+		Assert.assertEquals(List.of("-XX:+UseZGC", "-XX:+ZGenerational"), args(16 * GIB, 8, 21, false, "-XX:InitialRAMPercentage=5"));
+	}
+
+	private static Optional<String> heapArg(long memory)
+	{
+		return args(memory, 4, 17, false).stream()
+			.filter(arg -> arg.startsWith("-Xmx"))
+			.findFirst();
+	}
+
+	private static List<String> gc(long memory, int cores, int javaVersion)
+	{
+		List<String> args = args(memory, cores, javaVersion, false);
+		args.removeIf(arg -> arg.startsWith("-Xmx") || arg.startsWith("-XX:CompressedClassSpaceSize"));
+		return args;
+	}
+
+	private static List<String> args(long memory, int cores, int javaVersion, boolean thp, String... userArgs)
+	{
+		return ClientErgonomics.choose(memory, cores, javaVersion, thp, List.of(userArgs)).args;
+	}
+}
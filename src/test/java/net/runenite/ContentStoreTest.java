@@ -0,0 +1,92 @@
+package net.runenite;
+
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import net.runelite.launcher.beans.Artifact;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ContentStoreTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testChangedFileIsEvicted() throws IOException
+	{
+		byte[] content = content("evicted");
+		String hash = sha256(content);
+		File stored = ContentStore.put(new ByteArrayInputStream(content), hash);
+
+		// written in place behind the store's back
+		Files.write(stored.toPath(), content("truncated"));
+
+		Assert.assertNull(ContentStore.verified(hash));
+		Assert.assertFalse(stored.exists());
+		try
+		{
+			ContentStore.install(hash, new File(folder.getRoot(), "dest.jar"));
+			Assert.fail("installed an evicted file");
+		}
+		catch (IOException expected)
+		{
+		}
+	}
+
+	@Test
+	public void testForeignRepositoryIsCopiedNotLinked() throws IOException
+	{
+		byte[] content = content("foreign");
+		File repository = folder.newFolder("repository2");
+		File foreign = new File(repository, "foreign-1.0.jar");
+		Files.write(foreign.toPath(), content);
+
+		Artifact artifact = new Artifact();
+		artifact.setName(foreign.getName());
+		artifact.setHash(sha256(content));
+		artifact.setSize(content.length);
+
+		LocalRepositories.configure(List.of(repository.getPath()));
+		File dest = new File(folder.getRoot(), foreign.getName());
+		Assert.assertTrue(LocalRepositories.install(artifact, dest));
+		Assert.assertArrayEquals(content, Files.readAllBytes(dest.toPath()));
+
+		// the other launcher rewriting its file doesn't reach ours or the store
+		Files.write(foreign.toPath(), content("rewritten"));
+		Assert.assertArrayEquals(content, Files.readAllBytes(dest.toPath()));
+		Assert.assertNotNull(ContentStore.verified(artifact.getHash()));
+	}
+
+	@Test
+	public void testForeignFileWithOtherHashIsNotStored() throws IOException
+	{
+		File repository = folder.newFolder("repository2");
+		File foreign = new File(repository, "other-1.0.jar");
+		Files.write(foreign.toPath(), content("other version"));
+
+		Artifact artifact = new Artifact();
+		artifact.setName(foreign.getName());
+		artifact.setHash(sha256(content("expected version")));
+
+		LocalRepositories.configure(List.of(repository.getPath()));
+		Assert.assertFalse(LocalRepositories.install(artifact, new File(folder.getRoot(), foreign.getName())));
+		Assert.assertNull(ContentStore.get(artifact.getHash()));
+	}
+
+	private static byte[] content(String s)
+	{
+		return (s + " " + ContentStoreTest.class.getName()).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String sha256(byte[] data)
+	{
+		return Hashing.sha256().hashBytes(data).toString();
+	}
+}
@@ -0,0 +1,250 @@
+package net.runenite;
+
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Diff;
+import static net.runenite.RuneNiteLauncher.BOOTSTRAP_FILE;
+import net.runenite.sources.DiffGraph;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GenerationsTest
+{
+	private static final String PREPARATION = "test";
+
+	private final List<File> created = new ArrayList<>();
+
+	@Before
+	public void before() throws IOException
+	{
+		Files.createDirectories(REPO_DIR.toPath());
+		Files.deleteIfExists(Generations.GENERATIONS_FILE.toPath());
+		Generations.configure(3, Long.MAX_VALUE);
+	}
+
+	@After
+	public void after() throws IOException
+	{
+		Generations.configure(3, 2048L * 1024 * 1024);
+		Files.deleteIfExists(Generations.GENERATIONS_FILE.toPath());
+		Files.deleteIfExists(BOOTSTRAP_FILE.toPath());
+		for (File file : created)
+		{
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	@Test
+	public void testRestoreInstallsFromStore() throws IOException
+	{
+		bootstrap("restore");
+		Artifact artifact = artifact("restore", "restore");
+		Generations.record(List.of(artifact), PREPARATION);
+
+		File file = new File(REPO_DIR, artifact.getName());
+		Files.delete(file.toPath());
+
+		Assert.assertTrue(Generations.restore(List.of(artifact), PREPARATION));
+		Assert.assertEquals("restore", Files.readString(file.toPath()));
+
+		// prepared some other way, or for other artifacts
+		Assert.assertFalse(Generations.restore(List.of(artifact), "other"));
+		Assert.assertFalse(Generations.restore(List.of(artifact, artifact("restore-other", "other")), PREPARATION));
+	}
+
+	@Test
+	public void testRestoreChecksStoreFiles() throws IOException
+	{
+		bootstrap("corrupt");
+		Artifact artifact = artifact("corrupt", "corrupt");
+		Generations.record(List.of(artifact), PREPARATION);
+
+		File file = new File(REPO_DIR, artifact.getName());
+		Files.delete(file.toPath());
+		// the store's copy is damaged behind its back
+		File stored = ContentStore.get(artifact.getHash());
+		Files.delete(stored.toPath());
+		Files.writeString(stored.toPath(), "damaged");
+
+		// ContentStore.install checks the file's hash, so the damaged copy is never installed
+		Assert.assertFalse(Generations.restore(List.of(artifact), PREPARATION));
+		Assert.assertFalse(file.exists());
+		Assert.assertNull(ContentStore.get(artifact.getHash()));
+	}
+
+	@Test
+	public void testKeepTrimsLeastRecentlyUsed() throws Exception
+	{
+		Generations.configure(2, Long.MAX_VALUE);
+		Artifact artifact = artifact("keep", "keep");
+		for (String bootstrap : List.of("keep 1", "keep 2", "keep 3"))
+		{
+			bootstrap(bootstrap);
+			Generations.record(List.of(artifact), PREPARATION);
+			Thread.sleep(5);
+		}
+
+		Assert.assertEquals(List.of(sha256("keep 3"), sha256("keep 2")), bootstraps());
+	}
+
+	@Test
+	public void testSameBootstrapIsUsedAgain() throws Exception
+	{
+		bootstrap("again");
+		Artifact artifact = artifact("again", "again");
+		Generations.record(List.of(artifact), PREPARATION);
+		int id = Generations.generations().get(0).id;
+		Thread.sleep(5);
+		Generations.record(List.of(artifact), PREPARATION);
+
+		List<Generations.Generation> generations = Generations.generations();
+		Assert.assertEquals(1, generations.size());
+		Assert.assertEquals(id, generations.get(0).id);
+	}
+
+	@Test
+	public void testSupersededByNewPatches() throws IOException
+	{
+		bootstrap("superseded");
+		Artifact artifact = artifact("superseded", "superseded");
+		Generations.record(List.of(artifact), PREPARATION);
+		int id = Generations.generations().get(0).id;
+
+		// patched since, the same bootstrap prepared the same way
+		File file = new File(REPO_DIR, artifact.getName());
+		write(file, "superseded, patched");
+		PatchedManifest.record(artifact, sha256("superseded, patched"), false, PatchCompression.DEFAULT);
+		Generations.record(List.of(artifact), PREPARATION);
+
+		List<Generations.Generation> generations = Generations.generations();
+		Assert.assertEquals(1, generations.size());
+		Assert.assertNotEquals(id, generations.get(0).id);
+		Assert.assertEquals(sha256("superseded, patched"), generations.get(0).files.get(0).fileHash);
+		Assert.assertEquals(artifact.getHash(), generations.get(0).files.get(0).hash);
+	}
+
+	@Test
+	public void testRollbackPicksNewestOtherBootstrap() throws Exception
+	{
+		Artifact artifact = artifact("rollback", "rollback");
+		for (String bootstrap : List.of("rollback 1", "rollback 2", "rollback 3"))
+		{
+			bootstrap(bootstrap);
+			Generations.record(List.of(artifact), PREPARATION);
+			Thread.sleep(5);
+		}
+
+		Generations.rollback();
+		Assert.assertEquals("rollback 2", Files.readString(BOOTSTRAP_FILE.toPath()));
+
+		// rolling back again goes to the current bootstrap's most recent other, not further back
+		Generations.rollback();
+		Assert.assertEquals("rollback 3", Files.readString(BOOTSTRAP_FILE.toPath()));
+	}
+
+	@Test
+	public void testSelect() throws Exception
+	{
+		Artifact artifact = artifact("select", "select");
+		bootstrap("select 1");
+		Generations.record(List.of(artifact), PREPARATION);
+		int first = Generations.generations().get(0).id;
+		Thread.sleep(5);
+		bootstrap("select 2");
+		Generations.record(List.of(artifact), PREPARATION);
+
+		Generations.select(first);
+		Assert.assertEquals("select 1", Files.readString(BOOTSTRAP_FILE.toPath()));
+
+		try
+		{
+			Generations.select(-1);
+			Assert.fail("selected a generation which doesn't exist");
+		}
+		catch (IOException expected)
+		{
+		}
+	}
+
+	@Test
+	public void testGarbageCollectionKeepsReferencedFiles() throws IOException
+	{
+		byte[] unreferenced = "unreferenced".getBytes(StandardCharsets.UTF_8);
+		ContentStore.put(new ByteArrayInputStream(unreferenced), sha256("unreferenced"));
+		byte[] base = "diff base".getBytes(StandardCharsets.UTF_8);
+		ContentStore.put(new ByteArrayInputStream(base), sha256("diff base"));
+
+		bootstrap("gc");
+		Artifact artifact = artifact("gc", "gc");
+		Diff diff = new Diff();
+		diff.setName("gc.diff");
+		diff.setFrom("gc-old.jar");
+		diff.setFromHash(sha256("diff base"));
+		diff.setHash(sha256("gc.diff"));
+		diff.setSize(1);
+		artifact.setDiffs(new Diff[]{diff});
+		DiffGraph.learn(List.of(artifact));
+
+		// everything not referenced goes
+		Generations.configure(3, 0);
+		Generations.record(List.of(artifact), PREPARATION);
+
+		Assert.assertNull(ContentStore.get(sha256("unreferenced")));
+		Assert.assertNotNull("referenced by the diff graph", ContentStore.get(sha256("diff base")));
+		Assert.assertNotNull("the generation's bootstrap", ContentStore.get(sha256("gc")));
+		Assert.assertNotNull("the generation's file", ContentStore.get(artifact.getHash()));
+	}
+
+	private void bootstrap(String content) throws IOException
+	{
+		Files.createDirectories(BOOTSTRAP_FILE.getParentFile().toPath());
+		write(BOOTSTRAP_FILE, content);
+	}
+
+	private Artifact artifact(String name, String content) throws IOException
+	{
+		Artifact artifact = new Artifact();
+		artifact.setName("generations-" + name + "-1.0.jar");
+		artifact.setHash(sha256(content));
+		artifact.setSize(content.length());
+
+		File file = new File(REPO_DIR, artifact.getName());
+		write(file, content);
+		created.add(file);
+		return artifact;
+	}
+
+	/**
+	 * Replace a file, as the launcher does, rather than write into the file the store may have linked
+	 */
+	private static void write(File file, String content) throws IOException
+	{
+		File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+		Files.writeString(tmp.toPath(), content);
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static List<String> bootstraps()
+	{
+		return Generations.generations().stream()
+			.map(g -> g.bootstrap)
+			.collect(Collectors.toList());
+	}
+
+	private static String sha256(String content)
+	{
+		return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+	}
+}
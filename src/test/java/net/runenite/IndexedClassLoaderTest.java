@@ -0,0 +1,246 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IndexedClassLoaderTest
+{
+	/**
+	 * Loaded from the test jars, it only needs Object
+	 */
+	public static class Fixture
+	{
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void before() throws IOException
+	{
+		File[] indexes = IndexedClassLoader.INDEX_DIR.listFiles();
+		if (indexes != null)
+		{
+			for (File f : indexes)
+			{
+				Files.delete(f.toPath());
+			}
+		}
+	}
+
+	@Test
+	public void testClassBytes() throws Exception
+	{
+		for (boolean stored : new boolean[]{true, false})
+		{
+			Map<String, byte[]> entries = new LinkedHashMap<>();
+			entries.put(TestJars.classEntry(Fixture.class), TestJars.classBytes(Fixture.class));
+			File jar = TestJars.write(folder.newFile(), entries, stored);
+
+			try (IndexedClassLoader loader = loader(jar))
+			{
+				Class<?> clazz = loader.loadClass(Fixture.class.getName());
+				Assert.assertSame(loader, clazz.getClassLoader());
+				Assert.assertNotSame(Fixture.class, clazz);
+				Assert.assertEquals(jar.toURI().toURL(), clazz.getProtectionDomain().getCodeSource().getLocation());
+				Assert.assertNotNull(clazz.getConstructor().newInstance());
+			}
+		}
+	}
+
+	@Test
+	public void testResources() throws IOException
+	{
+		File jar = TestJars.write(folder.newFile(), "a/b.txt", "b", "c.txt", "c");
+		try (IndexedClassLoader loader = loader(jar))
+		{
+			Assert.assertEquals("b", read(loader.getResourceAsStream("a/b.txt")));
+			Assert.assertEquals("c", read(loader.getResource("c.txt").openStream()));
+			Assert.assertNull(loader.getResource("missing.txt"));
+			Assert.assertNull(loader.getResourceAsStream("missing.txt"));
+		}
+	}
+
+	@Test
+	public void testFirstJarWins() throws IOException
+	{
+		File first = TestJars.write(folder.newFile(), "dup.txt", "first", "only-first.txt", "1");
+		File second = TestJars.write(folder.newFile(), "dup.txt", "second", "only-second.txt", "2");
+
+		try (IndexedClassLoader loader = loader(first, second))
+		{
+			Assert.assertEquals("first", read(loader.getResourceAsStream("dup.txt")));
+			Assert.assertEquals(List.of("first", "second"), readAll(loader.getResources("dup.txt")));
+			Assert.assertEquals("2", read(loader.getResourceAsStream("only-second.txt")));
+		}
+		try (IndexedClassLoader loader = loader(second, first))
+		{
+			Assert.assertEquals("second", read(loader.getResourceAsStream("dup.txt")));
+			Assert.assertEquals(List.of("second", "first"), readAll(loader.getResources("dup.txt")));
+		}
+	}
+
+	@Test
+	public void testSignedJarIsDelegated() throws Exception
+	{
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put(TestJars.classEntry(Fixture.class), TestJars.classBytes(Fixture.class));
+		entries.put("signed.txt", TestJars.bytes("signed"));
+		File signed = TestJars.write(folder.newFile("signed.jar"), entries, false);
+		TestJars.sign(signed, folder.getRoot());
+		File plain = TestJars.write(folder.newFile("plain.jar"), "plain.txt", "plain", "signed.txt", "shadowed");
+
+		try (IndexedClassLoader loader = loader(signed, plain))
+		{
+			Class<?> clazz = loader.loadClass(Fixture.class.getName());
+			Assert.assertSame(loader, clazz.getClassLoader());
+			Assert.assertNotNull("signers are kept", clazz.getSigners());
+
+			Assert.assertEquals("signed", read(loader.getResourceAsStream("signed.txt")));
+			Assert.assertEquals(List.of("signed", "shadowed"), readAll(loader.getResources("signed.txt")));
+			Assert.assertEquals("plain", read(loader.getResourceAsStream("plain.txt")));
+		}
+	}
+
+	@Test
+	public void testMultiReleaseJarIsDelegated() throws IOException
+	{
+		File jar = TestJars.write(folder.newFile(),
+			"META-INF/MANIFEST.MF", "Manifest-Version: 1.0\r\nMulti-Release: true\r\n\r\n",
+			"r.txt", "base",
+			"META-INF/versions/11/r.txt", "versioned");
+		File later = TestJars.write(folder.newFile(), "r.txt", "later");
+
+		try (IndexedClassLoader loader = loader(jar, later))
+		{
+			Assert.assertEquals("versioned", read(loader.getResourceAsStream("r.txt")));
+			Assert.assertEquals("versioned", read(loader.getResource("r.txt").openStream()));
+			Assert.assertEquals(List.of("versioned", "later"), readAll(loader.getResources("r.txt")));
+		}
+	}
+
+	@Test
+	public void testCachedIndexIsUsed() throws IOException
+	{
+		File first = TestJars.write(folder.newFile(), "dup.txt", "first");
+		File second = TestJars.write(folder.newFile(), "dup.txt", "second");
+
+		String key;
+		try (IndexedClassLoader loader = loader(first, second))
+		{
+			key = loader.getKey();
+		}
+		Assert.assertTrue(new File(IndexedClassLoader.INDEX_DIR, key + ".idx").exists());
+
+		try (IndexedClassLoader loader = loader(first, second))
+		{
+			Assert.assertEquals(key, loader.getKey());
+			Assert.assertEquals("first", read(loader.getResourceAsStream("dup.txt")));
+			Assert.assertEquals(List.of("first", "second"), readAll(loader.getResources("dup.txt")));
+		}
+	}
+
+	@Test
+	public void testIndexIsKeyedByHash() throws IOException
+	{
+		File a = TestJars.write(new File(folder.getRoot(), "a.jar"), "a.txt", "a");
+		File copy = new File(folder.newFolder(), "a.jar");
+		Files.copy(a.toPath(), copy.toPath());
+		HashIndex.record(a, "aa");
+		HashIndex.record(copy, "aa");
+
+		try (IndexedClassLoader first = loader(a);
+			IndexedClassLoader second = loader(copy))
+		{
+			// the same jars at another path
+			Assert.assertEquals(first.getKey(), second.getKey());
+		}
+
+		HashIndex.record(copy, "bb");
+		try (IndexedClassLoader first = loader(a);
+			IndexedClassLoader changed = loader(copy))
+		{
+			Assert.assertNotEquals(first.getKey(), changed.getKey());
+		}
+	}
+
+	@Test
+	public void testIndexesOfOtherSetsAreKept() throws IOException
+	{
+		File a = TestJars.write(folder.newFile(), "a.txt", "a");
+		File b = TestJars.write(folder.newFile(), "b.txt", "b");
+
+		String first;
+		try (IndexedClassLoader loader = loader(a))
+		{
+			first = loader.getKey();
+		}
+		try (IndexedClassLoader loader = loader(b))
+		{
+			Assert.assertTrue(new File(IndexedClassLoader.INDEX_DIR, loader.getKey() + ".idx").exists());
+		}
+		Assert.assertTrue(new File(IndexedClassLoader.INDEX_DIR, first + ".idx").exists());
+	}
+
+	@Test
+	public void testPruneKeepsNewestIndexes() throws IOException
+	{
+		Files.createDirectories(IndexedClassLoader.INDEX_DIR.toPath());
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 6; ++i)
+		{
+			File index = new File(IndexedClassLoader.INDEX_DIR, "set" + i + ".idx");
+			Files.write(index.toPath(), new byte[0]);
+			Assert.assertTrue(index.setLastModified(now - (6 - i) * 60_000L));
+		}
+
+		IndexedClassLoader.prune();
+
+		for (int i = 0; i < 6; ++i)
+		{
+			Assert.assertEquals("set" + i, i >= 2, new File(IndexedClassLoader.INDEX_DIR, "set" + i + ".idx").exists());
+		}
+	}
+
+	private static IndexedClassLoader loader(File... jars)
+	{
+		return new IndexedClassLoader(List.of(jars), ClassLoader.getPlatformClassLoader());
+	}
+
+	private static String read(InputStream in) throws IOException
+	{
+		Assert.assertNotNull(in);
+		try (in)
+		{
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static List<String> readAll(Enumeration<URL> urls) throws IOException
+	{
+		List<String> contents = new ArrayList<>();
+		for (URL url : Collections.list(urls))
+		{
+			// not cached, so an entry read earlier from the same jar can't be served again
+			var connection = url.openConnection();
+			connection.setUseCaches(false);
+			contents.add(read(connection.getInputStream()));
+		}
+		return contents;
+	}
+}
@@ -0,0 +1,131 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JarReordererTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		for (boolean stored : new boolean[]{true, false})
+		{
+			Map<String, byte[]> entries = new LinkedHashMap<>();
+			entries.put("a/A.class", TestJars.bytes("A"));
+			entries.put("b.txt", TestJars.bytes("b"));
+			entries.put("META-INF/MANIFEST.MF", TestJars.bytes("Manifest-Version: 1.0\r\n\r\n"));
+			entries.put("a/B.class", TestJars.bytes("B"));
+			entries.put("c/C.class", new byte[10_000]);
+			File jar = TestJars.write(folder.newFile(), entries, stored);
+			File out = folder.newFile();
+
+			Assert.assertTrue(JarReorderer.reorder(jar, out, List.of("c/C.class", "missing/M.class", "a/B.class")));
+
+			Map<String, byte[]> reordered = TestJars.read(out);
+			Assert.assertEquals(List.of("META-INF/MANIFEST.MF", "c/C.class", "a/B.class", "a/A.class", "b.txt"),
+				new ArrayList<>(reordered.keySet()));
+			for (Map.Entry<String, byte[]> e : entries.entrySet())
+			{
+				Assert.assertArrayEquals(e.getKey(), e.getValue(), reordered.get(e.getKey()));
+			}
+
+			// read by the local headers, which must agree with the central directory
+			Assert.assertEquals(new ArrayList<>(reordered.keySet()), streamed(out));
+			try (JarFile jarFile = new JarFile(out))
+			{
+				Assert.assertNotNull(jarFile.getManifest());
+			}
+			Assert.assertEquals(List.of("c/C.class", "a/B.class", "a/A.class", "b.txt"), mapped(out));
+		}
+	}
+
+	@Test
+	public void testNothingToReorder() throws IOException
+	{
+		File jar = TestJars.write(folder.newFile(), "a/A.class", "A");
+		File out = new File(folder.getRoot(), "out.jar");
+
+		Assert.assertFalse(JarReorderer.reorder(jar, out, List.of("b/B.class")));
+		Assert.assertFalse(out.exists());
+	}
+
+	@Test
+	public void testSignatureIsKept() throws Exception
+	{
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("a/A.class", TestJars.bytes("A"));
+		entries.put("b/B.class", TestJars.bytes("B"));
+		entries.put("c.txt", TestJars.bytes("c"));
+		File jar = TestJars.write(folder.newFile("signed.jar"), entries, false);
+		TestJars.sign(jar, folder.getRoot());
+		File out = folder.newFile();
+
+		Assert.assertTrue(JarReorderer.reorder(jar, out, List.of("b/B.class", "a/A.class")));
+
+		List<String> names = new ArrayList<>(TestJars.read(out).keySet());
+		Assert.assertEquals(List.of("b/B.class", "a/A.class", "c.txt"), names.subList(names.size() - 3, names.size()));
+
+		try (JarFile jarFile = new JarFile(out, true))
+		{
+			for (JarEntry entry : Collections.list(jarFile.entries()))
+			{
+				if (entry.isDirectory() || entry.getName().startsWith("META-INF/"))
+				{
+					continue;
+				}
+
+				// signers are only known once the entry has been read, which also verifies its digest
+				try (InputStream in = jarFile.getInputStream(entry))
+				{
+					Assert.assertArrayEquals(entries.get(entry.getName()), in.readAllBytes());
+				}
+				Assert.assertNotNull(entry.getName(), entry.getCodeSigners());
+			}
+		}
+	}
+
+	private static List<String> streamed(File jar) throws IOException
+	{
+		List<String> names = new ArrayList<>();
+		try (ZipInputStream in = new ZipInputStream(Files.newInputStream(jar.toPath())))
+		{
+			for (ZipEntry entry; (entry = in.getNextEntry()) != null; )
+			{
+				in.readAllBytes();
+				names.add(entry.getName());
+			}
+		}
+		return names;
+	}
+
+	private static List<String> mapped(File jar) throws IOException
+	{
+		List<String> names = new ArrayList<>();
+		new MappedJar(jar).forEachEntry((name, entry) ->
+		{
+			if (!name.startsWith("META-INF/"))
+			{
+				names.add(name);
+			}
+		}, 0);
+		return names;
+	}
+}
@@ -0,0 +1,115 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedJarTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testEntries() throws IOException
+	{
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("a.txt", TestJars.bytes("a"));
+		entries.put("dir/", new byte[0]);
+		entries.put("dir/empty.txt", new byte[0]);
+		// compressible and incompressible
+		entries.put("dir/zeros.bin", new byte[100_000]);
+		byte[] random = new byte[100_000];
+		new Random(42).nextBytes(random);
+		entries.put("dir/random.bin", random);
+
+		for (boolean stored : new boolean[]{true, false})
+		{
+			File file = TestJars.write(folder.newFile(), entries, stored);
+			MappedJar jar = new MappedJar(file);
+
+			List<String> names = new ArrayList<>();
+			Map<String, IndexedClassLoader.Entry> located = new LinkedHashMap<>();
+			jar.forEachEntry((name, entry) ->
+			{
+				names.add(name);
+				located.put(name, entry);
+			}, 3);
+
+			Assert.assertEquals(new ArrayList<>(entries.keySet()), names);
+			for (Map.Entry<String, byte[]> e : entries.entrySet())
+			{
+				IndexedClassLoader.Entry entry = located.get(e.getKey());
+				Assert.assertEquals(3, entry.jar);
+				Assert.assertEquals(stored ? MappedJar.STORED : MappedJar.DEFLATED, entry.method);
+				Assert.assertArrayEquals(e.getKey(), e.getValue(), bytes(jar.read(entry)));
+			}
+		}
+	}
+
+	@Test
+	public void testCentralDirectoryMatchesZipFile() throws IOException
+	{
+		File file = TestJars.write(folder.newFile(), "a.txt", "aaaaaaaaaaaaaaaa", "b.txt", "b");
+		List<MappedJar.CentralHeader> headers = new MappedJar(file).centralDirectory();
+
+		try (ZipFile zip = new ZipFile(file))
+		{
+			Assert.assertEquals(zip.size(), headers.size());
+			for (MappedJar.CentralHeader header : headers)
+			{
+				var entry = zip.getEntry(header.name);
+				Assert.assertEquals(entry.getSize(), header.size);
+				Assert.assertEquals(entry.getCompressedSize(), header.compressedSize);
+				Assert.assertEquals(entry.getMethod(), header.method);
+			}
+		}
+	}
+
+	@Test
+	public void testNotAZip() throws IOException
+	{
+		File file = folder.newFile();
+		Files.write(file.toPath(), TestJars.bytes("not a zip, but long enough to have an end record in it"));
+		try
+		{
+			new MappedJar(file).centralDirectory();
+			Assert.fail("read a central directory from a text file");
+		}
+		catch (ZipException expected)
+		{
+		}
+	}
+
+	@Test
+	public void testBadOffset() throws IOException
+	{
+		MappedJar jar = new MappedJar(TestJars.write(folder.newFile(), "a.txt", "a"));
+		try
+		{
+			jar.read(new IndexedClassLoader.Entry(0, 1, 1, 1, MappedJar.STORED));
+			Assert.fail("read an entry without a local header");
+		}
+		catch (ZipException expected)
+		{
+		}
+	}
+
+	private static byte[] bytes(ByteBuffer buffer)
+	{
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return bytes;
+	}
+}
@@ -0,0 +1,88 @@
+package net.runenite;
+
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PeerCacheTest
+{
+	private static final byte[] CONTENT = "artifact contents".getBytes(StandardCharsets.UTF_8);
+	private static final String HASH = Hashing.sha256().hashBytes(CONTENT).toString();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private RepositoryServer empty;
+	private RepositoryServer lying;
+	private RepositoryServer good;
+
+	@Before
+	public void before() throws IOException
+	{
+		empty = server(folder.newFolder("empty"));
+
+		File lyingDir = folder.newFolder("lying");
+		Files.write(new File(lyingDir, HASH).toPath(), "something else".getBytes(StandardCharsets.UTF_8));
+		lying = server(lyingDir);
+
+		File goodDir = folder.newFolder("good");
+		Files.write(new File(goodDir, HASH).toPath(), CONTENT);
+		good = server(goodDir);
+	}
+
+	@After
+	public void after()
+	{
+		empty.stop();
+		lying.stop();
+		good.stop();
+	}
+
+	@Test
+	public void testFetchFromFirstPeerWithFile() throws IOException
+	{
+		File dest = new File(folder.getRoot(), "artifact.jar");
+		Assert.assertTrue(PeerCache.fetch(List.of(uri(empty), uri(lying), uri(good)), HASH, dest));
+		Assert.assertArrayEquals(CONTENT, Files.readAllBytes(dest.toPath()));
+	}
+
+	@Test
+	public void testRejectBadContent()
+	{
+		File dest = new File(folder.getRoot(), "artifact.jar");
+		Assert.assertFalse(PeerCache.fetch(List.of(uri(empty), uri(lying)), HASH, dest));
+		Assert.assertFalse(dest.exists());
+	}
+
+	@Test
+	public void testRejectPathOutsideStore()
+	{
+		File dest = new File(folder.getRoot(), "artifact.jar");
+		Assert.assertFalse(PeerCache.fetch(List.of(uri(good)), "..%2Fgood%2F" + HASH, dest));
+		Assert.assertFalse(dest.exists());
+	}
+
+	private static RepositoryServer server(File dir) throws IOException
+	{
+		RepositoryServer server = new RepositoryServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), dir);
+		server.start();
+		return server;
+	}
+
+	private static URI uri(RepositoryServer server)
+	{
+		return URI.create("http://127.0.0.1:" + server.getPort() + "/");
+	}
+}
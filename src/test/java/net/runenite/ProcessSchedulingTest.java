@@ -0,0 +1,88 @@
+package net.runenite;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import net.runenite.ProcessScheduling.IoClass;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProcessSchedulingTest
+{
+	@After
+	public void after()
+	{
+		ProcessScheduling.configure(null, IoClass.DEFAULT, null, null);
+	}
+
+	@Test
+	public void testCpuList()
+	{
+		Map<String, Boolean> lists = Map.ofEntries(
+			Map.entry("0", true),
+			Map.entry("3", true),
+			Map.entry("4", false),
+			Map.entry("0-3", true),
+			Map.entry("2-9", true),
+			Map.entry("4-9", false),
+			Map.entry("3-3", true),
+			Map.entry("3-1", false),
+			Map.entry("0-7:2", true),
+			Map.entry("0-7:0", false),
+			Map.entry("0,8", true),
+			Map.entry("8,0", true),
+			Map.entry("8,9", false),
+			Map.entry("0-3,8-9:0", false),
+			Map.entry("", false),
+			Map.entry("0,", false),
+			Map.entry(",0", false),
+			Map.entry("-1", false),
+			Map.entry(" 0", false),
+			Map.entry("0:2", false),
+			Map.entry("a", false),
+			Map.entry("123456", false));
+
+		// for a machine with 4 cpus
+		lists.forEach((list, valid) -> Assert.assertEquals('"' + list + '"', valid, ProcessScheduling.isValidCpuList(list, 4)));
+	}
+
+	@Test
+	public void testCommandPrefix()
+	{
+		Object[][] rows = {
+			// nice, I/O class, I/O level, cpus, prefix
+			{null, IoClass.DEFAULT, null, null, List.of()},
+			{-20, IoClass.DEFAULT, null, null, List.of("nice", "-n", "-20")},
+			{19, IoClass.DEFAULT, null, null, List.of("nice", "-n", "19")},
+			{-21, IoClass.DEFAULT, null, null, List.of()},
+			{20, IoClass.DEFAULT, null, null, List.of()},
+			{null, IoClass.IDLE, null, null, List.of("ionice", "-t", "-c", "3")},
+			{null, IoClass.BEST_EFFORT, 0, null, List.of("ionice", "-t", "-c", "2", "-n", "0")},
+			{null, IoClass.REALTIME, 7, null, List.of("ionice", "-t", "-c", "1", "-n", "7")},
+			{null, IoClass.BEST_EFFORT, -1, null, List.of("ionice", "-t", "-c", "2")},
+			{null, IoClass.BEST_EFFORT, 8, null, List.of("ionice", "-t", "-c", "2")},
+			// idle has no levels
+			{null, IoClass.IDLE, 4, null, List.of("ionice", "-t", "-c", "3")},
+			// a level alone doesn't change the class
+			{null, IoClass.DEFAULT, 4, null, List.of()},
+			{null, IoClass.DEFAULT, null, "0", List.of("taskset", "-c", "0")},
+			{null, IoClass.DEFAULT, null, "0-1:0", List.of()},
+			{5, IoClass.BEST_EFFORT, 6, "0", List.of("nice", "-n", "5", "ionice", "-t", "-c", "2", "-n", "6", "taskset", "-c", "0")},
+		};
+
+		for (Object[] row : rows)
+		{
+			ProcessScheduling.configure((Integer) row[0], (IoClass) row[1], (Integer) row[2], (String) row[3]);
+			Assert.assertEquals(Arrays.asList(row).subList(0, 4).toString(), row[4], ProcessScheduling.getCommandPrefix(command -> true));
+		}
+	}
+
+	@Test
+	public void testMissingCommandIsSkipped()
+	{
+		ProcessScheduling.configure(5, IoClass.IDLE, null, "0");
+		Assert.assertEquals(List.of("nice", "-n", "5", "taskset", "-c", "0"),
+			ProcessScheduling.getCommandPrefix(command -> !command.equals("ionice")));
+	}
+}
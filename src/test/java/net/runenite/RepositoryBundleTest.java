@@ -0,0 +1,227 @@
+package net.runenite;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import joptsimple.OptionParser;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Bootstrap;
+import static net.runenite.RuneNiteLauncher.BOOTSTRAP_FILE;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RepositoryBundleTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final List<File> created = new ArrayList<>();
+
+	@Before
+	public void before() throws IOException
+	{
+		Files.createDirectories(REPO_DIR.toPath());
+	}
+
+	@After
+	public void after() throws IOException
+	{
+		Files.deleteIfExists(BOOTSTRAP_FILE.toPath());
+		deleteArtifacts();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		Artifact a = artifact("round-trip-a", "a");
+		Artifact b = artifact("round-trip-b", "b");
+		byte[] bootstrap = bootstrap("round trip", a, b);
+
+		File bundle = new File(folder.getRoot(), "bundle.zip");
+		RepositoryBundle.export(bundle);
+		Assert.assertEquals(List.of("manifest.json", "bootstrap.json", "repository/" + a.getName(), "repository/" + b.getName()),
+			new ArrayList<>(TestJars.read(bundle).keySet()));
+
+		deleteArtifacts();
+		Assert.assertEquals(PrepareOnly.OK, importBundle(bundle));
+
+		Assert.assertEquals("a", Files.readString(file(a).toPath()));
+		Assert.assertEquals("b", Files.readString(file(b).toPath()));
+		Assert.assertEquals(b.getHash(), HashIndex.cached(file(b)));
+		Assert.assertArrayEquals(bootstrap, Files.readAllBytes(BOOTSTRAP_FILE.toPath()));
+	}
+
+	@Test
+	public void testUnknownBootstrapIsRejected() throws IOException
+	{
+		Artifact a = artifact("unknown", "unknown");
+		bootstrap("unknown 1", a);
+		File bundle = new File(folder.getRoot(), "bundle.zip");
+		RepositoryBundle.export(bundle);
+
+		// the launcher has since moved on to a bootstrap the bundle's isn't
+		byte[] current = bootstrap("unknown 2", a);
+		deleteArtifacts();
+
+		Assert.assertEquals(PrepareOnly.VERIFY_FAILED, importBundle(bundle));
+		Assert.assertFalse(file(a).exists());
+		Assert.assertArrayEquals(current, Files.readAllBytes(BOOTSTRAP_FILE.toPath()));
+	}
+
+	@Test
+	public void testMismatchedEntryIsRejected() throws IOException
+	{
+		Artifact a = artifact("mismatch-a", "mismatch a");
+		Artifact b = artifact("mismatch-b", "mismatch b");
+		bootstrap("mismatch", a, b);
+		File bundle = new File(folder.getRoot(), "bundle.zip");
+		RepositoryBundle.export(bundle);
+		deleteArtifacts();
+
+		// the manifest doesn't have the bootstrap's hash
+		File hash = rewrite(bundle, "hash.zip", (manifest, files) -> manifest.files.get(1).hash = sha256("other"));
+		Assert.assertEquals(PrepareOnly.VERIFY_FAILED, importBundle(hash));
+
+		// the file is another size than the manifest says
+		File size = rewrite(bundle, "size.zip", (manifest, files) -> manifest.files.get(1).size++);
+		Assert.assertEquals(PrepareOnly.VERIFY_FAILED, importBundle(size));
+
+		// the file has the size, but not the content
+		File content = rewrite(bundle, "content.zip", (manifest, files) ->
+			files.put("repository/" + b.getName(), TestJars.bytes("mismatch c")));
+		Assert.assertEquals(PrepareOnly.VERIFY_FAILED, importBundle(content));
+
+		// nothing is installed from a bundle which doesn't verify, not even the files which do
+		Assert.assertFalse(file(a).exists());
+		Assert.assertFalse(file(b).exists());
+	}
+
+	@Test
+	public void testPathsAreRejected() throws IOException
+	{
+		for (String name : List.of("../bundle-escape-1.0.jar", "sub/bundle-escape-1.0.jar", "sub\\bundle-escape-1.0.jar"))
+		{
+			Artifact artifact = new Artifact();
+			artifact.setName(name);
+			artifact.setHash(sha256("escape"));
+			artifact.setSize(6);
+			// the bootstrap is trusted and has the hash, it's the name which mustn't be used
+			byte[] bootstrap = bootstrap("escape", artifact);
+
+			RepositoryBundle.Entry entry = new RepositoryBundle.Entry();
+			entry.name = name;
+			entry.hash = artifact.getHash();
+			entry.size = artifact.getSize();
+			RepositoryBundle.Manifest manifest = new RepositoryBundle.Manifest();
+			manifest.files.add(entry);
+
+			File bundle = write(folder.newFile(), manifest, Map.of(
+				"bootstrap.json", bootstrap,
+				"repository/" + name, TestJars.bytes("escape")));
+			Assert.assertEquals(name, PrepareOnly.VERIFY_FAILED, importBundle(bundle));
+		}
+
+		Assert.assertFalse(new File(REPO_DIR.getParentFile(), "bundle-escape-1.0.jar").exists());
+		Assert.assertFalse(new File(REPO_DIR, "sub").exists());
+	}
+
+	private interface Change
+	{
+		void apply(RepositoryBundle.Manifest manifest, Map<String, byte[]> files);
+	}
+
+	/**
+	 * Copy a bundle, changing its manifest or files
+	 */
+	private File rewrite(File bundle, String name, Change change) throws IOException
+	{
+		Map<String, byte[]> files = TestJars.read(bundle);
+		RepositoryBundle.Manifest manifest = new Gson().fromJson(new String(files.remove("manifest.json"), StandardCharsets.UTF_8),
+			RepositoryBundle.Manifest.class);
+		change.apply(manifest, files);
+		return write(new File(folder.getRoot(), name), manifest, files);
+	}
+
+	private static File write(File bundle, RepositoryBundle.Manifest manifest, Map<String, byte[]> files) throws IOException
+	{
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("manifest.json", TestJars.bytes(new Gson().toJson(manifest)));
+		entries.putAll(files);
+		return TestJars.write(bundle, entries, true);
+	}
+
+	private static int importBundle(File bundle)
+	{
+		OptionParser parser = new OptionParser();
+		RuneNiteLauncher.extendOptionsParser(parser);
+		return RepositoryBundle.run(parser.parse("--import-bundle", bundle.getPath()));
+	}
+
+	/**
+	 * Make a bootstrap of the artifacts, and make it the current one
+	 */
+	private static byte[] bootstrap(String version, Artifact... artifacts) throws IOException
+	{
+		Bootstrap bootstrap = new Bootstrap();
+		bootstrap.setRequiredLauncherVersion(version);
+		bootstrap.setArtifacts(artifacts);
+		byte[] bytes = TestJars.bytes(new Gson().toJson(bootstrap));
+
+		Files.createDirectories(BOOTSTRAP_FILE.getParentFile().toPath());
+		write(BOOTSTRAP_FILE, bytes);
+		return bytes;
+	}
+
+	private Artifact artifact(String name, String content) throws IOException
+	{
+		Artifact artifact = new Artifact();
+		artifact.setName("bundle-" + name + "-1.0.jar");
+		artifact.setHash(sha256(content));
+		artifact.setSize(content.length());
+
+		write(file(artifact), TestJars.bytes(content));
+		created.add(file(artifact));
+		return artifact;
+	}
+
+	private void deleteArtifacts() throws IOException
+	{
+		for (File file : created)
+		{
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	private static File file(Artifact artifact)
+	{
+		return new File(REPO_DIR, artifact.getName());
+	}
+
+	/**
+	 * Replace a file, as the launcher does, rather than write into the file the store may have linked
+	 */
+	private static void write(File file, byte[] content) throws IOException
+	{
+		File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+		Files.write(tmp.toPath(), content);
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static String sha256(String content)
+	{
+		return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+	}
+}
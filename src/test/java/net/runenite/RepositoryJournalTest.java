@@ -0,0 +1,117 @@
+package net.runenite;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import net.runelite.launcher.beans.Artifact;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static net.runenite.RuneNiteLauncher.RUNENITE_DIR;
+
+public class RepositoryJournalTest
+{
+	private static final byte[] OLD = "upstream artifact".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] NEW = "patched artifact".getBytes(StandardCharsets.UTF_8);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File dest;
+	private File tmp;
+
+	@Before
+	public void before() throws IOException
+	{
+		Files.createDirectories(RUNENITE_DIR.toPath());
+		Files.deleteIfExists(RepositoryJournal.JOURNAL_FILE.toPath());
+		// left by earlier runs; each test records a different artifact, so what this run recorded can stay
+		Files.deleteIfExists(PatchedManifest.MANIFEST_FILE.toPath());
+		Files.deleteIfExists(HashIndex.INDEX_FILE.toPath());
+
+		dest = new File(folder.getRoot(), "artifact.jar");
+		tmp = new File(folder.getRoot(), "artifact.jar.tmp");
+		Files.write(dest.toPath(), OLD);
+	}
+
+	@Test
+	public void testCompletesRewriteInterruptedBeforeMove() throws IOException
+	{
+		// crashed after the journal was written, before tmp was moved over dest
+		Files.write(tmp.toPath(), NEW);
+		Artifact artifact = journal("before-move");
+
+		RepositoryJournal.recover();
+
+		Assert.assertFalse(tmp.exists());
+		Assert.assertArrayEquals(NEW, Files.readAllBytes(dest.toPath()));
+		assertRecorded(artifact);
+	}
+
+	@Test
+	public void testCompletesRewriteInterruptedAfterMove() throws IOException
+	{
+		// crashed after tmp was moved over dest, before the rewrite was recorded
+		Files.write(dest.toPath(), NEW);
+		Artifact artifact = journal("after-move");
+
+		RepositoryJournal.recover();
+
+		Assert.assertArrayEquals(NEW, Files.readAllBytes(dest.toPath()));
+		assertRecorded(artifact);
+	}
+
+	@Test
+	public void testRollsBackIncompleteRewrite() throws IOException
+	{
+		// crashed while tmp was still being written
+		Files.write(tmp.toPath(), "patched".getBytes(StandardCharsets.UTF_8));
+		Artifact artifact = journal("incomplete");
+
+		RepositoryJournal.recover();
+
+		Assert.assertFalse(tmp.exists());
+		Assert.assertArrayEquals(OLD, Files.readAllBytes(dest.toPath()));
+		Assert.assertFalse(PatchedManifest.isPatched(artifact, sha256(NEW)));
+		Assert.assertFalse(RepositoryJournal.JOURNAL_FILE.exists());
+	}
+
+	private void assertRecorded(Artifact artifact)
+	{
+		Assert.assertTrue(PatchedManifest.isPatched(artifact, sha256(NEW)));
+		Assert.assertTrue(PatchedManifest.isReordered(artifact, sha256(NEW)));
+		Assert.assertEquals(sha256(NEW), HashIndex.cached(dest));
+		Assert.assertFalse(RepositoryJournal.JOURNAL_FILE.exists());
+	}
+
+	/**
+	 * Journal a rewrite of dest to {@link #NEW}, as {@link RepositoryJournal#replace} does before moving it into place
+	 */
+	private Artifact journal(String name) throws IOException
+	{
+		Artifact artifact = new Artifact();
+		artifact.setName(name + ".jar");
+		artifact.setHash(sha256(OLD));
+
+		RepositoryJournal.Entry entry = new RepositoryJournal.Entry();
+		entry.name = artifact.getName();
+		entry.hash = artifact.getHash();
+		entry.tmp = tmp.getAbsolutePath();
+		entry.dest = dest.getAbsolutePath();
+		entry.newHash = sha256(NEW);
+		entry.reordered = true;
+		Files.write(RepositoryJournal.JOURNAL_FILE.toPath(), new Gson().toJson(List.of(entry)).getBytes(StandardCharsets.UTF_8));
+		return artifact;
+	}
+
+	private static String sha256(byte[] data)
+	{
+		return Hashing.sha256().hashBytes(data).toString();
+	}
+}
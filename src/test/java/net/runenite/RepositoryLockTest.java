@@ -0,0 +1,191 @@
+package net.runenite;
+
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RepositoryLockTest
+{
+	private static final String PREPARATION = "test";
+
+	private final List<File> created = new ArrayList<>();
+
+	@Before
+	public void before() throws IOException
+	{
+		Files.createDirectories(REPO_DIR.toPath());
+		Files.deleteIfExists(RepositoryLock.PREPARED_FILE.toPath());
+	}
+
+	@After
+	public void after() throws IOException
+	{
+		Files.deleteIfExists(RepositoryLock.PREPARED_FILE.toPath());
+		for (File file : created)
+		{
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	@Test
+	@SuppressWarnings("try")
+	public void testReentrant() throws Exception
+	{
+		CompletableFuture<Void> other;
+		try (var outer = RepositoryLock.acquire())
+		{
+			try (var inner = RepositoryLock.acquire())
+			{
+				Assert.assertTrue(fileLocked());
+			}
+
+			// closing the inner lock leaves the outer one held
+			Assert.assertTrue(fileLocked());
+			other = acquireElsewhere();
+			Thread.sleep(100);
+			Assert.assertFalse(other.isDone());
+		}
+
+		other.get(10, TimeUnit.SECONDS);
+		Assert.assertFalse(fileLocked());
+	}
+
+	@Test
+	@SuppressWarnings("try")
+	public void testExcludesOtherThreads() throws Exception
+	{
+		CompletableFuture<Void> other;
+		try (var lock = RepositoryLock.acquire())
+		{
+			other = acquireElsewhere();
+			Thread.sleep(100);
+			Assert.assertFalse(other.isDone());
+		}
+
+		other.get(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	@SuppressWarnings("try")
+	public void testPrepared() throws Exception
+	{
+		Artifact a = artifact("prepared-a", "a");
+		Artifact b = artifact("prepared-b", "b");
+		try (var lock = RepositoryLock.acquire())
+		{
+			Assert.assertFalse(lock.isPrepared(List.of(a, b), PREPARATION));
+
+			lock.markPrepared(List.of(a, b), PREPARATION);
+			Assert.assertTrue(lock.isPrepared(List.of(a, b), PREPARATION));
+			Assert.assertTrue("the order of the artifacts doesn't matter", lock.isPrepared(List.of(b, a), PREPARATION));
+
+			Assert.assertFalse("prepared another way", lock.isPrepared(List.of(a, b), "other"));
+			Assert.assertFalse("for other artifacts", lock.isPrepared(List.of(a), PREPARATION));
+
+			lock.clearPrepared();
+			Assert.assertFalse(lock.isPrepared(List.of(a, b), PREPARATION));
+		}
+	}
+
+	@Test
+	@SuppressWarnings("try")
+	public void testChangedFileIsNotPrepared() throws Exception
+	{
+		Artifact a = artifact("changed-a", "a");
+		try (var lock = RepositoryLock.acquire())
+		{
+			lock.markPrepared(List.of(a), PREPARATION);
+
+			// the same size, but written again since
+			File file = new File(REPO_DIR, a.getName());
+			write(file, "c");
+			file.setLastModified(file.lastModified() + 2000);
+			Assert.assertFalse(lock.isPrepared(List.of(a), PREPARATION));
+
+			lock.markPrepared(List.of(a), PREPARATION);
+			Assert.assertTrue(lock.isPrepared(List.of(a), PREPARATION));
+
+			Files.delete(file.toPath());
+			Assert.assertFalse(lock.isPrepared(List.of(a), PREPARATION));
+		}
+	}
+
+	/**
+	 * Acquire and release the lock on another thread
+	 *
+	 * @return completed once the other thread has had the lock
+	 */
+	@SuppressWarnings("try")
+	private static CompletableFuture<Void> acquireElsewhere()
+	{
+		return CompletableFuture.runAsync(() ->
+		{
+			try (var lock = RepositoryLock.acquire())
+			{
+				Assert.assertTrue(fileLocked());
+			}
+			catch (IOException e)
+			{
+				throw new RuntimeException(e);
+			}
+		});
+	}
+
+	/**
+	 * Whether this process holds the lock file's lock
+	 */
+	private static boolean fileLocked() throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(RepositoryLock.LOCK_FILE.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE))
+		{
+			FileLock lock = channel.tryLock();
+			Assert.assertNotNull("locked by another process", lock);
+			lock.release();
+			return false;
+		}
+		catch (OverlappingFileLockException e)
+		{
+			return true;
+		}
+	}
+
+	private Artifact artifact(String name, String content) throws IOException
+	{
+		Artifact artifact = new Artifact();
+		artifact.setName("lock-" + name + "-1.0.jar");
+		artifact.setHash(Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString());
+		artifact.setSize(content.length());
+
+		File file = new File(REPO_DIR, artifact.getName());
+		write(file, content);
+		created.add(file);
+		return artifact;
+	}
+
+	/**
+	 * Replace a file, as the launcher does, rather than write into the file the store may have linked
+	 */
+	private static void write(File file, String content) throws IOException
+	{
+		File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+		Files.writeString(tmp.toPath(), content);
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
@@ -0,0 +1,79 @@
+package net.runenite;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StateFileTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testUpdateKeepsOtherWriters() throws IOException
+	{
+		StateFile<Map<String, Integer>> first = state();
+		StateFile<Map<String, Integer>> second = state();
+
+		first.update(map -> map.put("a", 1));
+		Map<String, Integer> read = second.read();
+
+		// another launcher writes after this one read
+		first.update(map -> map.put("b", 2));
+		Map<String, Integer> saved = second.update(map -> map.put("c", read.get("a") + 2));
+
+		Assert.assertEquals(Map.of("a", 1, "b", 2, "c", 3), saved);
+		Assert.assertEquals(saved, first.read());
+		Assert.assertArrayEquals(new String[]{"state.json"}, first.getFile().getParentFile().list());
+	}
+
+	@Test
+	public void testUnreadableFileIsEmpty() throws IOException
+	{
+		StateFile<Map<String, Integer>> state = state();
+		Files.write(state.getFile().toPath(), "{\"a\": 1, ".getBytes(StandardCharsets.UTF_8));
+
+		Assert.assertEquals(Map.of(), state.read());
+		Assert.assertEquals(Map.of("b", 2), state.update(map -> map.put("b", 2)));
+	}
+
+	@Test
+	public void testInvalidEntriesAreDropped() throws IOException
+	{
+		StateFile<Map<String, Integer>> state = state();
+		Files.write(state.getFile().toPath(), "{\"a\": 1, \"b\": null}".getBytes(StandardCharsets.UTF_8));
+
+		Assert.assertEquals(Map.of("a", 1), state.read());
+	}
+
+	private StateFile<Map<String, Integer>> state() throws IOException
+	{
+		File dir = new File(folder.getRoot(), "state");
+		Files.createDirectories(dir.toPath());
+		return new StateFile<>(new File(dir, "state.json"), new TypeToken<Map<String, Integer>>()
+		{
+		}, map ->
+		{
+			Map<String, Integer> valid = new HashMap<>();
+			if (map != null)
+			{
+				map.forEach((key, value) ->
+				{
+					if (value != null)
+					{
+						valid.put(key, value);
+					}
+				});
+			}
+			return valid;
+		}, "test state");
+	}
+}
@@ -0,0 +1,135 @@
+package net.runenite;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.Assume;
+
+/**
+ * Jars for tests
+ */
+class TestJars
+{
+	static byte[] bytes(String content)
+	{
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * The class file of a class on the test classpath
+	 */
+	static byte[] classBytes(Class<?> clazz) throws IOException
+	{
+		try (InputStream in = clazz.getResourceAsStream("/" + classEntry(clazz)))
+		{
+			return in.readAllBytes();
+		}
+	}
+
+	static String classEntry(Class<?> clazz)
+	{
+		return clazz.getName().replace('.', '/') + ".class";
+	}
+
+	/**
+	 * Write a jar with the entries in order, either all stored or all deflated
+	 */
+	static File write(File file, Map<String, byte[]> entries, boolean stored) throws IOException
+	{
+		try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(file.toPath())))
+		{
+			for (Map.Entry<String, byte[]> e : entries.entrySet())
+			{
+				JarEntry entry = new JarEntry(e.getKey());
+				if (stored)
+				{
+					CRC32 crc = new CRC32();
+					crc.update(e.getValue());
+					entry.setMethod(ZipEntry.STORED);
+					entry.setSize(e.getValue().length);
+					entry.setCompressedSize(e.getValue().length);
+					entry.setCrc(crc.getValue());
+				}
+				out.putNextEntry(entry);
+				out.write(e.getValue());
+				out.closeEntry();
+			}
+		}
+		return file;
+	}
+
+	static File write(File file, String... namesAndContents) throws IOException
+	{
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		for (int i = 0; i < namesAndContents.length; i += 2)
+		{
+			entries.put(namesAndContents[i], bytes(namesAndContents[i + 1]));
+		}
+		return write(file, entries, false);
+	}
+
+	/**
+	 * The entries of a jar, in order
+	 */
+	static Map<String, byte[]> read(File file) throws IOException
+	{
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		try (ZipFile zip = new ZipFile(file))
+		{
+			for (ZipEntry entry : Collections.list(zip.entries()))
+			{
+				try (InputStream in = zip.getInputStream(entry))
+				{
+					entries.put(entry.getName(), in.readAllBytes());
+				}
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Sign a jar in place with a throwaway key, skipping the test when the JDK's tools aren't there
+	 */
+	static void sign(File jar, File dir) throws IOException, InterruptedException
+	{
+		File bin = new File(System.getProperty("java.home"), "bin");
+		File keytool = new File(bin, "keytool");
+		File jarsigner = new File(bin, "jarsigner");
+		Assume.assumeTrue("keytool and jarsigner are needed to sign jars", keytool.canExecute() && jarsigner.canExecute());
+
+		File keystore = new File(dir, "signing.p12");
+		if (!keystore.exists())
+		{
+			run(List.of(keytool.getPath(), "-genkeypair", "-keystore", keystore.getPath(), "-storetype", "PKCS12",
+				"-storepass", "password", "-keypass", "password", "-alias", "test", "-dname", "CN=test",
+				"-keyalg", "RSA", "-keysize", "2048", "-validity", "1"));
+		}
+		run(List.of(jarsigner.getPath(), "-keystore", keystore.getPath(), "-storetype", "PKCS12",
+			"-storepass", "password", jar.getPath(), "test"));
+	}
+
+	private static void run(List<String> command) throws IOException, InterruptedException
+	{
+		Process process = new ProcessBuilder(command)
+			.redirectErrorStream(true)
+			.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+			.start();
+		if (!process.waitFor(60, TimeUnit.SECONDS) || process.exitValue() != 0)
+		{
+			process.destroyForcibly();
+			throw new IOException("failed: " + command);
+		}
+	}
+}
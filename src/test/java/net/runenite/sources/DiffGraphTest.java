@@ -0,0 +1,74 @@
+package net.runenite.sources;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import net.runelite.launcher.beans.Diff;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DiffGraphTest
+{
+	private static final DiffGraph.Edge V1_V2 = edge("v1", "v2", 100);
+	private static final DiffGraph.Edge V2_V3 = edge("v2", "v3", 100);
+	private static final DiffGraph.Edge V3_V4 = edge("v3", "v4", 100);
+	private static final DiffGraph.Edge V2_V4 = edge("v2", "v4", 300);
+	private static final DiffGraph.Edge V0_V1 = edge("v0", "v1", 100);
+
+	@Test
+	public void testChains()
+	{
+		List<List<DiffGraph.Edge>> chains = DiffGraph.chains(List.of(V1_V2, V2_V3, V3_V4, V2_V4), "v4");
+
+		Set<String> names = chains.stream().map(DiffGraphTest::names).collect(Collectors.toSet());
+		Assert.assertEquals(Set.of("v2>v3 v3>v4", "v1>v2 v2>v3 v3>v4", "v1>v2 v2>v4"), names);
+	}
+
+	@Test
+	public void testChainsAreLimitedInLength()
+	{
+		List<List<DiffGraph.Edge>> chains = DiffGraph.chains(List.of(V0_V1, V1_V2, V2_V3, V3_V4), "v4");
+
+		Assert.assertTrue(chains.stream().allMatch(chain -> chain.size() <= DiffGraph.MAX_HOPS));
+		Assert.assertTrue(chains.stream().noneMatch(chain -> chain.get(0) == V0_V1));
+	}
+
+	@Test
+	public void testPruneForgetsEdgesTooFarFromCurrent()
+	{
+		List<DiffGraph.Edge> kept = DiffGraph.prune(List.of(V0_V1, V1_V2, V2_V3, V3_V4), Set.of("v4"));
+
+		Assert.assertEquals(List.of(V1_V2, V2_V3, V3_V4), kept);
+	}
+
+	@Test
+	public void testPruneForgetsEdgesToNowhere()
+	{
+		DiffGraph.Edge abandoned = edge("v3", "v3-beta", 100);
+		List<DiffGraph.Edge> kept = DiffGraph.prune(List.of(V3_V4, abandoned), Set.of("v4"));
+
+		Assert.assertEquals(List.of(V3_V4), kept);
+	}
+
+	private static String names(List<DiffGraph.Edge> chain)
+	{
+		return chain.stream().map(edge -> edge.diff.getFromHash() + ">" + edge.toHash).collect(Collectors.joining(" "));
+	}
+
+	private static DiffGraph.Edge edge(String from, String to, int size)
+	{
+		Diff diff = new Diff();
+		diff.setName(to + "-from-" + from + ".apdiff.gz");
+		diff.setFrom("client-" + from + ".jar");
+		diff.setFromHash(from);
+		diff.setHash(to + "-" + from);
+		diff.setSize(size);
+
+		DiffGraph.Edge edge = new DiffGraph.Edge();
+		edge.diff = diff;
+		edge.to = "client-" + to + ".jar";
+		edge.toHash = to;
+		edge.toSize = 1000;
+		return edge;
+	}
+}
@@ -0,0 +1,185 @@
+package net.runenite.sources;
+
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Diff;
+import net.runenite.ContentStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DiffSourceTest
+{
+	private static final int SIZE = 1000;
+
+	private final List<File> created = new ArrayList<>();
+
+	@Before
+	public void before() throws IOException
+	{
+		Files.createDirectories(REPO_DIR.toPath());
+		Files.deleteIfExists(DiffGraph.GRAPH_FILE.toPath());
+		Files.deleteIfExists(DeflateCompatibility.CACHE_FILE.toPath());
+	}
+
+	@After
+	public void after() throws IOException
+	{
+		for (File file : created)
+		{
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	@Test
+	public void testSelectOrdersByCostThenBytes()
+	{
+		DiffSource.Candidate slow = candidate(10, 100);
+		DiffSource.Candidate large = candidate(5, 1000);
+		DiffSource.Candidate small = candidate(5, 100);
+
+		List<DiffSource.Candidate> selected = DiffSource.select(new ArrayList<>(List.of(slow, large, small)));
+		Assert.assertEquals(List.of(small, large, slow), selected);
+	}
+
+	@Test
+	public void testCost() throws IOException
+	{
+		File old = new File(REPO_DIR, "diff-source-cost-old.jar");
+		Files.write(old.toPath(), new byte[64 * 1024]);
+		created.add(old);
+
+		DiffSource.Candidate known = candidate(old, "hash", edge("v1", "v2", 100));
+		DiffSource.Candidate unknown = candidate(old, null, edge("v1", "v2", 100));
+		DiffSource.Candidate larger = candidate(old, "hash", edge("v1", "v2", 200));
+		DiffSource.Candidate chain = candidate(old, "hash", edge("v0", "v1", 50), edge("v1", "v2", 50));
+
+		// an old file which hasn't been hashed is read first
+		Assert.assertEquals(Throughput.estimate(Throughput.Link.DISK, old.length()),
+			DiffSource.cost(unknown) - DiffSource.cost(known), 1e-6);
+		Assert.assertTrue(DiffSource.cost(larger) > DiffSource.cost(known));
+		// every step of a chain is another request and another apply, for the same bytes
+		Assert.assertTrue(DiffSource.cost(chain) > DiffSource.cost(known) + ArtifactSources.INTERNET_LATENCY);
+	}
+
+	@Test
+	public void testCheapestUsableCandidateFirst() throws IOException
+	{
+		Artifact artifact = artifact("cheapest");
+		artifact.setDiffs(new Diff[]{
+			diff(artifact, "large", stored("cheapest large"), 500),
+			diff(artifact, "small", stored("cheapest small"), 100),
+			// the smallest, but we don't have the version it's from
+			diff(artifact, "missing", sha256("cheapest missing"), 10),
+		});
+
+		List<DiffSource.Candidate> candidates = DiffSource.candidates(request(artifact));
+		Assert.assertEquals(List.of("small", "large"), froms(candidates));
+		Assert.assertTrue(candidates.stream().allMatch(candidate -> candidate.millis == DiffSource.cost(candidate)));
+	}
+
+	@Test
+	public void testLongChainsAreDropped() throws IOException
+	{
+		// v3 is only reachable from versions we have through v2, which we don't have
+		Artifact v2 = artifact("chain-v2");
+		Artifact v3 = artifact("chain-v3");
+		Diff v2v3 = diff(v3, "v2", v2.getHash(), 100);
+		v3.setDiffs(new Diff[]{v2v3});
+		v2.setDiffs(new Diff[]{
+			// together with v2 to v3, exactly the most a chain may be
+			diff(v2, "v1", stored("chain v1"), (int) (SIZE * DiffSource.MAX_CHAIN_FRACTION) - 100),
+			diff(v2, "v0", stored("chain v0"), (int) (SIZE * DiffSource.MAX_CHAIN_FRACTION) - 99),
+		});
+		DiffGraph.learn(List.of(v2, v3));
+
+		List<DiffSource.Candidate> candidates = DiffSource.candidates(request(v3));
+		Assert.assertEquals(List.of("v1"), froms(candidates));
+		Assert.assertEquals(2, candidates.get(0).chain.size());
+		Assert.assertEquals(v2v3.getHash(), candidates.get(0).chain.get(1).diff.getHash());
+	}
+
+	private static ArtifactRequest request(Artifact artifact)
+	{
+		return new ArtifactRequest(artifact, new File(REPO_DIR, artifact.getName()), false);
+	}
+
+	private static List<String> froms(List<DiffSource.Candidate> candidates)
+	{
+		return candidates.stream()
+			.map(candidate -> candidate.first().getFrom())
+			.map(from -> from.substring("diff-source-".length(), from.length() - ".jar".length()))
+			.collect(Collectors.toList());
+	}
+
+	private static DiffSource.Candidate candidate(double millis, int bytes)
+	{
+		DiffSource.Candidate candidate = candidate(null, "hash", edge("v1", "v2", bytes));
+		candidate.millis = millis;
+		return candidate;
+	}
+
+	private static DiffSource.Candidate candidate(File old, String oldHash, DiffGraph.Edge... chain)
+	{
+		DiffSource.Candidate candidate = new DiffSource.Candidate();
+		candidate.chain = List.of(chain);
+		candidate.old = old;
+		candidate.oldHash = oldHash;
+		return candidate;
+	}
+
+	private static DiffGraph.Edge edge(String from, String to, int size)
+	{
+		Artifact artifact = new Artifact();
+		artifact.setName("diff-source-" + to + ".jar");
+		artifact.setHash(to);
+		artifact.setSize(SIZE);
+		return DiffGraph.Edge.of(artifact, diff(artifact, from, from, size));
+	}
+
+	private static Artifact artifact(String name)
+	{
+		Artifact artifact = new Artifact();
+		artifact.setName("diff-source-" + name + ".jar");
+		artifact.setHash(sha256(name));
+		artifact.setSize(SIZE);
+		return artifact;
+	}
+
+	private static Diff diff(Artifact to, String from, String fromHash, int size)
+	{
+		Diff diff = new Diff();
+		diff.setName(to.getName() + "-from-" + from + ".apdiff.gz");
+		diff.setFrom("diff-source-" + from + ".jar");
+		diff.setFromHash(fromHash);
+		diff.setHash(sha256(diff.getName()));
+		diff.setPath("https://example.invalid/" + diff.getName());
+		diff.setSize(size);
+		return diff;
+	}
+
+	/**
+	 * @return the hash of the content, now in the content store
+	 */
+	private static String stored(String content) throws IOException
+	{
+		String hash = sha256(content);
+		ContentStore.put(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), hash);
+		return hash;
+	}
+
+	private static String sha256(String content)
+	{
+		return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+	}
+}
@@ -0,0 +1,302 @@
+package net.runenite.sources;
+
+import com.google.archivepatcher.applier.FileByFileV1DeltaApplier;
+import com.google.archivepatcher.shared.JreDeflateParameters;
+import com.google.archivepatcher.shared.TypedRange;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParallelDeltaApplierTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ExecutorService executor;
+
+	@Before
+	public void before()
+	{
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void after()
+	{
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testRecompressionMatchesSequential() throws IOException
+	{
+		Random random = new Random(48);
+		ByteArrayOutputStream blob = new ByteArrayOutputStream();
+		List<TypedRange<JreDeflateParameters>> ranges = new ArrayList<>();
+		int[] strategies = {Deflater.DEFAULT_STRATEGY, Deflater.FILTERED, Deflater.HUFFMAN_ONLY};
+		for (int i = 0; i < 40; ++i)
+		{
+			// an uncompressed header, then an entry to compress
+			blob.write(bytes(random, 30 + random.nextInt(50), false));
+			byte[] entry = bytes(random, random.nextInt(200_000), true);
+			ranges.add(new TypedRange<>(blob.size(), entry.length,
+				JreDeflateParameters.of(1 + random.nextInt(9), strategies[random.nextInt(strategies.length)], random.nextBoolean())));
+			blob.write(entry);
+		}
+		blob.write(bytes(random, 1000, false));
+
+		File file = folder.newFile();
+		Files.write(file.toPath(), blob.toByteArray());
+
+		ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+		ParallelDeltaApplier.transformRanges(file, ranges, ParallelDeltaApplier::deflate, parallel, executor, 8);
+
+		Assert.assertArrayEquals(sequential(blob.toByteArray(), ranges), parallel.toByteArray());
+	}
+
+	@Test
+	public void testInflateRanges() throws IOException
+	{
+		Random random = new Random(48);
+		byte[] header = bytes(random, 100, false);
+		byte[] entry = bytes(random, 50_000, true);
+		byte[] compressed = ParallelDeltaApplier.deflate(entry, JreDeflateParameters.of(6, Deflater.DEFAULT_STRATEGY, true));
+
+		File file = folder.newFile();
+		Files.write(file.toPath(), concat(header, compressed, header));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ParallelDeltaApplier.transformRanges(file, List.of(new TypedRange<Void>(header.length, compressed.length, null)),
+			(data, metadata) -> ParallelDeltaApplier.inflate(data), out, executor, 1);
+
+		Assert.assertArrayEquals(concat(header, entry, header), out.toByteArray());
+	}
+
+	@Test
+	public void testMatchesUpstreamApplier() throws IOException
+	{
+		Random random = new Random(48);
+		Archive oldArchive = archive(random, 30);
+		Archive newArchive = archive(random, 40);
+		byte[] patch = patch(oldArchive, newArchive);
+
+		File oldFile = folder.newFile();
+		Files.write(oldFile.toPath(), oldArchive.bytes);
+
+		ByteArrayOutputStream upstream = new ByteArrayOutputStream();
+		new FileByFileV1DeltaApplier(folder.getRoot()).applyDelta(oldFile, new ByteArrayInputStream(patch), upstream);
+
+		ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+		new ParallelDeltaApplier(folder.getRoot(), 4).applyDelta(oldFile, new ByteArrayInputStream(patch), parallel);
+
+		Assert.assertArrayEquals(newArchive.bytes, upstream.toByteArray());
+		Assert.assertArrayEquals(upstream.toByteArray(), parallel.toByteArray());
+	}
+
+	private static final class Archive
+	{
+		byte[] bytes;
+		/**
+		 * The archive with its entries uncompressed, which is what the delta is between
+		 */
+		byte[] deltaFriendly;
+		/**
+		 * The compressed entries in the archive
+		 */
+		final List<TypedRange<Void>> compressed = new ArrayList<>();
+		/**
+		 * The same entries in the delta friendly archive, with the parameters they were compressed with
+		 */
+		final List<TypedRange<JreDeflateParameters>> uncompressed = new ArrayList<>();
+	}
+
+	/**
+	 * A zip of deflated entries, each at a random level
+	 */
+	private static Archive archive(Random random, int entries) throws IOException
+	{
+		Archive archive = new Archive();
+		List<byte[]> contents = new ArrayList<>();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(out))
+		{
+			for (int i = 0; i < entries; ++i)
+			{
+				int level = 1 + random.nextInt(9);
+				byte[] data = bytes(random, random.nextInt(100_000), true);
+
+				zip.setLevel(level);
+				ZipEntry entry = new ZipEntry("entry" + i);
+				zip.putNextEntry(entry);
+				// the local header is written straight through, so the data starts here
+				int offset = out.size();
+				zip.write(data);
+				zip.closeEntry();
+
+				archive.compressed.add(new TypedRange<>(offset, entry.getCompressedSize(), null));
+				contents.add(data);
+				archive.uncompressed.add(new TypedRange<>(0, data.length, JreDeflateParameters.of(level, Deflater.DEFAULT_STRATEGY, true)));
+			}
+		}
+		archive.bytes = out.toByteArray();
+
+		ByteArrayOutputStream deltaFriendly = new ByteArrayOutputStream();
+		int position = 0;
+		for (int i = 0; i < entries; ++i)
+		{
+			TypedRange<Void> range = archive.compressed.get(i);
+			deltaFriendly.write(archive.bytes, position, (int) range.getOffset() - position);
+			archive.uncompressed.set(i, new TypedRange<>(deltaFriendly.size(), contents.get(i).length, archive.uncompressed.get(i).getMetadata()));
+			deltaFriendly.write(contents.get(i));
+			position = (int) (range.getOffset() + range.getLength());
+		}
+		deltaFriendly.write(archive.bytes, position, archive.bytes.length - position);
+		archive.deltaFriendly = deltaFriendly.toByteArray();
+		return archive;
+	}
+
+	/**
+	 * A file-by-file v1 patch in archive-patcher's format. The bsdiff delta adds the differences to the start of the old
+	 * delta friendly archive and copies in the rest of the new one.
+	 */
+	private static byte[] patch(Archive from, Archive to) throws IOException
+	{
+		ByteArrayOutputStream delta = new ByteArrayOutputStream();
+		int common = Math.min(from.deltaFriendly.length, to.deltaFriendly.length);
+		delta.write("ENDSLEY/BSDIFF43".getBytes(StandardCharsets.US_ASCII));
+		writeBsdiffLong(delta, to.deltaFriendly.length);
+		writeBsdiffLong(delta, common);
+		writeBsdiffLong(delta, to.deltaFriendly.length - common);
+		writeBsdiffLong(delta, 0);
+		for (int i = 0; i < common; ++i)
+		{
+			delta.write(to.deltaFriendly[i] - from.deltaFriendly[i]);
+		}
+		delta.write(to.deltaFriendly, common, to.deltaFriendly.length - common);
+
+		ByteArrayOutputStream patch = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(patch);
+		out.write("GFbFv1_0".getBytes(StandardCharsets.US_ASCII));
+		out.writeInt(0);
+		out.writeLong(from.deltaFriendly.length);
+		out.writeInt(from.compressed.size());
+		for (TypedRange<Void> range : from.compressed)
+		{
+			out.writeLong(range.getOffset());
+			out.writeLong(range.getLength());
+		}
+		out.writeInt(to.uncompressed.size());
+		for (TypedRange<JreDeflateParameters> range : to.uncompressed)
+		{
+			JreDeflateParameters parameters = range.getMetadata();
+			out.writeLong(range.getOffset());
+			out.writeLong(range.getLength());
+			// the default deflate compatibility window
+			out.writeByte(0);
+			out.writeByte(parameters.level);
+			out.writeByte(parameters.strategy);
+			out.writeByte(parameters.nowrap ? 1 : 0);
+		}
+		// one bsdiff delta over the whole of both delta friendly archives
+		out.writeInt(1);
+		out.writeByte(0);
+		out.writeLong(0);
+		out.writeLong(from.deltaFriendly.length);
+		out.writeLong(0);
+		out.writeLong(to.deltaFriendly.length);
+		out.writeLong(delta.size());
+		delta.writeTo(out);
+		return patch.toByteArray();
+	}
+
+	private static void writeBsdiffLong(OutputStream out, long value) throws IOException
+	{
+		for (int i = 0; i < 8; ++i)
+		{
+			out.write((int) (value >>> (i * 8)));
+		}
+	}
+
+	/**
+	 * Compress the ranges the way archive-patcher's PartiallyCompressingOutputStream does, with one deflater fed in
+	 * small writes and reset between ranges
+	 */
+	private static byte[] sequential(byte[] blob, List<TypedRange<JreDeflateParameters>> ranges) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Deflater deflater = null;
+		boolean nowrap = false;
+		int position = 0;
+		for (TypedRange<JreDeflateParameters> range : ranges)
+		{
+			int offset = (int) range.getOffset();
+			out.write(blob, position, offset - position);
+
+			JreDeflateParameters parameters = range.getMetadata();
+			if (deflater == null || nowrap != parameters.nowrap)
+			{
+				if (deflater != null)
+				{
+					deflater.end();
+				}
+				deflater = new Deflater(parameters.level, parameters.nowrap);
+				nowrap = parameters.nowrap;
+			}
+			deflater.setLevel(parameters.level);
+			deflater.setStrategy(parameters.strategy);
+			DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater, 4096);
+			for (int i = offset; i < offset + range.getLength(); i += 1000)
+			{
+				deflaterOut.write(blob, i, (int) Math.min(1000, offset + range.getLength() - i));
+			}
+			deflaterOut.finish();
+			deflater.reset();
+			position = offset + (int) range.getLength();
+		}
+		out.write(blob, position, blob.length - position);
+		deflater.end();
+		return out.toByteArray();
+	}
+
+	private static byte[] bytes(Random random, int length, boolean compressible)
+	{
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; ++i)
+		{
+			data[i] = (byte) (compressible ? 'a' + random.nextInt(8) : random.nextInt());
+		}
+		return data;
+	}
+
+	private static byte[] concat(byte[]... arrays)
+	{
+		byte[] result = new byte[Arrays.stream(arrays).mapToInt(a -> a.length).sum()];
+		int position = 0;
+		for (byte[] array : arrays)
+		{
+			System.arraycopy(array, 0, result, position, array.length);
+			position += array.length;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,212 @@
+package net.runenite.sources;
+
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import static net.runelite.launcher.Launcher.REPO_DIR;
+import net.runelite.launcher.beans.Artifact;
+import net.runelite.launcher.beans.Diff;
+import net.runenite.ContentStore;
+import net.runenite.PatchedManifest;
+import net.runenite.RuneNiteLauncher;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UpdatePlanTest
+{
+	private static final int LARGE = 10 * 1024 * 1024;
+
+	private final List<File> created = new ArrayList<>();
+
+	@Before
+	public void before() throws IOException
+	{
+		Files.createDirectories(REPO_DIR.toPath());
+		Files.deleteIfExists(DiffGraph.GRAPH_FILE.toPath());
+		Files.deleteIfExists(DeflateCompatibility.CACHE_FILE.toPath());
+	}
+
+	@After
+	public void after() throws IOException
+	{
+		for (File file : created)
+		{
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	@Test
+	public void testKeepsArtifactAlreadyInRepository() throws IOException
+	{
+		Artifact artifact = artifact("kept", content("kept"));
+		repository(artifact.getName(), content("kept"));
+
+		UpdatePlan.Step step = plan(artifact);
+		Assert.assertEquals(UpdatePlan.Action.KEEP, step.getAction());
+		Assert.assertTrue(step.getEstimate().getSource() instanceof ExistingFileSource);
+	}
+
+	@Test
+	public void testFetchesFromContentStoreBeforeRemote() throws IOException
+	{
+		Artifact artifact = artifact("stored", content("stored"));
+		artifact.setPath("https://example.invalid/stored.jar");
+		ContentStore.put(new ByteArrayInputStream(content("stored")), artifact.getHash());
+
+		UpdatePlan.Step step = plan(artifact);
+		Assert.assertEquals(UpdatePlan.Action.FETCH, step.getAction());
+		Assert.assertTrue(step.getEstimate().getSource() instanceof ContentStoreSource);
+		Assert.assertEquals(0, step.getEstimate().getTransferBytes());
+	}
+
+	@Test
+	public void testFetchesSmallDiffRatherThanWholeArtifact() throws IOException
+	{
+		byte[] old = content("diff base");
+		ContentStore.put(new ByteArrayInputStream(old), sha256(old));
+
+		Artifact artifact = artifact("diffed", content("diffed"));
+		artifact.setPath("https://example.invalid/diffed.jar");
+		artifact.setSize(LARGE);
+		artifact.setDiffs(new Diff[]{diff(artifact, "diffed-old.jar", sha256(old), 1024)});
+
+		UpdatePlan.Step step = plan(artifact);
+		Assert.assertEquals(UpdatePlan.Action.FETCH, step.getAction());
+		Assert.assertTrue(step.getEstimate().getSource() instanceof DiffSource);
+		Assert.assertEquals(1024, step.getEstimate().getTransferBytes());
+	}
+
+	@Test
+	public void testDownloadsWhenDiffIsFromUnknownVersion()
+	{
+		Artifact artifact = artifact("undiffable", content("undiffable"));
+		artifact.setPath("https://example.invalid/undiffable.jar");
+		artifact.setSize(LARGE);
+		artifact.setDiffs(new Diff[]{diff(artifact, "undiffable-old.jar", sha256(content("never seen")), 1024)});
+
+		UpdatePlan.Step step = plan(artifact);
+		Assert.assertEquals(UpdatePlan.Action.FETCH, step.getAction());
+		Assert.assertTrue(step.getEstimate().getSource() instanceof RemoteSource);
+		Assert.assertEquals(LARGE, step.getEstimate().getTransferBytes());
+	}
+
+	@Test
+	public void testNodiffDownloadsWholeArtifact() throws IOException
+	{
+		byte[] old = content("nodiff base");
+		ContentStore.put(new ByteArrayInputStream(old), sha256(old));
+
+		Artifact artifact = artifact("nodiff", content("nodiff"));
+		artifact.setPath("https://example.invalid/nodiff.jar");
+		artifact.setSize(LARGE);
+		artifact.setDiffs(new Diff[]{diff(artifact, "nodiff-old.jar", sha256(old), 1024)});
+
+		UpdatePlan.Step step = UpdatePlan.compute(List.of(artifact), true, false).getSteps().get(0);
+		Assert.assertTrue(step.getEstimate().getSource() instanceof RemoteSource);
+	}
+
+	@Test
+	public void testMissingWithoutAnySource()
+	{
+		Artifact artifact = artifact("nowhere", content("nowhere"));
+
+		UpdatePlan.Step step = plan(artifact);
+		Assert.assertEquals(UpdatePlan.Action.MISSING, step.getAction());
+		Assert.assertNull(step.getEstimate());
+	}
+
+	@Test
+	public void testKeepsOurRewrite() throws IOException
+	{
+		Artifact artifact = artifact("rewritten", content("rewritten upstream"));
+		artifact.setPath("https://example.invalid/rewritten.jar");
+		repository(artifact.getName(), content("rewritten by us"));
+		PatchedManifest.record(artifact, sha256(content("rewritten by us")), true, null);
+
+		UpdatePlan.Step step = plan(artifact);
+		Assert.assertEquals(UpdatePlan.Action.KEEP_PATCHED, step.getAction());
+		Assert.assertFalse(step.isUpstream());
+	}
+
+	@Test
+	public void testUnknownFileIsPatchedAnywayOrReplaced() throws IOException
+	{
+		Artifact artifact = artifact("unknown", content("unknown upstream"));
+		artifact.setPath("https://example.invalid/unknown.jar");
+		repository(artifact.getName(), content("unknown local"));
+
+		Assert.assertEquals(UpdatePlan.Action.PATCH_ANYWAY, UpdatePlan.compute(List.of(artifact), false, true).getSteps().get(0).getAction());
+
+		UpdatePlan.Step step = plan(artifact);
+		Assert.assertEquals(UpdatePlan.Action.FETCH, step.getAction());
+		Assert.assertTrue(step.getEstimate().getSource() instanceof RemoteSource);
+	}
+
+	@Test
+	public void testPrintingPlanWritesNothing() throws IOException
+	{
+		byte[] old = content("printed base");
+		ContentStore.put(new ByteArrayInputStream(old), sha256(old));
+
+		Artifact artifact = artifact("printed", content("printed"));
+		artifact.setPath("https://example.invalid/printed.jar");
+		artifact.setSize(LARGE);
+		artifact.setDiffs(new Diff[]{diff(artifact, "printed-old.jar", sha256(old), 1024)});
+
+		RuneNiteLauncher.printPlan(List.of(artifact), false);
+
+		Assert.assertFalse(DiffGraph.GRAPH_FILE.exists());
+		Assert.assertFalse(DeflateCompatibility.CACHE_FILE.exists());
+		Assert.assertFalse(new File(REPO_DIR, artifact.getName()).exists());
+	}
+
+	private static UpdatePlan.Step plan(Artifact artifact)
+	{
+		return UpdatePlan.compute(List.of(artifact), false, false).getSteps().get(0);
+	}
+
+	private void repository(String name, byte[] content) throws IOException
+	{
+		File file = new File(REPO_DIR, name);
+		Files.write(file.toPath(), content);
+		created.add(file);
+	}
+
+	private static Artifact artifact(String name, byte[] content)
+	{
+		Artifact artifact = new Artifact();
+		artifact.setName("plan-" + name + "-1.0.jar");
+		artifact.setHash(sha256(content));
+		artifact.setSize(content.length);
+		return artifact;
+	}
+
+	private static Diff diff(Artifact to, String from, String fromHash, int size)
+	{
+		Diff diff = new Diff();
+		diff.setName(to.getName() + ".apdiff.gz");
+		diff.setFrom(from);
+		diff.setFromHash(fromHash);
+		diff.setHash(sha256(content(to.getName() + " from " + from)));
+		diff.setPath("https://example.invalid/" + diff.getName());
+		diff.setSize(size);
+		return diff;
+	}
+
+	private static byte[] content(String s)
+	{
+		return (s + " " + UpdatePlanTest.class.getName()).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String sha256(byte[] data)
+	{
+		return Hashing.sha256().hashBytes(data).toString();
+	}
+}